@@ -0,0 +1,63 @@
+package com.zoealexa.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verificaciones de contraseña por segundo según el costo de BCrypt, a través
+ * del pool acotado con los hilos por defecto (más clientes que hilos)
+ *
+ * El resultado con el costo configurado dimensiona la cola:
+ * app.seguridad.bcrypt.cola ≈ verificaciones/s × espera-max-ms / 1000
+ *
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.filtro=BCryptCosto
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(8)
+public class BCryptCostoBenchmark {
+
+    private static final int HILOS = 4;
+
+    @Param({"4", "6", "8", "10"})
+    public int costo;
+
+    private PasswordEncoderAcotado encoder;
+    private String hash;
+
+    @Setup
+    public void preparar() {
+        encoder = new PasswordEncoderAcotado(new BCryptPasswordEncoder(costo),
+                HILOS, 64, 60_000, 1, new SimpleMeterRegistry());
+        hash = encoder.encode("secreto");
+    }
+
+    @TearDown
+    public void cerrar() {
+        encoder.destroy();
+    }
+
+    @Benchmark
+    public boolean verificar() {
+        return encoder.matches("secreto", hash);
+    }
+}
@@ -0,0 +1,72 @@
+package com.zoealexa.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens verificados por segundo: esquema anterior del filtro JWT frente a
+ * JwtService.verificar (clave y parser precalculados, un solo parseo)
+ *
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.filtro=JwtVerificacion
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificacionBenchmark {
+
+    private static final String SECRETO = Base64.getEncoder()
+            .encodeToString("clave-de-prueba-zoealexa-hmac-sha256-32b".getBytes());
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void preparar() {
+        jwtService = new JwtService(SECRETO, 3_600_000);
+        token = jwtService.generateTokenWithUserId(7, "AGENCIA", 3, User.withUsername("agencia@zoealexa.pe")
+                .password("").authorities("ROLE_AGENCIA").build());
+    }
+
+    /**
+     * Esquema anterior: extractUsername + isTokenValid (username y expiración),
+     * decodificando la clave y construyendo el parser en cada parseo
+     */
+    @Benchmark
+    public boolean antes() {
+        String username = parsear(token).getSubject();
+        return username.equals(parsear(token).getSubject())
+                && parsear(token).getExpiration().getTime() > System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public TokenVerificado despues() {
+        return jwtService.verificar(token);
+    }
+
+    private static Claims parsear(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRETO)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
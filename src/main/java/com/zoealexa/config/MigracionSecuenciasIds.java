@@ -0,0 +1,95 @@
+package com.zoealexa.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.util.Map;
+
+/**
+ * Migración de IDs IDENTITY a secuencias pooled (PostgreSQL)
+ *
+ * Las tablas con más inserciones usan secuencias con incremento 50 para que
+ * Hibernate pueda agrupar los INSERT en lotes JDBC. Se ejecuta al crear el bean,
+ * antes del EntityManagerFactory (y por lo tanto antes del servidor web, los
+ * schedulers y los listeners de arranque), de modo que ningún INSERT usa la
+ * secuencia sin migrar. Por cada tabla existente:
+ * - crea la secuencia si no existe
+ * - quita la generación IDENTITY de la columna (los IDs los asigna Hibernate)
+ * - adelanta la secuencia por encima del mayor ID existente
+ *
+ * Es idempotente: con datos ya migrados no modifica nada. En una base vacía no
+ * hace nada: Hibernate crea tablas y secuencias con el incremento de la entidad.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MigracionSecuenciasIds implements InitializingBean {
+
+    private static final int INCREMENTO = 50;
+
+    // Tabla -> columna ID (la secuencia es <tabla>_seq, igual que en @SequenceGenerator)
+    private static final Map<String, String> TABLAS = Map.of(
+            "reserva", "id_reserva",
+            "reserva_detalle", "id_detalle",
+            "pasajero", "id_pasajero",
+            "pago", "id_pago",
+            "equipaje", "id_equipaje",
+            "auditoria_acceso", "id_log",
+            "comprobante", "id_comprobante",
+            "viaje", "id_viaje"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Hace que el EntityManagerFactory dependa de esta migración
+     */
+    @Component
+    static class DependenciaEntityManagerFactory extends EntityManagerFactoryDependsOnPostProcessor {
+
+        DependenciaEntityManagerFactory() {
+            super(MigracionSecuenciasIds.class);
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        String baseDatos = jdbcTemplate.execute((Connection c) -> c.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(baseDatos)) {
+            log.debug("Migración de secuencias omitida para {}", baseDatos);
+            return;
+        }
+
+        TABLAS.forEach(this::migrar);
+    }
+
+    private void migrar(String tabla, String columna) {
+        String secuencia = tabla + "_seq";
+
+        if (jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, tabla) != Boolean.TRUE) {
+            return;
+        }
+
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + secuencia + " INCREMENT BY " + INCREMENTO);
+        jdbcTemplate.execute("ALTER TABLE " + tabla + " ALTER COLUMN " + columna + " DROP IDENTITY IF EXISTS");
+
+        // Con el optimizador pooled, nextval es el tope del bloque. Una vez migrada,
+        // la secuencia siempre va por delante de los IDs (incluidos los bloques que
+        // otras instancias tienen en memoria); solo se ajusta si quedó atrás.
+        Long maximo = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(" + columna + "), 0) FROM " + tabla, Long.class);
+        Long ultimo = jdbcTemplate.queryForObject(
+                "SELECT last_value FROM " + secuencia, Long.class);
+
+        if (maximo != null && maximo > 0 && ultimo != null && ultimo <= maximo) {
+            jdbcTemplate.queryForObject("SELECT setval(?, ?, false)", Long.class,
+                    secuencia, maximo + INCREMENTO);
+            log.info("Secuencia {} ajustada por encima del ID {}", secuencia, maximo);
+        }
+    }
+}
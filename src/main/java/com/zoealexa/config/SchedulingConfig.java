@@ -0,0 +1,10 @@
+package com.zoealexa.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    // Tareas programadas (@Scheduled): expiración de reservas pendientes, etc.
+}
@@ -1,7 +1,8 @@
 package com.zoealexa.controller;
 
 import com.zoealexa.dto.seguridad.*;
-import com.zoealexa.security.JwtService;
+import com.zoealexa.security.ContextoSeguridad;
+import com.zoealexa.security.UsuarioActual;
 import com.zoealexa.service.seguridad.AuthService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -11,8 +12,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 
 @RestController
 @RequestMapping("api/auth")
@@ -22,7 +21,7 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 public class AuthController {
 
     private final AuthService authService;
-    private final JwtService jwtService;
+    private final ContextoSeguridad contextoSeguridad;
 
     /**
      * Login de usuario
@@ -152,15 +151,9 @@ public class AuthController {
             throw new RuntimeException("Usuario no autenticado");
         }
 
-        // Obtener el token JWT del request
-        String token = obtenerTokenDelRequest();
-
-        if (token == null) {
-            throw new RuntimeException("Token JWT no encontrado");
-        }
-
-        // Extraer userId del token usando JwtService
-        Integer userId = jwtService.extractUserId(token);
+        // Resuelto una vez por request desde el token ya verificado
+        UsuarioActual usuario = contextoSeguridad.usuarioActual();
+        Integer userId = usuario != null ? usuario.idUsuario() : null;
 
         if (userId == null) {
             log.error("Token no contiene userId para usuario: {}", authentication.getName());
@@ -170,24 +163,4 @@ public class AuthController {
         log.debug("Usuario autenticado - ID: {}, Email: {}", userId, authentication.getName());
         return userId;
     }
-
-    /**
-     * Obtiene el token JWT del HttpServletRequest actual
-     */
-    private String obtenerTokenDelRequest() {
-        try {
-            ServletRequestAttributes attributes =
-                    (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
-            HttpServletRequest request = attributes.getRequest();
-
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                return authHeader.substring(7);
-            }
-            return null;
-        } catch (Exception e) {
-            log.error("Error al obtener token del request", e);
-            return null;
-        }
-    }
 }
@@ -0,0 +1,62 @@
+package com.zoealexa.controller;
+
+import com.zoealexa.dto.comprobante.RecuperacionNumeracionDTO;
+import com.zoealexa.service.comprobante.NumeracionComprobanteService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Administración de la numeración de comprobantes por serie
+ *
+ * GET  /api/comprobantes/series/{serie}/huecos             - Números asignados sin comprobante
+ * POST /api/comprobantes/series/{serie}/recuperar-numeros  - Retrocede el contador al último emitido
+ */
+@RestController
+@RequestMapping("/api/comprobantes")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ComprobanteController {
+
+    private final NumeracionComprobanteService numeracionComprobanteService;
+
+    /**
+     * Números de la serie asignados por el contador que no tienen comprobante emitido
+     *
+     * GET /api/comprobantes/series/B001/huecos
+     * */
+    @GetMapping("/series/{serie}/huecos")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<List<Long>> detectarHuecos(@PathVariable String serie) {
+        log.info("Detectando huecos de numeración en la serie {}", serie);
+
+        List<Long> huecos = numeracionComprobanteService.detectarHuecos(serie);
+
+        return ResponseEntity.ok(huecos);
+    }
+
+    /**
+     * Recupera los números finales de la serie que quedaron sin comprobante
+     * e informa los huecos intermedios que no pueden reutilizarse
+     *
+     * POST /api/comprobantes/series/B001/recuperar-numeros
+     * */
+    @PostMapping("/series/{serie}/recuperar-numeros")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<RecuperacionNumeracionDTO> recuperarNumeros(@PathVariable String serie) {
+        log.info("Recuperando números finales de la serie {}", serie);
+
+        long recuperados = numeracionComprobanteService.recuperarNumerosFinales(serie);
+
+        return ResponseEntity.ok(RecuperacionNumeracionDTO.builder()
+                .serie(serie)
+                .numerosRecuperados(recuperados)
+                .huecosRestantes(numeracionComprobanteService.detectarHuecos(serie))
+                .build());
+    }
+}
@@ -1,18 +1,22 @@
 package com.zoealexa.controller;
 
+import com.zoealexa.dto.transporte.ConflictoEmbarcacionDTO;
 import com.zoealexa.dto.transporte.RutaResponseDTO;
 import com.zoealexa.dto.transporte.UpdateEmbarcacionRequestDTO;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import com.zoealexa.dto.transporte.EmbarcacionRequestDTO;
 import com.zoealexa.dto.transporte.EmbarcacionResponseDTO;
+import com.zoealexa.service.transporte.AgendaEmbarcacionesService;
 import com.zoealexa.service.transporte.EmbarcacionService;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -23,6 +27,7 @@ import java.util.List;
 public class EmbarcacionController {
 
     private final EmbarcacionService embarcacionService;
+    private final AgendaEmbarcacionesService agendaEmbarcacionesService;
 
     /**
      * Crear nueva embarcación
@@ -52,6 +57,24 @@ public class EmbarcacionController {
     }
 
 
+    /**
+     * Reporte de conflictos de la flota: viajes de una misma embarcación
+     * con horarios que se cruzan, vigentes desde la fecha indicada (por defecto hoy)
+     *
+     * GET /api/embarcaciones/conflictos?desde=2024-12-15
+     * */
+    @GetMapping("/conflictos")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<List<ConflictoEmbarcacionDTO>> reporteConflictos(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde) {
+        log.info("Generando reporte de conflictos de embarcaciones");
+
+        List<ConflictoEmbarcacionDTO> conflictos = agendaEmbarcacionesService.reporteConflictos(
+                desde != null ? desde : LocalDate.now());
+
+        return ResponseEntity.ok(conflictos);
+    }
+
     /**
      * Actualizar embarcación
      * */
@@ -5,14 +5,19 @@ import com.zoealexa.dto.transporte.UpdatePuertoRequestDTO;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import com.zoealexa.dto.transporte.PuertoRequestDTO;
 import com.zoealexa.dto.transporte.PuertoResponseDTO;
 import com.zoealexa.service.transporte.PuertoService;
+import com.zoealexa.service.transporte.VersionCatalogoService;
+import com.zoealexa.service.transporte.VersionCatalogoService.Catalogo;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -25,7 +30,11 @@ import java.util.List;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class PuertoController {
 
+    // Requiere autenticación: solo caché privada del cliente
+    private static final CacheControl CACHE_PUERTOS = CacheControl.maxAge(Duration.ofMinutes(5)).cachePrivate();
+
     private final PuertoService puertoService;
+    private final VersionCatalogoService versionCatalogoService;
 
     /**
      * Crear nuevo puerto
@@ -46,12 +55,13 @@ public class PuertoController {
      * Listar todos los puertos
      */
     @GetMapping
-    public ResponseEntity<List<PuertoResponseDTO>> listarTodos() {
+    public ResponseEntity<List<PuertoResponseDTO>> listarTodos(WebRequest webRequest) {
         log.info("Listando todos los puertos");
 
-        List<PuertoResponseDTO> puertos = puertoService.listarTodos();
-
-        return ResponseEntity.ok(puertos);
+        return RespuestaCatalogo.condicional(webRequest,
+                versionCatalogoService.version(Catalogo.PUERTOS),
+                CACHE_PUERTOS,
+                puertoService::listarTodos);
     }
 
     /**
@@ -71,11 +81,12 @@ public class PuertoController {
     }
 
     @GetMapping("/en-servicio")
-    public ResponseEntity<List<PuertoResponseDTO>> listarEnServicio() {
+    public ResponseEntity<List<PuertoResponseDTO>> listarEnServicio(WebRequest webRequest) {
         log.info("Listando Embarcaciones EN_SERVICIO");
 
-        List<PuertoResponseDTO> puertos = puertoService.listarEnServicio();
-
-        return ResponseEntity.ok(puertos);
+        return RespuestaCatalogo.condicional(webRequest,
+                versionCatalogoService.version(Catalogo.PUERTOS),
+                CACHE_PUERTOS,
+                puertoService::listarEnServicio);
     }
 }
\ No newline at end of file
@@ -1,17 +1,22 @@
 package com.zoealexa.controller;
 
 
+import com.zoealexa.dto.reserva.BloquearCuposRequest;
 import com.zoealexa.dto.reserva.CancelarReservaRequest;
 import com.zoealexa.dto.reserva.CrearReservaRequest;
 import com.zoealexa.dto.reserva.EquipajeRequest;
+import com.zoealexa.dto.reserva.FiltroReservasRequest;
 import com.zoealexa.dto.reserva.RegistrarPagoRequest;
 import com.zoealexa.dto.reserva.response.ApiResponse;
+import com.zoealexa.dto.reserva.response.BloqueoCupoResponse;
 import com.zoealexa.dto.reserva.response.CancelacionReprogramacionResponse;
+import com.zoealexa.dto.reserva.response.PaginaCursorResponse;
 import com.zoealexa.dto.reserva.response.ReservaResponse;
 import com.zoealexa.dto.reserva.response.ReservaSimpleResponse;
-import com.zoealexa.security.JwtService;
+import com.zoealexa.security.ContextoSeguridad;
+import com.zoealexa.security.UsuarioActual;
+import com.zoealexa.service.reserva.BloqueoCupoService;
 import com.zoealexa.service.reserva.ReservaService;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,10 +25,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
-
-import java.util.List;
 
 /**
  * Controller REST para gestión de reservas
@@ -36,7 +37,8 @@ import java.util.List;
 public class ReservaController {
 
     private final ReservaService reservaService;
-    private final JwtService jwtService;
+    private final BloqueoCupoService bloqueoCupoService;
+    private final ContextoSeguridad contextoSeguridad;
 
     /**
      * Crear nueva reserva
@@ -61,6 +63,47 @@ public class ReservaController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Bloquear cupos temporalmente antes del pago
+     * POST /api/reservas/bloqueos
+     */
+    @PostMapping("/bloqueos")
+    @PreAuthorize("hasAnyRole('ASESOR_VENTAS', 'AGENCIA')")
+    public ResponseEntity<ApiResponse<BloqueoCupoResponse>> bloquearCupos(
+            @Valid @RequestBody BloquearCuposRequest request,
+            Authentication authentication) {
+
+        log.info("Bloqueando {} cupos - Viaje ID: {}", request.getCantidad(), request.getIdViaje());
+
+        Integer idUsuario = obtenerIdUsuario(authentication);
+        BloqueoCupoResponse bloqueo = bloqueoCupoService.bloquear(request, idUsuario);
+
+        ApiResponse<BloqueoCupoResponse> response = ApiResponse.success(
+                "Cupos bloqueados exitosamente",
+                bloqueo
+        );
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Liberar un bloqueo de cupos antes de su vencimiento
+     * DELETE /api/reservas/bloqueos/{codigo}
+     */
+    @DeleteMapping("/bloqueos/{codigo}")
+    @PreAuthorize("hasAnyRole('ASESOR_VENTAS', 'AGENCIA')")
+    public ResponseEntity<ApiResponse<Void>> liberarBloqueo(
+            @PathVariable String codigo,
+            Authentication authentication) {
+
+        log.info("Liberando bloqueo de cupos: {}", codigo);
+
+        Integer idUsuario = obtenerIdUsuario(authentication);
+        bloqueoCupoService.liberar(codigo, idUsuario);
+
+        return ResponseEntity.ok(ApiResponse.success("Bloqueo liberado exitosamente", null));
+    }
+
     /**
      * Buscar reserva por código
      * GET /api/reservas/{codigo}
@@ -83,20 +126,21 @@ public class ReservaController {
     }
 
     /**
-     * Listar todas las reservas
-     * GET /api/reservas
+     * Listar reservas por páginas, con filtros opcionales
+     * GET /api/reservas?estado=&idViaje=&idAgencia=&fechaDesde=&fechaHasta=&cursor=&tamano=
      */
     @GetMapping
     @PreAuthorize("hasAnyRole('ASESOR_VENTAS', 'AGENCIA')")
-    public ResponseEntity<ApiResponse<List<ReservaSimpleResponse>>> listarReservas() {
+    public ResponseEntity<ApiResponse<PaginaCursorResponse<ReservaSimpleResponse>>> listarReservas(
+            @Valid FiltroReservasRequest filtro) {
 
-        log.info("Listando todas las reservas");
+        log.info("Listando reservas - filtros: {}", filtro);
 
-        List<ReservaSimpleResponse> reservas = reservaService.listarReservas();
+        PaginaCursorResponse<ReservaSimpleResponse> pagina = reservaService.listarReservas(filtro);
 
-        ApiResponse<List<ReservaSimpleResponse>> response = ApiResponse.success(
-                String.format("Se encontraron %d reservas", reservas.size()),
-                reservas
+        ApiResponse<PaginaCursorResponse<ReservaSimpleResponse>> response = ApiResponse.success(
+                String.format("Se encontraron %d reservas", pagina.getElementos().size()),
+                pagina
         );
 
         return ResponseEntity.ok(response);
@@ -184,15 +228,9 @@ public class ReservaController {
             throw new RuntimeException("Usuario no autenticado");
         }
 
-        // Obtener el token JWT del request
-        String token = obtenerTokenDelRequest();
-
-        if (token == null) {
-            throw new RuntimeException("Token JWT no encontrado");
-        }
-
-        // Extraer userId del token usando JwtService
-        Integer userId = jwtService.extractUserId(token);
+        // Resuelto una vez por request desde el token ya verificado
+        UsuarioActual usuario = contextoSeguridad.usuarioActual();
+        Integer userId = usuario != null ? usuario.idUsuario() : null;
 
         if (userId == null) {
             log.error("Token no contiene userId para usuario: {}", authentication.getName());
@@ -202,24 +240,4 @@ public class ReservaController {
         log.debug("Usuario autenticado - ID: {}, Email: {}", userId, authentication.getName());
         return userId;
     }
-
-    /**
-     * Obtiene el token JWT del HttpServletRequest actual
-     */
-    private String obtenerTokenDelRequest() {
-        try {
-            ServletRequestAttributes attributes =
-                    (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
-            HttpServletRequest request = attributes.getRequest();
-
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                return authHeader.substring(7);
-            }
-            return null;
-        } catch (Exception e) {
-            log.error("Error al obtener token del request", e);
-            return null;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,50 @@
+package com.zoealexa.controller;
+
+import com.zoealexa.service.transporte.VersionCatalogoService.Version;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Respuestas condicionales (ETag / Last-Modified) para endpoints de catálogo
+ *
+ * Si la petición trae If-None-Match o If-Modified-Since vigentes se responde
+ * 304 sin ejecutar la consulta; si no, se ejecuta y se devuelve con las
+ * cabeceras de validación y la política Cache-Control del endpoint.
+ */
+final class RespuestaCatalogo {
+
+    private RespuestaCatalogo() {
+    }
+
+    static <T> ResponseEntity<T> condicional(WebRequest request, Version version,
+                                             CacheControl cacheControl, Supplier<T> consulta) {
+        boolean noModificado = version.tieneFecha()
+                ? request.checkNotModified(version.etag(), version.ultimaModificacion())
+                : request.checkNotModified(version.etag());
+
+        if (noModificado) {
+            return validadores(ResponseEntity.status(HttpStatus.NOT_MODIFIED), version, cacheControl)
+                    .build();
+        }
+
+        return validadores(ResponseEntity.ok(), version, cacheControl)
+                .body(consulta.get());
+    }
+
+    /**
+     * Cache-Control, ETag y, si la versión tiene fecha, Last-Modified
+     * (sin fecha un If-Modified-Since no detectaría cambios dentro del mismo segundo)
+     */
+    private static ResponseEntity.BodyBuilder validadores(ResponseEntity.BodyBuilder respuesta,
+                                                         Version version, CacheControl cacheControl) {
+        respuesta.cacheControl(cacheControl).eTag(version.etag());
+        if (version.tieneFecha()) {
+            respuesta.lastModified(version.ultimaModificacion());
+        }
+        return respuesta;
+    }
+}
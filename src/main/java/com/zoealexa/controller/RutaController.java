@@ -4,14 +4,19 @@ import com.zoealexa.dto.transporte.UpdateRutaRequestDTO;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import com.zoealexa.dto.transporte.RutaRequestDTO;
 import com.zoealexa.dto.transporte.RutaResponseDTO;
 import com.zoealexa.service.transporte.RutaService;
+import com.zoealexa.service.transporte.VersionCatalogoService;
+import com.zoealexa.service.transporte.VersionCatalogoService.Catalogo;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -32,7 +37,11 @@ import java.util.List;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class RutaController {
 
+    // Requiere autenticación: solo caché privada del cliente
+    private static final CacheControl CACHE_RUTAS = CacheControl.maxAge(Duration.ofMinutes(1)).cachePrivate();
+
     private final RutaService rutaService;
+    private final VersionCatalogoService versionCatalogoService;
 
     /**
      * Crear nueva ruta
@@ -86,12 +95,13 @@ public class RutaController {
      * GET /api/rutas/activas
      */
     @GetMapping("/activas")
-    public ResponseEntity<List<RutaResponseDTO>> listarActivas() {
+    public ResponseEntity<List<RutaResponseDTO>> listarActivas(WebRequest webRequest) {
         log.info("Listando rutas activas");
 
-        List<RutaResponseDTO> rutas = rutaService.listarActivas();
-
-        return ResponseEntity.ok(rutas);
+        return RespuestaCatalogo.condicional(webRequest,
+                versionCatalogoService.version(Catalogo.RUTAS, Catalogo.PUERTOS),
+                CACHE_RUTAS,
+                rutaService::listarActivas);
     }
 
     /**
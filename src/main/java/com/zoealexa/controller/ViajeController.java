@@ -4,14 +4,21 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import com.zoealexa.dto.transporte.*;
 import com.zoealexa.entity.enums.EstadoViaje;
+import com.zoealexa.service.transporte.ProgramacionViajesService;
+import com.zoealexa.service.transporte.VersionCatalogoService;
+import com.zoealexa.service.transporte.VersionCatalogoService.Catalogo;
 import com.zoealexa.service.transporte.ViajeService;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.List;
 
 /**
@@ -22,6 +29,9 @@ import java.util.List;
  * - GET    /api/viajes/{id} - Buscar por ID
  * - GET    /api/viajes/buscar - Buscar viajes disponibles
  * - GET    /api/viajes/proximos - Viajes próximos (7 días)
+ * - GET    /api/viajes/itinerarios - Itinerarios entre puertos (con escala)
+ * - POST   /api/viajes/programacion - Generar una temporada de viajes
+ * - GET    /api/viajes/programacion/{idTrabajo} - Avance de la generación
  * - GET    /api/viajes/estado/{estado} - Listar por estado
  */
 @RestController
@@ -31,7 +41,12 @@ import java.util.List;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class ViajeController {
 
+    // Cupos cambian con cada reserva: caché corta, luego revalidación con ETag
+    private static final CacheControl CACHE_VIAJES = CacheControl.maxAge(Duration.ofSeconds(15)).cachePublic();
+
     private final ViajeService viajeService;
+    private final ProgramacionViajesService programacionViajesService;
+    private final VersionCatalogoService versionCatalogoService;
 
     /**
      * Crear nuevo viaje
@@ -53,6 +68,38 @@ public class ViajeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Generar una temporada de viajes para varias rutas
+     * La generación corre en segundo plano; la respuesta trae el ID para consultar el avance
+     *
+     * POST /api/viajes/programacion
+     *
+     * @param request Periodo y servicios (ruta, embarcación, hora)
+     * @return Avance inicial de la generación
+     */
+    @PostMapping("/programacion")
+    public ResponseEntity<ProgresoProgramacionDTO> programar(@Valid @RequestBody ProgramacionViajesRequestDTO request) {
+        log.info("Programando viajes del {} al {} para {} servicios",
+                request.getFechaInicio(), request.getFechaFin(), request.getServicios().size());
+
+        ProgresoProgramacionDTO progreso = programacionViajesService.iniciar(request);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(progreso);
+    }
+
+    /**
+     * Consultar el avance de una generación de viajes
+     *
+     * GET /api/viajes/programacion/{idTrabajo}
+     *
+     * @param idTrabajo ID devuelto al iniciar la generación
+     * @return Avance de la generación
+     */
+    @GetMapping("/programacion/{idTrabajo}")
+    public ResponseEntity<ProgresoProgramacionDTO> obtenerProgresoProgramacion(@PathVariable String idTrabajo) {
+        return ResponseEntity.ok(programacionViajesService.obtenerProgreso(idTrabajo));
+    }
+
     /**
      * Listar todos los viajes
      * Get api/viajes
@@ -75,12 +122,13 @@ public class ViajeController {
      * @return Viaje encontrado
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ViajeResponseDTO> buscarPorId(@PathVariable Integer id) {
+    public ResponseEntity<ViajeResponseDTO> buscarPorId(@PathVariable Integer id, WebRequest webRequest) {
         log.info("Buscando viaje por ID: {}", id);
 
-        ViajeResponseDTO response = viajeService.buscarPorId(id);
-
-        return ResponseEntity.ok(response);
+        return RespuestaCatalogo.condicional(webRequest,
+                versionCatalogoService.version(Catalogo.VIAJES, Catalogo.RUTAS, Catalogo.PUERTOS, Catalogo.EMBARCACIONES),
+                CACHE_VIAJES,
+                () -> viajeService.buscarPorId(id));
     }
 
     /**
@@ -97,20 +145,45 @@ public class ViajeController {
     public ResponseEntity<List<ViajeBusquedaDTO>> buscarDisponibles(
             @RequestParam Integer idRuta,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            WebRequest webRequest) {
 
         log.info("Buscando viajes disponibles - Ruta: {}, Del {} al {}",
                 idRuta, fechaInicio, fechaFin);
 
-        List<ViajeBusquedaDTO> viajes = viajeService.buscarDisponibles(
-                idRuta,
-                fechaInicio,
-                fechaFin
-        );
-
-        log.info("Viajes encontrados: {}", viajes.size());
+        return RespuestaCatalogo.condicional(webRequest,
+                versionCatalogoService.version(Catalogo.VIAJES),
+                CACHE_VIAJES,
+                () -> viajeService.buscarDisponibles(idRuta, fechaInicio, fechaFin));
+    }
 
-        return ResponseEntity.ok(viajes);
+    /**
+     * Buscar itinerarios entre dos puertos, directos o con escala
+     *
+     * GET /api/viajes/itinerarios?idPuertoOrigen=1&idPuertoDestino=3&fecha=2024-12-15&pasajeros=2
+     *
+     * @param idPuertoOrigen ID del puerto de origen
+     * @param idPuertoDestino ID del puerto de destino
+     * @param fecha Fecha desde la que se buscan salidas
+     * @param pasajeros Cupos necesarios en cada tramo
+     * @return Itinerarios ordenados por salida
+     */
+    @GetMapping("/itinerarios")
+    public ResponseEntity<List<ItinerarioDTO>> buscarItinerarios(
+            @RequestParam Integer idPuertoOrigen,
+            @RequestParam Integer idPuertoDestino,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha,
+            @RequestParam(defaultValue = "1") int pasajeros,
+            WebRequest webRequest) {
+
+        log.info("Buscando itinerarios - Puerto {} → Puerto {}, desde {}",
+                idPuertoOrigen, idPuertoDestino, fecha);
+
+        // Los cambios de rutas que afectan a la red también cambian la versión de viajes
+        return RespuestaCatalogo.condicional(webRequest,
+                versionCatalogoService.version(Catalogo.VIAJES),
+                CACHE_VIAJES,
+                () -> viajeService.buscarItinerarios(idPuertoOrigen, idPuertoDestino, fecha, pasajeros));
     }
 
     /**
@@ -121,12 +194,17 @@ public class ViajeController {
      * @return Lista de viajes próximos
      */
     @GetMapping("/proximos")
-    public ResponseEntity<List<ViajeBusquedaDTO>> obtenerProximos() {
+    public ResponseEntity<List<ViajeBusquedaDTO>> obtenerProximos(WebRequest webRequest) {
         log.info("Obteniendo viajes próximos (7 días)");
 
-        List<ViajeBusquedaDTO> viajes = viajeService.obtenerProximos();
+        // El resultado depende también del día actual
+        LocalDate hoy = LocalDate.now();
+        long inicioDelDia = hoy.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
 
-        return ResponseEntity.ok(viajes);
+        return RespuestaCatalogo.condicional(webRequest,
+                versionCatalogoService.version(Catalogo.VIAJES).conVariante(hoy, inicioDelDia),
+                CACHE_VIAJES,
+                viajeService::obtenerProximos);
     }
 
     /**
@@ -0,0 +1,17 @@
+package com.zoealexa.dto.comprobante;
+
+import lombok.*;
+import java.util.List;
+
+/**
+ * Resultado de recuperar los números finales sin comprobante de una serie
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecuperacionNumeracionDTO {
+    private String serie;
+    private Long numerosRecuperados;
+    private List<Long> huecosRestantes;
+}
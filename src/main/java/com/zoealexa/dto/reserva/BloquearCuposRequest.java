@@ -0,0 +1,26 @@
+package com.zoealexa.dto.reserva;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BloquearCuposRequest {
+
+    @NotNull(message = "El ID del viaje es obligatorio")
+    @Positive(message = "El ID del viaje debe ser positivo")
+    private Integer idViaje;
+
+    @NotNull(message = "La cantidad de cupos es obligatoria")
+    @Min(value = 1, message = "Debe bloquear al menos un cupo")
+    @Max(value = 100, message = "No se pueden bloquear más de 100 cupos")
+    private Integer cantidad;
+}
@@ -34,4 +34,6 @@ public class CrearReservaRequest {
 
     @Valid
     private DatosFacturaRequest datosFactura; // Opcional (solo si requiere factura)
+
+    private String codigoBloqueo; // Opcional (confirma un bloqueo de cupos previo)
 }
\ No newline at end of file
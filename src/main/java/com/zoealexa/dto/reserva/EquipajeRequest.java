@@ -17,6 +17,7 @@ public class EquipajeRequest {
     @NotNull(message = "El peso es obligatorio")
     @DecimalMin(value = "0.01", message = "El peso debe ser mayor a 0")
     @DecimalMax(value = "999.99", message = "El peso no puede exceder 999.99 kg")
+    @Digits(integer = 3, fraction = 2, message = "El peso admite como máximo 2 decimales")
     private BigDecimal pesoKg;
 
     @DecimalMin(value = "0.01", message = "El volumen debe ser mayor a 0")
@@ -0,0 +1,44 @@
+package com.zoealexa.dto.reserva;
+
+import com.zoealexa.entity.enums.EstadoReserva;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros y cursor del listado paginado de reservas (GET /api/reservas)
+ * Todos los campos son opcionales
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FiltroReservasRequest {
+
+    private EstadoReserva estado;
+
+    private Integer idViaje;
+
+    // Solo aplica a ASESOR_VENTAS: una agencia siempre ve únicamente sus reservas
+    private Integer idAgencia;
+
+    // Rango sobre la fecha de reserva (ambos días incluidos)
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fechaDesde;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fechaHasta;
+
+    // Valor de siguienteCursor de la página anterior
+    private String cursor;
+
+    @Min(value = 1, message = "El tamaño de página debe ser al menos 1")
+    @Max(value = 100, message = "El tamaño de página no puede exceder 100")
+    private Integer tamano;
+}
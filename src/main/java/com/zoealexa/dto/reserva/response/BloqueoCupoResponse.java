@@ -0,0 +1,25 @@
+package com.zoealexa.dto.reserva.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.zoealexa.entity.enums.EstadoBloqueo;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BloqueoCupoResponse {
+
+    private String codigoBloqueo;
+    private Integer idViaje;
+    private Integer cantidad;
+    private EstadoBloqueo estado;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime fechaExpiracion;
+}
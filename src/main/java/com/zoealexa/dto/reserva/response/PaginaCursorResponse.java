@@ -0,0 +1,30 @@
+package com.zoealexa.dto.reserva.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de un listado con paginación por cursor (keyset)
+ * Para pedir la siguiente página se envía siguienteCursor como parámetro cursor
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCursorResponse<T> {
+
+    private List<T> elementos;
+    private String siguienteCursor;
+    private boolean hayMas;
+
+    public static <T> PaginaCursorResponse<T> vacia() {
+        return PaginaCursorResponse.<T>builder()
+                .elementos(List.of())
+                .hayMas(false)
+                .build();
+    }
+}
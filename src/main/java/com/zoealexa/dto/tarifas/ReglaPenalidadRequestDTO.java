@@ -36,6 +36,13 @@ public class ReglaPenalidadRequestDTO {
     @DecimalMin(value = "0.00", message = "El valor no puede ser negativo")
     private BigDecimal valor;
 
+    /**
+     * Días mínimos de anticipación para aplicar esta regla (escalonamiento)
+     * Null = aplica con cualquier anticipación
+     */
+    @Min(value = 0, message = "Los días de anticipación no pueden ser negativos")
+    private Integer diasAnticipacionMinima;
+
     // ==========================================
     // SOLO PARA EQUIPAJE
     // ==========================================
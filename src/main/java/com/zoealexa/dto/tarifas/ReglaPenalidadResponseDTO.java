@@ -26,6 +26,7 @@ public class ReglaPenalidadResponseDTO {
     // Para CANCELACION, REPROGRAMACION, GENERICA
     private TipoValor tipoValor;
     private BigDecimal valor;
+    private Integer diasAnticipacionMinima;
 
     // Solo para EQUIPAJE
     private Integer kilosPermitidos;
@@ -1,17 +1,19 @@
 package com.zoealexa.dto.tarifas;
 
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.FutureOrPresent;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 /**
  * DTO para crear una nueva TarifaRuta
  *
  * El sistema:
- * - asigna fechas automáticamente
- * - cierra la tarifa vigente anterior
+ * - asigna la fecha de inicio (ahora, salvo que se programe a futuro)
+ * - cierra la tarifa anterior al iniciar la nueva
  */
 @Data
 public class TarifaRutaRequestDTO {
@@ -22,4 +24,11 @@ public class TarifaRutaRequestDTO {
     @NotNull(message = "El precio base es obligatorio")
     @DecimalMin(value = "0.01", message = "El precio debe ser mayor a 0")
     private BigDecimal precioBase;
+
+    /**
+     * Inicio de vigencia opcional, para programar cambios de precio
+     * Null = vigente desde ahora
+     */
+    @FutureOrPresent(message = "La fecha de inicio no puede estar en el pasado")
+    private LocalDateTime fechaInicio;
 }
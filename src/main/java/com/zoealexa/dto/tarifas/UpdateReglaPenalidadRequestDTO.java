@@ -21,6 +21,9 @@ public class UpdateReglaPenalidadRequestDTO {
     @DecimalMin(value = "0.00", message = "El valor no puede ser negativo")
     private BigDecimal valor;
 
+    @Min(value = 0, message = "Los días de anticipación no pueden ser negativos")
+    private Integer diasAnticipacionMinima;
+
     @Min(value = 0, message = "Los kilos permitidos no pueden ser negativos")
     private Integer kilosPermitidos;
 
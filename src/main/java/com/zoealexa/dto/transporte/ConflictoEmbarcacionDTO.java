@@ -0,0 +1,22 @@
+package com.zoealexa.dto.transporte;
+
+import lombok.*;
+import java.time.*;
+
+/**
+ * Dos viajes asignados a la misma embarcación con horarios que se cruzan
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConflictoEmbarcacionDTO {
+    private Integer idEmbarcacion;
+    private String nombreEmbarcacion;
+    private Integer idViaje;
+    private LocalDateTime salidaViaje;
+    private LocalDateTime llegadaViaje;
+    private Integer idViajeEnConflicto;
+    private LocalDateTime salidaViajeEnConflicto;
+    private LocalDateTime llegadaViajeEnConflicto;
+}
@@ -0,0 +1,20 @@
+package com.zoealexa.dto.transporte;
+
+import lombok.*;
+import java.time.*;
+import java.util.List;
+
+/**
+ * Itinerario entre dos puertos: un viaje directo o varios con escala
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItinerarioDTO {
+    private LocalDateTime fechaHoraSalida;
+    private LocalDateTime fechaHoraLlegada;
+    private Long duracionMinutos;
+    private Integer escalas;
+    private List<ViajeBusquedaDTO> tramos;
+}
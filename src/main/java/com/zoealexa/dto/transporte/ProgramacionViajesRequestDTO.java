@@ -0,0 +1,28 @@
+package com.zoealexa.dto.transporte;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.*;
+import java.time.*;
+import java.util.List;
+
+/**
+ * Generación masiva de viajes: una temporada de salidas para varias rutas
+ * Se crean viajes en cada fecha del periodo que coincida con los días de operación de la ruta
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgramacionViajesRequestDTO {
+
+    @NotNull(message = "La fecha de inicio es obligatoria")
+    private LocalDate fechaInicio;
+
+    @NotNull(message = "La fecha de fin es obligatoria")
+    private LocalDate fechaFin;
+
+    @NotEmpty(message = "Debe indicar al menos un servicio")
+    @Valid
+    private List<ServicioProgramacionDTO> servicios;
+}
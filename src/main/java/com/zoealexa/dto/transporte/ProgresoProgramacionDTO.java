@@ -0,0 +1,25 @@
+package com.zoealexa.dto.transporte;
+
+import lombok.*;
+import java.time.*;
+
+/**
+ * Avance de una generación masiva de viajes
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgresoProgramacionDTO {
+    private String idTrabajo;
+    private String estado; // EN_PROCESO, COMPLETADO, FALLIDO
+    private Integer totalSalidas;
+    private Integer procesadas;
+    private Integer creados;
+    private Integer omitidosExistentes;
+    private Integer omitidosConflicto; // embarcación ocupada en ese horario
+    private Integer porcentaje;
+    private String mensaje;
+    private LocalDateTime fechaInicio;
+    private LocalDateTime fechaFin;
+}
@@ -20,6 +20,9 @@ public class RutaRequestDTO {
     @Size(max = 50)
     private String diasOperacion; // "LUN,MIE,VIE"
 
+    @Min(value = 1, message = "La duración debe ser de al menos 1 minuto")
+    private Integer duracionMinutos; // opcional: necesaria para itinerarios con escala
+
     @NotNull(message = "El estado es obligatorio")
     private EstadoRuta estado; //ACTIVA, INACTIVA
 }
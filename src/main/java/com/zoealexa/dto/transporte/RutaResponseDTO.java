@@ -14,6 +14,7 @@ public class RutaResponseDTO {
     private PuertoResponseDTO puertoOrigen;
     private PuertoResponseDTO puertoDestino;
     private String diasOperacion;
+    private Integer duracionMinutos;
     private EstadoRuta estado;
     private LocalDateTime fechaCreacion;
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.zoealexa.dto.transporte;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+import java.time.*;
+
+/**
+ * Servicio regular de una ruta dentro de una programación: embarcación y hora de salida
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServicioProgramacionDTO {
+
+    @NotNull(message = "La ruta es obligatoria")
+    private Integer idRuta;
+
+    @NotNull(message = "La embarcación es obligatoria")
+    private Integer idEmbarcacion;
+
+    @NotNull(message = "La hora de embarque es obligatoria")
+    private LocalTime horaEmbarque;
+}
@@ -1,5 +1,6 @@
 package com.zoealexa.dto.transporte;
 
+import jakarta.validation.constraints.Min;
 import lombok.Data;
 import com.zoealexa.entity.enums.EstadoRuta;
 
@@ -15,5 +16,8 @@ public class UpdateRutaRequestDTO {
     private Integer idPuertoOrigen;
     private Integer idPuertoDestino;
     private String diasOperacion;
+
+    @Min(value = 1, message = "La duración debe ser de al menos 1 minuto")
+    private Integer duracionMinutos;
     private EstadoRuta estado;
 }
\ No newline at end of file
@@ -25,7 +25,8 @@ import java.time.LocalDateTime;
 public class AuditoriaAcceso {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "auditoria_acceso_seq")
+    @SequenceGenerator(name = "auditoria_acceso_seq", sequenceName = "auditoria_acceso_seq", allocationSize = 50)
     @Column(name = "id_log")
     private Long idLog;
 
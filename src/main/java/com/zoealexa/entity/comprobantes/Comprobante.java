@@ -26,7 +26,8 @@ import java.time.LocalDateTime;
 public class Comprobante {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comprobante_seq")
+    @SequenceGenerator(name = "comprobante_seq", sequenceName = "comprobante_seq", allocationSize = 50)
     @Column(name = "id_comprobante")
     private Long idComprobante;
 
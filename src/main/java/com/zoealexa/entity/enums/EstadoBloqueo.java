@@ -0,0 +1,5 @@
+package com.zoealexa.entity.enums;
+
+public enum EstadoBloqueo {
+    ACTIVO, CONFIRMADO, EXPIRADO, LIBERADO
+}
@@ -22,7 +22,8 @@ import java.time.LocalDateTime;
 public class Equipaje {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "equipaje_seq")
+    @SequenceGenerator(name = "equipaje_seq", sequenceName = "equipaje_seq", allocationSize = 50)
     @Column(name = "id_equipaje")
     private Long idEquipaje;
 
@@ -0,0 +1,66 @@
+package com.zoealexa.entity.reservas;
+
+import com.zoealexa.entity.enums.EstadoBloqueo;
+import com.zoealexa.entity.seguridad.Usuario;
+import com.zoealexa.entity.transporte.Viaje;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bloqueo temporal de cupos en un viaje antes del pago
+ * Los cupos se descuentan del viaje al crear el bloqueo y se devuelven si expira
+ */
+@Entity
+@Table(name = "bloqueo_cupo", indexes = {
+        @Index(name = "idx_bloqueo_codigo", columnList = "codigo", unique = true),
+        @Index(name = "idx_bloqueo_estado", columnList = "estado")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BloqueoCupo {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_bloqueo")
+    private Long idBloqueo;
+
+    @Column(name = "codigo", nullable = false, unique = true, length = 36)
+    private String codigo;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_viaje", nullable = false)
+    private Viaje viaje;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_usuario", nullable = false)
+    private Usuario usuario;
+
+    @Column(name = "cantidad", nullable = false)
+    private Integer cantidad;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false, length = 20)
+    @Builder.Default
+    private EstadoBloqueo estado = EstadoBloqueo.ACTIVO;
+
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime fechaCreacion = LocalDateTime.now();
+
+    @Column(name = "fecha_expiracion", nullable = false)
+    private LocalDateTime fechaExpiracion;
+
+    /**
+     * Verifica si el bloqueo sigue vigente
+     */
+    public boolean estaVigente() {
+        return estado == EstadoBloqueo.ACTIVO && LocalDateTime.now().isBefore(fechaExpiracion);
+    }
+}
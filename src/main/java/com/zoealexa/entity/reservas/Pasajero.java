@@ -23,7 +23,8 @@ import java.time.Period;
 public class Pasajero {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pasajero_seq")
+    @SequenceGenerator(name = "pasajero_seq", sequenceName = "pasajero_seq", allocationSize = 50)
     @Column(name = "id_pasajero")
     private Long idPasajero;
 
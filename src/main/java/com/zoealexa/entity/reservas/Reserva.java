@@ -17,15 +17,22 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "reserva")
+@Table(name = "reserva", indexes = {
+        @Index(name = "idx_reserva_fecha_id", columnList = "fecha_reserva, id_reserva"),
+        @Index(name = "idx_reserva_agencia_fecha_id", columnList = "id_agencia, fecha_reserva, id_reserva"),
+        @Index(name = "idx_reserva_viaje", columnList = "id_viaje")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Reserva {
 
+    private static final BigDecimal FACTOR_ADELANTO_MINIMO = new BigDecimal("0.50");
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reserva_seq")
+    @SequenceGenerator(name = "reserva_seq", sequenceName = "reserva_seq", allocationSize = 50)
     @Column(name = "id_reserva")
     private Long idReserva;
 
@@ -152,7 +159,7 @@ public class Reserva {
      * Verifica si el adelanto es suficiente (mínimo 50%)
      */
     public boolean tieneAdelantoSuficiente() {
-        BigDecimal adelantoMinimo = total.multiply(new BigDecimal("0.50"));
+        BigDecimal adelantoMinimo = total.multiply(FACTOR_ADELANTO_MINIMO);
         return montoPagado.compareTo(adelantoMinimo) >= 0;
     }
 }
\ No newline at end of file
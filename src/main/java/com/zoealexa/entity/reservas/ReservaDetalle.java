@@ -21,7 +21,8 @@ import java.math.BigDecimal;
 public class ReservaDetalle {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reserva_detalle_seq")
+    @SequenceGenerator(name = "reserva_detalle_seq", sequenceName = "reserva_detalle_seq", allocationSize = 50)
     @Column(name = "id_detalle")
     private Long idDetalle;
 
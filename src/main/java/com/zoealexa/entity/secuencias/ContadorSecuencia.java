@@ -0,0 +1,38 @@
+package com.zoealexa.entity.secuencias;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Contador persistente por clave (ej: RV-2025 para códigos de reserva)
+ * El valor es el último número ya asignado para esa clave
+ */
+@Entity
+@Table(name = "contador_secuencia")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContadorSecuencia {
+
+    @Id
+    @Column(name = "clave", length = 30)
+    private String clave;
+
+    @Column(name = "valor", nullable = false)
+    private Long valor;
+
+    @Column(name = "fecha_actualizacion", nullable = false)
+    private LocalDateTime fechaActualizacion;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        fechaActualizacion = LocalDateTime.now();
+    }
+}
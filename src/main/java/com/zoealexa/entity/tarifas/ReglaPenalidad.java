@@ -44,6 +44,10 @@ public class ReglaPenalidad {
     @Column(name = "valor", precision = 10, scale = 2)
     private BigDecimal valor; // Null para EQUIPAJE
 
+    // Escalonamiento: aplica cuando se avisa con al menos estos días (null = cualquier anticipación)
+    @Column(name = "dias_anticipacion_minima")
+    private Integer diasAnticipacionMinima;
+
     // Solo para EQUIPAJE
     @Column(name = "kilos_permitidos")
     private Integer kilosPermitidos;
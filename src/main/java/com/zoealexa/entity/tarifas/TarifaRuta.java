@@ -42,10 +42,18 @@ public class TarifaRuta {
     private LocalDateTime fechaFin;
 
     /**
-     * Una tarifa es vigente si NO tiene fecha fin
+     * Una tarifa es vigente si ya inició y NO tiene fecha fin (o aún no llega)
      */
     public boolean estaVigente() {
-        return fechaFin == null;
+        LocalDateTime ahora = LocalDateTime.now();
+        return !fechaInicio.isAfter(ahora) && (fechaFin == null || fechaFin.isAfter(ahora));
+    }
+
+    /**
+     * Tarifa programada a futuro
+     */
+    public boolean estaProgramada() {
+        return fechaInicio.isAfter(LocalDateTime.now());
     }
 }
 
@@ -3,6 +3,7 @@ package com.zoealexa.entity.transporte;
 import com.zoealexa.entity.auditoria.Auditable;
 import com.zoealexa.entity.enums.EstadoRuta;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
@@ -39,6 +40,14 @@ public class Ruta extends Auditable {
     @Column(name = "dias_operacion", length = 50)
     private String diasOperacion;
 
+    /**
+     * Duración del trayecto; permite calcular la llegada de cada viaje
+     * y combinar rutas en itinerarios con escala
+     */
+    @Min(1)
+    @Column(name = "duracion_minutos")
+    private Integer duracionMinutos;
+
     @NotNull @Enumerated(EnumType.STRING)
     @Column(name = "estado", nullable = false, length = 20)
     @Builder.Default
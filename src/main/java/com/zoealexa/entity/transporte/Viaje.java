@@ -27,7 +27,8 @@ import java.time.LocalTime;
 public class Viaje extends Auditable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "viaje_seq")
+    @SequenceGenerator(name = "viaje_seq", sequenceName = "viaje_seq", allocationSize = 50)
     @Column(name = "id_viaje")
     private Integer idViaje;
 
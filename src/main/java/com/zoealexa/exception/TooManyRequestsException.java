@@ -0,0 +1,22 @@
+package com.zoealexa.exception;
+
+/**
+ * Excepción cuando se rechaza una solicitud por exceso de carga o de intentos
+ * HTTP Status: 429 TOO MANY REQUESTS (con cabecera Retry-After)
+ *
+ * Ejemplos:
+ * - Demasiados intentos de login desde una misma IP
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long reintentarEnSegundos;
+
+    public TooManyRequestsException(String message, long reintentarEnSegundos) {
+        super(message);
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+
+    public long getReintentarEnSegundos() {
+        return reintentarEnSegundos;
+    }
+}
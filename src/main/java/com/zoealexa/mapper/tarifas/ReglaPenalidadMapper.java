@@ -20,6 +20,7 @@ public class ReglaPenalidadMapper {
                 .descripcion(dto.getDescripcion())
                 .tipoValor(dto.getTipoValor())
                 .valor(dto.getValor())
+                .diasAnticipacionMinima(dto.getDiasAnticipacionMinima())
                 .kilosPermitidos(dto.getKilosPermitidos())
                 .precioPorKilo(dto.getPrecioPorKilo())
                 .activa(dto.getActiva() != null ? dto.getActiva() : true)
@@ -38,6 +39,7 @@ public class ReglaPenalidadMapper {
                 .descripcion(entity.getDescripcion())
                 .tipoValor(entity.getTipoValor())
                 .valor(entity.getValor())
+                .diasAnticipacionMinima(entity.getDiasAnticipacionMinima())
                 .kilosPermitidos(entity.getKilosPermitidos())
                 .precioPorKilo(entity.getPrecioPorKilo())
                 .activa(entity.getActiva())
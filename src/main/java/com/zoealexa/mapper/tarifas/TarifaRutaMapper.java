@@ -24,10 +24,15 @@ public class TarifaRutaMapper {
 
         boolean vigente = entity.estaVigente();
 
-        String descripcionVigencia = vigente
-                ? "Vigente desde " + entity.getFechaInicio()
-                : "Vigente desde " + entity.getFechaInicio() +
-                " hasta " + entity.getFechaFin();
+        String descripcionVigencia;
+        if (entity.estaProgramada()) {
+            descripcionVigencia = "Programada desde " + entity.getFechaInicio();
+        } else if (entity.getFechaFin() == null) {
+            descripcionVigencia = "Vigente desde " + entity.getFechaInicio();
+        } else {
+            descripcionVigencia = "Vigente desde " + entity.getFechaInicio() +
+                    " hasta " + entity.getFechaFin();
+        }
 
         return TarifaRutaResponseDTO.builder()
                 .idTarifa(entity.getIdTarifa())
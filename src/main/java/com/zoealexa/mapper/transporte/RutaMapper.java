@@ -16,6 +16,7 @@ public class RutaMapper {
                 .puertoOrigen(PuertoMapper.toResponseDTO(ruta.getPuertoOrigen()))
                 .puertoDestino(PuertoMapper.toResponseDTO(ruta.getPuertoDestino()))
                 .diasOperacion(ruta.getDiasOperacion())
+                .duracionMinutos(ruta.getDuracionMinutos())
                 .estado(ruta.getEstado())
                 .fechaCreacion(ruta.getFechaCreacion())
                 .build();
@@ -26,6 +27,7 @@ public class RutaMapper {
 
         return Ruta.builder()
                 .diasOperacion(dto.getDiasOperacion())
+                .duracionMinutos(dto.getDuracionMinutos())
                 .estado(dto.getEstado())
                 .build();
     }
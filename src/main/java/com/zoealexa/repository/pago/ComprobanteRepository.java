@@ -26,12 +26,27 @@ public interface ComprobanteRepository extends JpaRepository<Comprobante, Long>
 
     /**
      * Obtiene el último número de comprobante por serie
+     * Los números tienen ancho fijo (8 dígitos): el máximo como texto es el
+     * máximo numérico y se resuelve con el índice único (serie, numero)
      */
-    @Query(value = "SELECT MAX(CAST(numero AS INTEGER)) " +
+    @Query(value = "SELECT CAST(MAX(numero) AS INTEGER) " +
             "FROM comprobante WHERE serie = :serie",
             nativeQuery = true)
     Integer findUltimoNumeroBySerie(@Param("serie") String serie);
 
+    /**
+     * Números de la serie entre 1 y :hasta que no tienen comprobante emitido
+     * Cada número se compara con el valor guardado (texto de 8 dígitos), no
+     * con la columna convertida, para que la búsqueda use el índice (serie, numero).
+     * La serie se genera hasta un bigint (:hasta es long), de ahí List<Long>
+     */
+    @Query(value = "SELECT s.n FROM generate_series(1, :hasta) AS s(n) " +
+            "WHERE NOT EXISTS (SELECT 1 FROM comprobante c " +
+            "WHERE c.serie = :serie AND c.numero = LPAD(CAST(s.n AS TEXT), 8, '0')) " +
+            "ORDER BY s.n",
+            nativeQuery = true)
+    List<Long> findNumerosFaltantes(@Param("serie") String serie, @Param("hasta") long hasta);
+
 //    /**
 //     * Encuentra comprobantes pendientes de envío a SUNAT
 //     */
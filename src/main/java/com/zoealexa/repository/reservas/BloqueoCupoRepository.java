@@ -0,0 +1,52 @@
+package com.zoealexa.repository.reservas;
+
+import com.zoealexa.entity.enums.EstadoBloqueo;
+import com.zoealexa.entity.reservas.BloqueoCupo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BloqueoCupoRepository extends JpaRepository<BloqueoCupo, Long> {
+
+    Optional<BloqueoCupo> findByCodigo(String codigo);
+
+    List<BloqueoCupo> findByEstado(EstadoBloqueo estado);
+
+    /**
+     * Bloqueos que siguen ACTIVO con la expiración ya cumplida
+     */
+    @Query("SELECT b.idBloqueo FROM BloqueoCupo b " +
+            "WHERE b.estado = com.zoealexa.entity.enums.EstadoBloqueo.ACTIVO AND b.fechaExpiracion <= :ahora " +
+            "ORDER BY b.fechaExpiracion")
+    List<Long> findIdsActivosVencidos(@Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Cambia el estado de un bloqueo solo si sigue ACTIVO
+     * Evita que una confirmación y una expiración concurrentes procesen el mismo bloqueo
+     *
+     * @return 1 si se cambió el estado, 0 si el bloqueo ya no estaba activo
+     */
+    @Modifying
+    @Query("UPDATE BloqueoCupo b SET b.estado = :nuevoEstado " +
+            "WHERE b.idBloqueo = :idBloqueo AND b.estado = com.zoealexa.entity.enums.EstadoBloqueo.ACTIVO")
+    int cambiarEstadoSiActivo(@Param("idBloqueo") Long idBloqueo,
+                              @Param("nuevoEstado") EstadoBloqueo nuevoEstado);
+
+    /**
+     * Confirma un bloqueo solo si sigue ACTIVO y no ha expirado
+     *
+     * @return 1 si se confirmó, 0 si ya no estaba vigente
+     */
+    @Modifying
+    @Query("UPDATE BloqueoCupo b SET b.estado = com.zoealexa.entity.enums.EstadoBloqueo.CONFIRMADO " +
+            "WHERE b.idBloqueo = :idBloqueo AND b.estado = com.zoealexa.entity.enums.EstadoBloqueo.ACTIVO " +
+            "AND b.fechaExpiracion > :ahora")
+    int confirmarSiVigente(@Param("idBloqueo") Long idBloqueo, @Param("ahora") LocalDateTime ahora);
+}
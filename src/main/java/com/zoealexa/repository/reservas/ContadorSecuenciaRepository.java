@@ -0,0 +1,44 @@
+package com.zoealexa.repository.reservas;
+
+import com.zoealexa.entity.secuencias.ContadorSecuencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ContadorSecuenciaRepository extends JpaRepository<ContadorSecuencia, String> {
+
+    /**
+     * Incrementa el contador (bloquea la fila hasta el fin de la transacción)
+     *
+     * @return 1 si el contador existe, 0 si aún no fue creado
+     */
+    @Modifying
+    @Query("UPDATE ContadorSecuencia c SET c.valor = c.valor + :incremento, " +
+            "c.fechaActualizacion = LOCAL DATETIME WHERE c.clave = :clave")
+    int incrementar(@Param("clave") String clave, @Param("incremento") long incremento);
+
+    /**
+     * Fija el valor del contador (usado en reconciliación)
+     */
+    @Modifying
+    @Query("UPDATE ContadorSecuencia c SET c.valor = :valor, " +
+            "c.fechaActualizacion = LOCAL DATETIME WHERE c.clave = :clave")
+    int asignarValor(@Param("clave") String clave, @Param("valor") long valor);
+
+    /**
+     * Crea el contador si no existe (si otra instancia lo creó primero, no hace nada)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO contador_secuencia (clave, valor, fecha_actualizacion) " +
+            "VALUES (:clave, :valor, CURRENT_TIMESTAMP) ON CONFLICT (clave) DO NOTHING",
+            nativeQuery = true)
+    int crearSiNoExiste(@Param("clave") String clave, @Param("valor") long valor);
+
+    @Query("SELECT c.valor FROM ContadorSecuencia c WHERE c.clave = :clave")
+    Optional<Long> obtenerValor(@Param("clave") String clave);
+}
@@ -1,13 +1,24 @@
 package com.zoealexa.repository.reservas;
 
+import com.zoealexa.dto.reserva.response.ReservaSimpleResponse;
 import com.zoealexa.entity.enums.EstadoReserva;
+import com.zoealexa.entity.pagos.Pago;
 import com.zoealexa.entity.reservas.Reserva;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -48,4 +59,174 @@ public interface ReservaRepository extends JpaRepository<Reserva, Long> {
             "FROM reserva WHERE codigo_reserva LIKE :patron",
             nativeQuery = true)
     Integer findUltimoNumeroReservaDelAnio(@Param("patron") String patron);
-}
\ No newline at end of file
+
+    // ===== PLANES DE CARGA POR CASO DE USO =====
+
+    String CON_PASAJEROS = "SELECT r FROM Reserva r " +
+            "JOIN FETCH r.viaje v JOIN FETCH v.ruta JOIN FETCH v.embarcacion " +
+            "JOIN FETCH r.usuario LEFT JOIN FETCH r.agencia " +
+            "LEFT JOIN FETCH r.detalles d LEFT JOIN FETCH d.pasajero " +
+            "LEFT JOIN FETCH d.equipaje e LEFT JOIN FETCH e.comprobanteExceso " +
+            "WHERE r.codigoReserva = :codigo";
+
+    // Bloqueo (FOR NO KEY UPDATE OF) solo de la raíz r de la consulta
+    String BLOQUEO_RESERVA = HibernateHints.HINT_NATIVE_LOCK_MODE + ".r";
+
+    /**
+     * Detalle completo (ReservaResponse) en 3 consultas fijas:
+     * reserva con pasajeros, pagos y comprobantes de los pagos.
+     * Las colecciones van en consultas separadas para no multiplicar filas.
+     */
+    default Optional<Reserva> findDetalleCompletoByCodigoReserva(String codigoReserva) {
+        Optional<Reserva> reserva = findConPasajerosByCodigoReserva(codigoReserva);
+        reserva.ifPresent(r -> {
+            cargarPagos(r);
+            cargarComprobantesDePagos(r);
+        });
+        return reserva;
+    }
+
+    /**
+     * Detalle completo para modificar la reserva (pago, equipaje): la primera de
+     * las 3 consultas bloquea la fila de la reserva (FOR NO KEY UPDATE OF r).
+     * Serializa pagos, cancelaciones, equipaje y la expiración de pendientes sobre
+     * la misma fila: quien llega después lee el estado ya confirmado por el otro.
+     */
+    default Optional<Reserva> bloquearDetalleCompletoByCodigoReserva(String codigoReserva) {
+        Optional<Reserva> reserva = bloquearConPasajerosByCodigoReserva(codigoReserva);
+        reserva.ifPresent(r -> {
+            cargarPagos(r);
+            cargarComprobantesDePagos(r);
+        });
+        return reserva;
+    }
+
+    /**
+     * Reserva con viaje, ruta, embarcación, usuario, agencia y pasajeros con su equipaje
+     */
+    @Query(CON_PASAJEROS)
+    Optional<Reserva> findConPasajerosByCodigoReserva(@Param("codigo") String codigoReserva);
+
+    /**
+     * Igual que {@link #findConPasajerosByCodigoReserva}, bloqueando solo la fila
+     * de la reserva: el lock va por alias porque @Lock sobre una consulta con
+     * colecciones se resuelve con un SELECT de bloqueo aparte (y PostgreSQL no
+     * admite FOR UPDATE sobre el lado nulo de los LEFT JOIN)
+     */
+    @QueryHints(@QueryHint(name = BLOQUEO_RESERVA, value = "PESSIMISTIC_WRITE"))
+    @Query(CON_PASAJEROS)
+    Optional<Reserva> bloquearConPasajerosByCodigoReserva(@Param("codigo") String codigoReserva);
+
+    /**
+     * Inicializa la colección de pagos de una reserva ya cargada
+     */
+    @Query("SELECT r FROM Reserva r LEFT JOIN FETCH r.pagos WHERE r = :reserva")
+    Reserva cargarPagos(@Param("reserva") Reserva reserva);
+
+    /**
+     * Inicializa los comprobantes de los pagos de una reserva ya cargada
+     */
+    @Query("SELECT p FROM Pago p LEFT JOIN FETCH p.comprobantes WHERE p.reserva = :reserva")
+    List<Pago> cargarComprobantesDePagos(@Param("reserva") Reserva reserva);
+
+    /**
+     * Reserva para cancelar, con la fila bloqueada: viaje con puertos (respuesta)
+     * y pasajeros (cupos a liberar), en una sola consulta
+     */
+    @QueryHints(@QueryHint(name = BLOQUEO_RESERVA, value = "PESSIMISTIC_WRITE"))
+    @Query("SELECT r FROM Reserva r " +
+            "JOIN FETCH r.viaje v JOIN FETCH v.ruta ru " +
+            "JOIN FETCH ru.puertoOrigen JOIN FETCH ru.puertoDestino " +
+            "LEFT JOIN FETCH r.detalles d " +
+            "LEFT JOIN FETCH d.equipaje e LEFT JOIN FETCH e.comprobanteExceso " +
+            "WHERE r.codigoReserva = :codigo")
+    Optional<Reserva> bloquearParaCancelacionByCodigoReserva(@Param("codigo") String codigoReserva);
+
+    /**
+     * Cancela la reserva solo si sigue vigente (no cancelada ni completada)
+     * El cambio de estado es condicional: de dos cancelaciones concurrentes solo
+     * una obtiene 1 fila y libera los cupos.
+     *
+     * @return Filas actualizadas (0 si otra operación ya la canceló o completó)
+     */
+    @Modifying
+    @Query("UPDATE Reserva r SET r.estado = com.zoealexa.entity.enums.EstadoReserva.CANCELADA, " +
+            "r.penalidadAplicada = :penalidad, r.fechaActualizacion = LOCAL DATETIME " +
+            "WHERE r.idReserva = :id " +
+            "AND r.estado <> com.zoealexa.entity.enums.EstadoReserva.CANCELADA " +
+            "AND r.estado <> com.zoealexa.entity.enums.EstadoReserva.COMPLETADA")
+    int cancelarSiVigente(@Param("id") Long idReserva, @Param("penalidad") BigDecimal penalidad);
+
+    /**
+     * Página del listado (ReservaSimpleResponse) con paginación keyset
+     * Devuelve las reservas anteriores a la posición (fecha, id) del cursor,
+     * de la más reciente a la más antigua. Los filtros nulos no se aplican.
+     * La condición redundante "fechaReserva <= cursor" acota el rango del índice
+     * (fecha, id): el OR por sí solo no se usa como límite del recorrido.
+     */
+    @Query("SELECT new com.zoealexa.dto.reserva.response.ReservaSimpleResponse(" +
+            "r.idReserva, r.codigoReserva, r.origen, r.destino, v.fechaViaje, v.horaEmbarque, " +
+            "SIZE(r.detalles), r.total, r.saldoPendiente, r.estado, r.fechaReserva) " +
+            "FROM Reserva r JOIN r.viaje v " +
+            "WHERE r.fechaReserva <= :fechaCursor " +
+            "AND (r.fechaReserva < :fechaCursor " +
+            "OR (r.fechaReserva = :fechaCursor AND r.idReserva < :idCursor)) " +
+            "AND (:estado IS NULL OR r.estado = :estado) " +
+            "AND (:idViaje IS NULL OR v.idViaje = :idViaje) " +
+            "AND (:idAgencia IS NULL OR r.agencia.idAgencia = :idAgencia) " +
+            "AND (:desde IS NULL OR r.fechaReserva >= :desde) " +
+            "AND (:hasta IS NULL OR r.fechaReserva < :hasta) " +
+            "ORDER BY r.fechaReserva DESC, r.idReserva DESC")
+    List<ReservaSimpleResponse> listarPagina(@Param("fechaCursor") LocalDateTime fechaCursor,
+                                             @Param("idCursor") Long idCursor,
+                                             @Param("estado") EstadoReserva estado,
+                                             @Param("idViaje") Integer idViaje,
+                                             @Param("idAgencia") Integer idAgencia,
+                                             @Param("desde") LocalDateTime desde,
+                                             @Param("hasta") LocalDateTime hasta,
+                                             Pageable pageable);
+
+    // ===== EXPIRACIÓN DE RESERVAS PENDIENTES =====
+
+    /**
+     * Página (keyset por ID) de reservas PENDIENTE sin ningún pago, creadas antes del límite
+     */
+    @Query("SELECT r.idReserva FROM Reserva r " +
+            "WHERE r.estado = com.zoealexa.entity.enums.EstadoReserva.PENDIENTE " +
+            "AND r.montoPagado = 0 AND r.fechaReserva < :limite AND r.idReserva > :ultimoId " +
+            "ORDER BY r.idReserva ASC")
+    List<Long> findIdsPendientesVencidas(@Param("limite") LocalDateTime limite,
+                                         @Param("ultimoId") Long ultimoId,
+                                         Pageable pageable);
+
+    /**
+     * Bloquea (FOR UPDATE) las reservas del lote que siguen PENDIENTE sin pago
+     * Las que cambiaron de estado mientras tanto quedan fuera
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reserva r WHERE r.idReserva IN :ids " +
+            "AND r.estado = com.zoealexa.entity.enums.EstadoReserva.PENDIENTE AND r.montoPagado = 0")
+    List<Reserva> bloquearPendientesSinPago(@Param("ids") List<Long> ids);
+
+    /**
+     * Suma de pasajeros por viaje para un conjunto de reservas
+     */
+    @Query("SELECT r.viaje.idViaje AS idViaje, COUNT(d) AS cupos " +
+            "FROM ReservaDetalle d JOIN d.reserva r WHERE r.idReserva IN :ids " +
+            "GROUP BY r.viaje.idViaje")
+    List<CuposPorViaje> contarCuposPorViaje(@Param("ids") List<Long> ids);
+
+    /**
+     * Cancela en bloque un conjunto de reservas que siguen PENDIENTE
+     */
+    @Modifying
+    @Query("UPDATE Reserva r SET r.estado = com.zoealexa.entity.enums.EstadoReserva.CANCELADA, " +
+            "r.fechaActualizacion = LOCAL DATETIME WHERE r.idReserva IN :ids " +
+            "AND r.estado = com.zoealexa.entity.enums.EstadoReserva.PENDIENTE")
+    int cancelarPorIds(@Param("ids") List<Long> ids);
+
+    interface CuposPorViaje {
+        Integer getIdViaje();
+        Long getCupos();
+    }
+}
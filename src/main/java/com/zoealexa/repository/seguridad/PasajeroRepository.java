@@ -5,6 +5,7 @@ import com.zoealexa.entity.reservas.Pasajero;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,4 +26,13 @@ public interface PasajeroRepository extends JpaRepository<Pasajero, Long> {
     );
 
     List<Pasajero> findByApellidosContainingIgnoreCase(String apellidos);
+
+    /**
+     * Búsqueda múltiple por documento (reservas grupales)
+     * Puede traer combinaciones de tipo y número no pedidas; el llamador filtra por par exacto
+     */
+    List<Pasajero> findByTipoDocumentoInAndNumeroDocumentoIn(
+            Collection<TipoDocumento> tiposDocumento,
+            Collection<String> numerosDocumento
+    );
 }
\ No newline at end of file
@@ -1,8 +1,12 @@
 package com.zoealexa.repository.seguridad;
 
+import com.zoealexa.entity.enums.EstadoUsuario;
 import com.zoealexa.entity.seguridad.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Integer> {
@@ -16,4 +20,16 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Integer> {
      * Verifica si existe un usuario con el email especificado
      */
     boolean existsByEmail(String email);
+
+    /**
+     * Estado de acceso de un usuario, sin cargar la entidad (filtro JWT)
+     */
+    @Query("SELECT u.estado AS estado, u.bloqueadoHasta AS bloqueadoHasta FROM Usuario u WHERE u.email = :email")
+    Optional<EstadoAcceso> findEstadoAccesoByEmail(@Param("email") String email);
+
+    interface EstadoAcceso {
+        EstadoUsuario getEstado();
+
+        LocalDateTime getBloqueadoHasta();
+    }
 }
@@ -25,6 +25,11 @@ public interface ReglaDescuentoRepository extends JpaRepository<ReglaDescuento,
      */
     List<ReglaDescuento> findByActivaTrue();
 
+    /**
+     * Lista reglas activas en orden de ID (orden de prioridad de la tabla de descuentos)
+     */
+    List<ReglaDescuento> findByActivaTrueOrderByIdDescuentoAsc();
+
     /**
      * Lista reglas ordenadas por fecha de creación
      */
@@ -21,6 +21,11 @@ public interface ReglaPenalidadRepository extends JpaRepository<ReglaPenalidad,
      */
     List<ReglaPenalidad> findByActivaTrue();
 
+    /**
+     * Lista reglas activas en orden de ID (carga del motor de penalidades)
+     */
+    List<ReglaPenalidad> findByActivaTrueOrderByIdPenalidadAsc();
+
     /**
      * Lista reglas ordenadas por fecha de creación
      */
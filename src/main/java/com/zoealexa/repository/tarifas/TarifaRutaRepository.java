@@ -7,7 +7,9 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.zoealexa.entity.tarifas.TarifaRuta;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,5 +32,28 @@ public interface TarifaRutaRepository extends JpaRepository<TarifaRuta, Integer>
 
     Optional<TarifaRuta> findByRutaAndFechaFinIsNull(Ruta ruta);
 
+    /**
+     * Tarifa de la ruta vigente en una fecha
+     */
+    @Query("SELECT t FROM TarifaRuta t WHERE t.ruta.idRuta = :rutaId " +
+            "AND t.fechaInicio <= :fecha AND (t.fechaFin IS NULL OR t.fechaFin > :fecha)")
+    Optional<TarifaRuta> findVigenteEn(@Param("rutaId") Integer rutaId, @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Todos los periodos de tarifa, ordenados por ruta y fecha de inicio
+     * (carga del índice de tarifas, sin entidades)
+     */
+    @Query("SELECT t.idTarifa AS idTarifa, t.ruta.idRuta AS idRuta, t.precioBase AS precioBase, " +
+            "t.fechaInicio AS fechaInicio, t.fechaFin AS fechaFin " +
+            "FROM TarifaRuta t ORDER BY t.ruta.idRuta, t.fechaInicio")
+    List<PeriodoTarifa> findPeriodos();
+
+    interface PeriodoTarifa {
+        Integer getIdTarifa();
+        Integer getIdRuta();
+        BigDecimal getPrecioBase();
+        LocalDateTime getFechaInicio();
+        LocalDateTime getFechaFin();
+    }
 
 }
\ No newline at end of file
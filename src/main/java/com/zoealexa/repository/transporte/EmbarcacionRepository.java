@@ -1,10 +1,15 @@
 package com.zoealexa.repository.transporte;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.zoealexa.entity.enums.EstadoEmbarcacion;
 import com.zoealexa.entity.transporte.Embarcacion;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,4 +41,12 @@ public interface EmbarcacionRepository extends JpaRepository<Embarcacion, Intege
      */
     List<Embarcacion> findByCapacidadGreaterThanEqualAndEstado(Integer capacidadMinima,
                                                                EstadoEmbarcacion estado);
-}
\ No newline at end of file
+
+    /**
+     * Bloquea (FOR UPDATE) las embarcaciones, en orden de ID para no cruzar locks
+     * Serializa la asignación de viajes a una misma embarcación entre transacciones y nodos
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Embarcacion e WHERE e.idEmbarcacion IN :ids ORDER BY e.idEmbarcacion")
+    List<Embarcacion> bloquear(@Param("ids") Collection<Integer> ids);
+}
@@ -1,14 +1,19 @@
 package com.zoealexa.repository.transporte;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import com.zoealexa.entity.enums.EstadoRuta;
 import com.zoealexa.entity.enums.EstadoViaje;
 import com.zoealexa.entity.transporte.Viaje;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ViajeRepository extends JpaRepository<Viaje, Integer> {
@@ -23,30 +28,156 @@ public interface ViajeRepository extends JpaRepository<Viaje, Integer> {
      */
     List<Viaje> findByEstadoOrderByFechaViajeDesc(EstadoViaje estado);
 
+    // ===== ÍNDICE DE VIAJES EN MEMORIA =====
+
     /**
-     * Busca viajes con cupos disponibles en un rango de fechas
+     * Viajes PROGRAMADO para el índice de búsqueda (sin entidades)
      */
-    @Query("SELECT v FROM Viaje v WHERE v.ruta.idRuta = :rutaId " +
-            "AND v.fechaViaje BETWEEN :inicio AND :fin " +
-            "AND v.cuposDisponibles > 0 AND v.estado = 'PROGRAMADO' " +
-            "ORDER BY v.fechaViaje ASC")
-    List<Viaje> findViajesDisponibles(@Param("rutaId") Integer rutaId,
-                                      @Param("inicio") LocalDate inicio,
-                                      @Param("fin") LocalDate fin);
+    @Query("SELECT v.idViaje AS idViaje, r.idRuta AS idRuta, r.nombreRuta AS nombreRuta, " +
+            "po.idPuerto AS idPuertoOrigen, pd.idPuerto AS idPuertoDestino, " +
+            "po.ciudad AS ciudadOrigen, pd.ciudad AS ciudadDestino, " +
+            "r.duracionMinutos AS duracionMinutos, r.estado AS estadoRuta, e.nombreEmbarcacion AS nombreEmbarcacion, " +
+            "v.fechaViaje AS fechaViaje, v.horaEmbarque AS horaEmbarque, " +
+            "v.cuposDisponibles AS cuposDisponibles, v.estado AS estado " +
+            "FROM Viaje v JOIN v.ruta r JOIN v.embarcacion e " +
+            "JOIN r.puertoOrigen po JOIN r.puertoDestino pd " +
+            "WHERE v.estado = 'PROGRAMADO'")
+    List<FilaIndiceViaje> findFilasIndice();
 
     /**
-     * Busca viajes próximos (siguientes 7 días)
+     * Viajes PROGRAMADO de una ruta para el índice de búsqueda
      */
-    @Query("SELECT v FROM Viaje v WHERE v.fechaViaje BETWEEN :hoy AND :limite " +
-            "AND v.estado = 'PROGRAMADO' ORDER BY v.fechaViaje ASC")
-    List<Viaje> findViajesProximos(@Param("hoy") LocalDate hoy,
-                                   @Param("limite") LocalDate limite);
+    @Query("SELECT v.idViaje AS idViaje, r.idRuta AS idRuta, r.nombreRuta AS nombreRuta, " +
+            "po.idPuerto AS idPuertoOrigen, pd.idPuerto AS idPuertoDestino, " +
+            "po.ciudad AS ciudadOrigen, pd.ciudad AS ciudadDestino, " +
+            "r.duracionMinutos AS duracionMinutos, r.estado AS estadoRuta, e.nombreEmbarcacion AS nombreEmbarcacion, " +
+            "v.fechaViaje AS fechaViaje, v.horaEmbarque AS horaEmbarque, " +
+            "v.cuposDisponibles AS cuposDisponibles, v.estado AS estado " +
+            "FROM Viaje v JOIN v.ruta r JOIN v.embarcacion e " +
+            "JOIN r.puertoOrigen po JOIN r.puertoDestino pd " +
+            "WHERE r.idRuta = :idRuta AND v.estado = 'PROGRAMADO'")
+    List<FilaIndiceViaje> findFilasIndiceByRuta(@Param("idRuta") Integer idRuta);
+
+    /**
+     * Fila de índice de un viaje, en cualquier estado
+     */
+    @Query("SELECT v.idViaje AS idViaje, r.idRuta AS idRuta, r.nombreRuta AS nombreRuta, " +
+            "po.idPuerto AS idPuertoOrigen, pd.idPuerto AS idPuertoDestino, " +
+            "po.ciudad AS ciudadOrigen, pd.ciudad AS ciudadDestino, " +
+            "r.duracionMinutos AS duracionMinutos, r.estado AS estadoRuta, e.nombreEmbarcacion AS nombreEmbarcacion, " +
+            "v.fechaViaje AS fechaViaje, v.horaEmbarque AS horaEmbarque, " +
+            "v.cuposDisponibles AS cuposDisponibles, v.estado AS estado " +
+            "FROM Viaje v JOIN v.ruta r JOIN v.embarcacion e " +
+            "JOIN r.puertoOrigen po JOIN r.puertoDestino pd " +
+            "WHERE v.idViaje = :idViaje")
+    Optional<FilaIndiceViaje> findFilaIndice(@Param("idViaje") Integer idViaje);
+
+    interface FilaIndiceViaje {
+        Integer getIdViaje();
+
+        Integer getIdRuta();
+
+        String getNombreRuta();
+
+        Integer getIdPuertoOrigen();
+
+        Integer getIdPuertoDestino();
+
+        String getCiudadOrigen();
+
+        String getCiudadDestino();
+
+        Integer getDuracionMinutos();
+
+        EstadoRuta getEstadoRuta();
+
+        String getNombreEmbarcacion();
+
+        LocalDate getFechaViaje();
+
+        LocalTime getHoraEmbarque();
+
+        Integer getCuposDisponibles();
+
+        EstadoViaje getEstado();
+    }
 
     /**
      * Busca viajes de una embarcación en una fecha
      */
     List<Viaje> findByEmbarcacionIdEmbarcacionAndFechaViaje(Integer embarcacionId, LocalDate fecha);
 
+    // ===== AGENDA DE EMBARCACIONES =====
+
+    /**
+     * Viajes que ocupan embarcaciones (PROGRAMADO o EN_CURSO) de las indicadas en un periodo
+     * Para verificar en memoria que una embarcación no tenga dos viajes a la vez
+     */
+    @Query("SELECT v.idViaje AS idViaje, e.idEmbarcacion AS idEmbarcacion, r.idRuta AS idRuta, " +
+            "r.duracionMinutos AS duracionMinutos, v.fechaViaje AS fechaViaje, v.horaEmbarque AS horaEmbarque, " +
+            "v.estado AS estado " +
+            "FROM Viaje v JOIN v.ruta r JOIN v.embarcacion e " +
+            "WHERE e.idEmbarcacion IN :idsEmbarcacion AND v.fechaViaje BETWEEN :inicio AND :fin " +
+            "AND v.estado IN ('PROGRAMADO', 'EN_CURSO')")
+    List<OcupacionEmbarcacion> findOcupacionEmbarcaciones(@Param("idsEmbarcacion") Collection<Integer> idsEmbarcacion,
+                                                          @Param("inicio") LocalDate inicio,
+                                                          @Param("fin") LocalDate fin);
+
+    /**
+     * Salidas vigentes (no canceladas) de las rutas indicadas en un periodo, con cualquier embarcación
+     * Para no duplicar una salida al repetir una programación
+     */
+    @Query("SELECT v.ruta.idRuta AS idRuta, v.fechaViaje AS fechaViaje, v.horaEmbarque AS horaEmbarque " +
+            "FROM Viaje v WHERE v.ruta.idRuta IN :idsRuta AND v.fechaViaje BETWEEN :inicio AND :fin " +
+            "AND v.estado <> com.zoealexa.entity.enums.EstadoViaje.CANCELADO")
+    List<SalidaRuta> findSalidasRutas(@Param("idsRuta") Collection<Integer> idsRuta,
+                                      @Param("inicio") LocalDate inicio,
+                                      @Param("fin") LocalDate fin);
+
+    /**
+     * Viajes que ocupan embarcaciones (PROGRAMADO o EN_CURSO) de toda la flota
+     */
+    @Query("SELECT v.idViaje AS idViaje, e.idEmbarcacion AS idEmbarcacion, r.idRuta AS idRuta, " +
+            "r.duracionMinutos AS duracionMinutos, v.fechaViaje AS fechaViaje, v.horaEmbarque AS horaEmbarque, " +
+            "v.estado AS estado " +
+            "FROM Viaje v JOIN v.ruta r JOIN v.embarcacion e " +
+            "WHERE v.estado IN ('PROGRAMADO', 'EN_CURSO')")
+    List<OcupacionEmbarcacion> findOcupacionFlota();
+
+    /**
+     * Ocupación de un viaje, en cualquier estado
+     */
+    @Query("SELECT v.idViaje AS idViaje, e.idEmbarcacion AS idEmbarcacion, r.idRuta AS idRuta, " +
+            "r.duracionMinutos AS duracionMinutos, v.fechaViaje AS fechaViaje, v.horaEmbarque AS horaEmbarque, " +
+            "v.estado AS estado " +
+            "FROM Viaje v JOIN v.ruta r JOIN v.embarcacion e " +
+            "WHERE v.idViaje = :idViaje")
+    Optional<OcupacionEmbarcacion> findOcupacionViaje(@Param("idViaje") Integer idViaje);
+
+    interface SalidaRuta {
+        Integer getIdRuta();
+
+        LocalDate getFechaViaje();
+
+        LocalTime getHoraEmbarque();
+    }
+
+    interface OcupacionEmbarcacion {
+        Integer getIdViaje();
+
+        Integer getIdEmbarcacion();
+
+        Integer getIdRuta();
+
+        Integer getDuracionMinutos();
+
+        LocalDate getFechaViaje();
+
+        LocalTime getHoraEmbarque();
+
+        EstadoViaje getEstado();
+    }
+
     /**
      * Cuenta viajes por estado en un periodo
      */
@@ -55,4 +186,31 @@ public interface ViajeRepository extends JpaRepository<Viaje, Integer> {
     Long contarViajesPorEstado(@Param("estado") EstadoViaje estado,
                                @Param("inicio") LocalDate inicio,
                                @Param("fin") LocalDate fin);
-}
\ No newline at end of file
+
+    /**
+     * Descuenta cupos de forma atómica (decremento condicional en una sola sentencia)
+     * Solo actualiza si el viaje sigue PROGRAMADO y tiene cupos suficientes
+     *
+     * @return 1 si se reservaron los cupos, 0 si no había cupos suficientes
+     */
+    @Modifying
+    @Query("UPDATE Viaje v SET v.cuposDisponibles = v.cuposDisponibles - :cantidad, " +
+            "v.cuposOcupados = v.cuposOcupados + :cantidad, " +
+            "v.fechaActualizacion = LOCAL DATETIME " +
+            "WHERE v.idViaje = :idViaje AND v.cuposDisponibles >= :cantidad " +
+            "AND v.estado = 'PROGRAMADO'")
+    int reservarCupos(@Param("idViaje") Integer idViaje, @Param("cantidad") int cantidad);
+
+    /**
+     * Devuelve cupos al viaje de forma atómica
+     * Nunca deja cupos ocupados en negativo
+     *
+     * @return 1 si se liberaron los cupos, 0 si no había cupos ocupados suficientes
+     */
+    @Modifying
+    @Query("UPDATE Viaje v SET v.cuposDisponibles = v.cuposDisponibles + :cantidad, " +
+            "v.cuposOcupados = v.cuposOcupados - :cantidad, " +
+            "v.fechaActualizacion = LOCAL DATETIME " +
+            "WHERE v.idViaje = :idViaje AND v.cuposOcupados >= :cantidad")
+    int liberarCupos(@Param("idViaje") Integer idViaje, @Param("cantidad") int cantidad);
+}
@@ -0,0 +1,79 @@
+package com.zoealexa.security;
+
+import com.zoealexa.entity.enums.Rol;
+import com.zoealexa.entity.seguridad.Usuario;
+import com.zoealexa.repository.seguridad.UsuarioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Usuario autenticado del request actual
+ *
+ * Se resuelve una vez por request desde el token ya verificado por el filtro
+ * JWT (claims userId, role y agencyId) y queda guardado como atributo del
+ * request. Solo los tokens emitidos antes de incluir esos claims cargan el
+ * usuario de la base de datos, también una única vez por request.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ContextoSeguridad {
+
+    private static final String ATRIBUTO = UsuarioActual.class.getName();
+
+    private final UsuarioRepository usuarioRepository;
+
+    /**
+     * @return Usuario autenticado o null si el request es anónimo
+     */
+    public UsuarioActual usuarioActual() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+
+        String email = auth.getName();
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos == null) {
+            return cargar(email, null);
+        }
+
+        if (atributos.getAttribute(ATRIBUTO, RequestAttributes.SCOPE_REQUEST) instanceof UsuarioActual guardado
+                && guardado.email().equals(email)) {
+            return guardado;
+        }
+
+        TokenVerificado token = (TokenVerificado) atributos.getAttribute(
+                TokenVerificado.ATRIBUTO, RequestAttributes.SCOPE_REQUEST);
+        UsuarioActual usuario = cargar(email, token);
+        if (usuario != null) {
+            atributos.setAttribute(ATRIBUTO, usuario, RequestAttributes.SCOPE_REQUEST);
+        }
+        return usuario;
+    }
+
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+
+    private UsuarioActual cargar(String email, TokenVerificado token) {
+        if (token != null && email.equals(token.email()) && token.idUsuario() != null && token.rol() != null) {
+            Rol rol = Rol.valueOf(token.rol());
+            if (rol != Rol.AGENCIA || token.idAgencia() != null) {
+                return new UsuarioActual(token.idUsuario(), email, rol, token.idAgencia());
+            }
+        }
+
+        log.debug("Token sin claims de usuario, se carga de la base de datos: {}", email);
+        Usuario usuario = usuarioRepository.findByEmail(email).orElse(null);
+        if (usuario == null) {
+            return null;
+        }
+        return new UsuarioActual(usuario.getIdUsuario(), usuario.getEmail(), usuario.getRol(),
+                usuario.getAgencia() != null ? usuario.getAgencia().getIdAgencia() : null);
+    }
+}
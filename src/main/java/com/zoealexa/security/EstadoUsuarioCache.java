@@ -0,0 +1,91 @@
+package com.zoealexa.security;
+
+import com.zoealexa.entity.enums.EstadoUsuario;
+import com.zoealexa.repository.seguridad.UsuarioRepository;
+import com.zoealexa.repository.seguridad.UsuarioRepository.EstadoAcceso;
+import com.zoealexa.util.TransaccionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché acotada del estado de acceso de los usuarios (activo / inactivo / bloqueado)
+ *
+ * El filtro JWT arma el principal con los claims del token y solo consulta aquí
+ * si el usuario sigue habilitado: la base de datos se lee una vez por usuario
+ * cada TTL en lugar de una vez por request.
+ *
+ * - Bloquear, desbloquear o cambiar el estado de un usuario lo invalida tras el commit
+ * - Cambios hechos en otros nodos se ven al vencer la entrada
+ */
+@Component
+@Slf4j
+public class EstadoUsuarioCache {
+
+    private final UsuarioRepository usuarioRepository;
+    private final long ttlNanos;
+    private final int maxEntradas;
+
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+
+    private record Entrada(boolean habilitado, long venceNanos) {
+    }
+
+    public EstadoUsuarioCache(UsuarioRepository usuarioRepository,
+                              @Value("${app.seguridad.estado-usuario.ttl-ms:30000}") long ttlMs,
+                              @Value("${app.seguridad.estado-usuario.max-entradas:10000}") int maxEntradas) {
+        this.usuarioRepository = usuarioRepository;
+        this.ttlNanos = ttlMs * 1_000_000;
+        this.maxEntradas = maxEntradas;
+    }
+
+    /**
+     * Indica si el usuario existe, está ACTIVO y no tiene un bloqueo vigente
+     */
+    public boolean estaHabilitado(String email) {
+        long ahora = System.nanoTime();
+        Entrada entrada = entradas.get(email);
+        if (entrada != null && ahora - entrada.venceNanos() < 0) {
+            return entrada.habilitado();
+        }
+
+        boolean habilitado = usuarioRepository.findEstadoAccesoByEmail(email)
+                .map(EstadoUsuarioCache::habilitado)
+                .orElse(false);
+
+        if (entradas.size() >= maxEntradas) {
+            purgar(ahora);
+        }
+        entradas.put(email, new Entrada(habilitado, ahora + ttlNanos));
+        return habilitado;
+    }
+
+    /**
+     * Descarta el estado del usuario cuando la transacción actual haga commit
+     */
+    public void invalidar(String email) {
+        TransaccionUtil.despuesDelCommit(() -> entradas.remove(email));
+    }
+
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+
+    private static boolean habilitado(EstadoAcceso estado) {
+        return estado.getEstado() == EstadoUsuario.ACTIVO
+                && (estado.getBloqueadoHasta() == null || !LocalDateTime.now().isBefore(estado.getBloqueadoHasta()));
+    }
+
+    /**
+     * Retira las entradas vencidas; si todas siguen vigentes, vacía la caché
+     */
+    private void purgar(long ahora) {
+        entradas.values().removeIf(e -> ahora - e.venceNanos() >= 0);
+        if (entradas.size() >= maxEntradas) {
+            log.debug("Caché de estado de usuarios llena ({} entradas), se vacía", entradas.size());
+            entradas.clear();
+        }
+    }
+}
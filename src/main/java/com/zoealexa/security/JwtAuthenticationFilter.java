@@ -6,9 +6,11 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -24,6 +26,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final EstadoUsuarioCache estadoUsuarioCache;
+
+    @Value("${app.seguridad.jwt.autenticacion-sin-bd:true}")
+    private boolean autenticacionSinBd;
 
     @Override
     protected void doFilterInternal(
@@ -45,31 +51,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // 2. Extraer el token JWT (remover "Bearer " del inicio)
             final String jwt = authHeader.substring(7);
 
-            // 3. Extraer el email (username) del token
-            final String userEmail = jwtService.extractUsername(jwt);
+            // 3. Verificar firma y expiración y extraer los claims (una sola vez por request)
+            final TokenVerificado token = jwtService.verificar(jwt);
+            final String userEmail = token.email();
+            request.setAttribute(TokenVerificado.ATRIBUTO, token);
 
             // 4. Si hay email y no hay autenticación previa en el contexto
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                // 5. Cargar los detalles del usuario desde la base de datos
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                // 5. Construir el principal (desde los claims o desde la base de datos)
+                UserDetails userDetails = cargarUsuario(token);
 
-                // 6. Validar el token
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (userDetails != null) {
 
-                    // 7. Crear el objeto de autenticación
+                    // 6. Crear el objeto de autenticación
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
                             userDetails.getAuthorities()
                     );
 
-                    // 8. Agregar detalles adicionales de la request
+                    // 7. Agregar detalles adicionales de la request
                     authToken.setDetails(
                             new WebAuthenticationDetailsSource().buildDetails(request)
                     );
 
-                    // 9. Establecer la autenticación en el contexto de seguridad
+                    // 8. Establecer la autenticación en el contexto de seguridad
                     SecurityContextHolder.getContext().setAuthentication(authToken);
 
                     log.debug("Usuario autenticado: {} para request: {} {}",
@@ -82,7 +89,34 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // No lanzar excepción, dejar que Spring Security maneje el error
         }
 
-        // 10. Continuar con la cadena de filtros
+        // 9. Continuar con la cadena de filtros
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Principal del request
+     *
+     * Con la autenticación sin BD, el rol sale del claim "role" (firmado al hacer
+     * login) y solo se verifica que el usuario siga habilitado, contra la caché
+     * de estado. Tokens sin ese claim o el modo desactivado cargan el usuario completo.
+     *
+     * @return null si el usuario está inactivo o bloqueado
+     */
+    private UserDetails cargarUsuario(TokenVerificado token) {
+        String email = token.email();
+        String rol = token.rol();
+        if (!autenticacionSinBd || rol == null) {
+            return userDetailsService.loadUserByUsername(email);
+        }
+
+        if (!estadoUsuarioCache.estaHabilitado(email)) {
+            log.warn("Token de usuario inactivo o bloqueado: {}", email);
+            return null;
+        }
+
+        return User.withUsername(email)
+                .password("")
+                .authorities("ROLE_" + rol)
+                .build();
+    }
 }
@@ -1,8 +1,8 @@
 package com.zoealexa.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
@@ -10,7 +10,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -20,11 +20,36 @@ import java.util.function.Function;
 @Slf4j
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
+    private final long jwtExpiration;
 
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
+    // La clave y el parser son inmutables y thread-safe: se construyen una sola vez
+    private final SecretKey signInKey;
+    private final JwtParser parser;
+
+    public JwtService(@Value("${jwt.secret}") String secretKey,
+                      @Value("${jwt.expiration}") long jwtExpiration) {
+        this.jwtExpiration = jwtExpiration;
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parser().verifyWith(signInKey).build();
+    }
+
+    /**
+     * Verificar firma y expiración y extraer los claims en un solo parseo
+     *
+     * @return Vista inmutable de los claims
+     * @throws io.jsonwebtoken.JwtException si el token no es válido o expiró
+     */
+    public TokenVerificado verificar(String token) {
+        Claims claims = extractAllClaims(token);
+        return new TokenVerificado(
+                claims.getSubject(),
+                toUserId(claims.get("userId")),
+                claims.get("role", String.class),
+                claims.get("agencyId", Integer.class),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null
+        );
+    }
 
     /**
      * Extraer el email (username) del token JWT
@@ -38,25 +63,7 @@ public class JwtService {
      * NUEVO MÉTODO
      */
     public Integer extractUserId(String token) {
-        Claims claims = extractAllClaims(token);
-        Object userId = claims.get("userId");
-
-        if (userId == null) {
-            log.warn("Token no contiene el claim userId");
-            return null;
-        }
-
-        if (userId instanceof Integer) {
-            return (Integer) userId;
-        }
-
-        // Por seguridad: algunos parsers pueden devolver Long
-        if (userId instanceof Long) {
-            return ((Long) userId).intValue();
-        }
-
-        log.error("userId claim tiene tipo inesperado: {}", userId.getClass());
-        return null;
+        return toUserId(extractAllClaims(token).get("userId"));
     }
 
     /**
@@ -97,10 +104,13 @@ public class JwtService {
      * Generar token JWT con ID de usuario
      * NUEVO MÉTODO - Usar este en el AuthService al hacer login
      */
-    public String generateTokenWithUserId(Integer userId, String role, UserDetails userDetails) {
+    public String generateTokenWithUserId(Integer userId, String role, Integer agencyId, UserDetails userDetails) {
         Map<String, Object> extraClaims = new HashMap<>();
         extraClaims.put("userId", userId);
         extraClaims.put("role", role);
+        if (agencyId != null) {
+            extraClaims.put("agencyId", agencyId);
+        }
         extraClaims.put("authorities", userDetails.getAuthorities());
 
         return buildToken(extraClaims, userDetails, jwtExpiration);
@@ -124,7 +134,7 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, Jwts.SIG.HS256)
                 .compact();
     }
 
@@ -132,40 +142,39 @@ public class JwtService {
      * Validar si el token es válido para el usuario
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        // El parser ya rechaza tokens expirados o con firma inválida
+        final Claims claims = extractAllClaims(token);
+        return userDetails.getUsername().equals(claims.getSubject())
+                && claims.getExpiration().after(new Date());
     }
 
     /**
-     * Verificar si el token ha expirado
+     * Extraer todos los claims del token
+     * Verifica la firma y la expiración (lanza JwtException si no son válidas)
      */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public Claims extractAllClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     /**
-     * Extraer fecha de expiración del token
+     * Convertir el claim userId (Integer o Long según el parser)
      */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
+    private Integer toUserId(Object userId) {
+        if (userId == null) {
+            log.warn("Token no contiene el claim userId");
+            return null;
+        }
 
-    /**
-     * Extraer todos los claims del token
-     */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
+        if (userId instanceof Integer) {
+            return (Integer) userId;
+        }
 
-    /**
-     * Obtener la clave de firma
-     */
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        // Por seguridad: algunos parsers pueden devolver Long
+        if (userId instanceof Long) {
+            return ((Long) userId).intValue();
+        }
+
+        log.error("userId claim tiene tipo inesperado: {}", userId.getClass());
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,157 @@
+package com.zoealexa.security;
+
+import com.zoealexa.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * PasswordEncoder que ejecuta el hash (BCrypt) en un pool propio y acotado
+ *
+ * Una ráfaga de logins no puede ocupar más CPU que la de sus hilos: el resto
+ * espera en una cola limitada y, con la cola llena, se rechaza de inmediato
+ * con 429 y Retry-After en lugar de retener hilos de Tomcat que atienden
+ * otras consultas (búsqueda de viajes).
+ *
+ * Cada solicitud en curso o en cola retiene su hilo de Tomcat mientras espera:
+ * lo que acota los hilos retenidos es hilos + cola (y cada uno, como mucho,
+ * esperaMaxMs), no solo el tamaño del pool. La cola se dimensiona con lo que el
+ * pool alcanza a verificar dentro de la espera (verificaciones/s × esperaMaxMs,
+ * medido con BCryptCostoBenchmark): una cola mayor no atiende a nadie más, solo
+ * convierte el rechazo inmediato en un 429 tras esperar. Un hash que vence su
+ * espera en la cola se retira de ella y libera su lugar.
+ *
+ * Métricas:
+ * - auth.password.hash{operacion=verificar|codificar}: duración del hash
+ * - auth.password.cola / auth.password.activos: hashes en espera y en curso
+ * - auth.password.rechazos: solicitudes rechazadas por cola llena o espera vencida
+ */
+@Slf4j
+public class PasswordEncoderAcotado implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegado;
+    private final ThreadPoolExecutor executor;
+    private final long esperaMaxMs;
+    private final long reintentarEnSegundos;
+
+    private final Timer tiempoVerificar;
+    private final Timer tiempoCodificar;
+    private final Counter rechazos;
+
+    /**
+     * @param hilos Hashes simultáneos como máximo
+     * @param cola Hashes en espera como máximo; el siguiente se rechaza
+     *             (junto con hilos, acota los hilos de Tomcat retenidos)
+     * @param esperaMaxMs Tiempo máximo que un request espera su hash (cola + cálculo)
+     * @param reintentarEnSegundos Valor de Retry-After al rechazar
+     */
+    public PasswordEncoderAcotado(PasswordEncoder delegado, int hilos, int cola, long esperaMaxMs,
+                                  long reintentarEnSegundos, MeterRegistry meterRegistry) {
+        this.delegado = delegado;
+        this.esperaMaxMs = esperaMaxMs;
+        this.reintentarEnSegundos = reintentarEnSegundos;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("bcrypt-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+
+        this.tiempoVerificar = tiempo(meterRegistry, "verificar");
+        this.tiempoCodificar = tiempo(meterRegistry, "codificar");
+        this.rechazos = Counter.builder("auth.password.rechazos")
+                .description("Hashes de contraseña rechazados por saturación")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.cola", executor, e -> e.getQueue().size())
+                .description("Hashes de contraseña en espera")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.activos", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashes de contraseña en curso")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return ejecutar(() -> tiempoCodificar.record(() -> delegado.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return ejecutar(() -> tiempoVerificar.record(() -> delegado.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegado.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+
+    private <T> T ejecutar(Callable<T> hash) {
+        FutureTask<T> tarea = new FutureTask<>(hash);
+        try {
+            executor.execute(tarea);
+        } catch (RejectedExecutionException e) {
+            throw rechazar("cola llena");
+        }
+
+        try {
+            return tarea.get(esperaMaxMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            descartar(tarea);
+            throw rechazar("espera vencida");
+        } catch (InterruptedException e) {
+            descartar(tarea);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Verificación de contraseña interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Cancela el hash; si aún estaba en la cola, libera su lugar
+     * (una tarea cancelada seguiría ocupándolo hasta que un hilo la tome)
+     */
+    private void descartar(FutureTask<?> tarea) {
+        tarea.cancel(true);
+        executor.remove(tarea);
+    }
+
+    private TooManyRequestsException rechazar(String motivo) {
+        rechazos.increment();
+        log.warn("Hash de contraseña rechazado ({}): {} en curso, {} en cola",
+                motivo, executor.getActiveCount(), executor.getQueue().size());
+        return new TooManyRequestsException(
+                "Demasiadas solicitudes de autenticación. Intente nuevamente en unos momentos.",
+                reintentarEnSegundos);
+    }
+
+    private static Timer tiempo(MeterRegistry meterRegistry, String operacion) {
+        return Timer.builder("auth.password.hash")
+                .description("Duración del hash de contraseñas")
+                .tag("operacion", operacion)
+                .register(meterRegistry);
+    }
+}
@@ -1,6 +1,8 @@
 package com.zoealexa.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -38,7 +40,8 @@ public class SecurityConfig {
      * Configurar la cadena de filtros de seguridad
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   AuthenticationProvider authenticationProvider) throws Exception {
         http
                 // Deshabilitar CSRF (no necesario para APIs stateless con JWT)
                 .csrf(AbstractHttpConfigurer::disable)
@@ -67,6 +70,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET,
                                 "/api/viajes/buscar",
                                 "/api/viajes/proximos",
+                                "/api/viajes/itinerarios",
                                 "/api/viajes/{id}"
                         ).permitAll()
 
@@ -92,6 +96,7 @@ public class SecurityConfig {
 
                         // Creación de viajes
                         .requestMatchers(HttpMethod.POST, "/api/viajes").hasRole("ADMINISTRADOR")
+                        .requestMatchers("/api/viajes/programacion", "/api/viajes/programacion/*").hasRole("ADMINISTRADOR")
 
                         // Gestión de puertos
                         .requestMatchers(HttpMethod.POST, "/api/puertos").hasRole("ADMINISTRADOR")
@@ -117,7 +122,7 @@ public class SecurityConfig {
                 )
 
                 // Configurar el proveedor de autenticación
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
 
                 // Agregar el filtro JWT antes del filtro de autenticación de usuario/password
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
@@ -130,10 +135,10 @@ public class SecurityConfig {
      * Usa UserDetailsService y PasswordEncoder
      */
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
@@ -148,11 +153,19 @@ public class SecurityConfig {
 
     /**
      * Bean para el encriptador de passwords
-     * BCrypt es el estándar recomendado
+     * BCrypt es el estándar recomendado; el hash corre en un pool acotado
+     * (ver PasswordEncoderAcotado) para que los logins no ocupen los hilos de Tomcat
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            MeterRegistry meterRegistry,
+            @Value("${app.seguridad.bcrypt.costo:10}") int costo,
+            @Value("${app.seguridad.bcrypt.hilos:4}") int hilos,
+            @Value("${app.seguridad.bcrypt.cola:16}") int cola,
+            @Value("${app.seguridad.bcrypt.espera-max-ms:2000}") long esperaMaxMs,
+            @Value("${app.seguridad.bcrypt.reintentar-seg:2}") long reintentarSegundos) {
+        return new PasswordEncoderAcotado(new BCryptPasswordEncoder(costo),
+                hilos, cola, esperaMaxMs, reintentarSegundos, meterRegistry);
     }
 
     /**
@@ -0,0 +1,23 @@
+package com.zoealexa.security;
+
+import java.time.Instant;
+
+/**
+ * Claims de un JWT con firma y expiración ya verificadas
+ *
+ * Se obtiene una sola vez por request (filtro JWT) y queda como atributo del
+ * request para que los controladores no vuelvan a parsear el token.
+ *
+ * @param email Subject del token
+ * @param idUsuario Claim "userId" (null en tokens sin ese claim)
+ * @param rol Claim "role" (null en tokens sin ese claim)
+ * @param idAgencia Claim "agencyId" (solo usuarios AGENCIA)
+ */
+public record TokenVerificado(String email, Integer idUsuario, String rol, Integer idAgencia,
+                              Instant emitido, Instant expira) {
+
+    /**
+     * Nombre del atributo del request donde el filtro JWT deja el token verificado
+     */
+    public static final String ATRIBUTO = TokenVerificado.class.getName();
+}
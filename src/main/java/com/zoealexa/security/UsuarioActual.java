@@ -0,0 +1,22 @@
+package com.zoealexa.security;
+
+import com.zoealexa.entity.enums.Rol;
+
+/**
+ * Usuario autenticado del request: identidad, rol y agencia resueltos una sola vez
+ *
+ * @param idAgencia Agencia del usuario (solo rol AGENCIA)
+ */
+public record UsuarioActual(Integer idUsuario, String email, Rol rol, Integer idAgencia) {
+
+    public boolean esAgencia() {
+        return rol == Rol.AGENCIA;
+    }
+
+    /**
+     * ASESOR_VENTAS y ADMINISTRADOR ven todas las reservas
+     */
+    public boolean veTodasLasReservas() {
+        return rol == Rol.ASESOR_VENTAS || rol == Rol.ADMINISTRADOR;
+    }
+}
@@ -0,0 +1,132 @@
+package com.zoealexa.service.comprobante;
+
+import com.zoealexa.exception.BadRequestException;
+import com.zoealexa.repository.pago.ComprobanteRepository;
+import com.zoealexa.repository.reservas.ContadorSecuenciaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Numeración correlativa sin huecos por serie de comprobante (B001, F001, ...)
+ *
+ * Cada serie tiene su propia fila de contador (clave CP-serie). El número se
+ * toma dentro de la transacción que emite el comprobante: la fila queda
+ * bloqueada solo para esa serie hasta el commit, por lo que boletas y facturas
+ * no se bloquean entre sí. Si la transacción hace rollback, el incremento del
+ * contador también se revierte y el número vuelve a estar disponible.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class NumeracionComprobanteService {
+
+    private static final String PREFIJO_CLAVE = "CP-";
+
+    private final ContadorSecuenciaRepository contadorRepository;
+    private final ComprobanteRepository comprobanteRepository;
+
+    /**
+     * Asigna el siguiente número de la serie
+     * Debe llamarse dentro de la transacción que guarda el comprobante
+     *
+     * @param serie Serie del comprobante
+     * @return Número formateado a 8 dígitos (ej: 00000001)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String siguienteNumero(String serie) {
+        return reservarNumeros(serie, 1).get(0);
+    }
+
+    /**
+     * Asigna un bloque de números consecutivos de la serie (emisión masiva)
+     * Un solo UPDATE sobre el contador, sin importar la cantidad
+     *
+     * @param serie Serie del comprobante
+     * @param cantidad Cantidad de números
+     * @return Números formateados a 8 dígitos, en orden
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<String> reservarNumeros(String serie, int cantidad) {
+        if (cantidad <= 0) {
+            throw new BadRequestException("La cantidad de números debe ser positiva");
+        }
+
+        String clave = PREFIJO_CLAVE + serie;
+
+        if (contadorRepository.incrementar(clave, cantidad) == 0) {
+            long inicial = ultimoNumeroEmitido(serie);
+            log.info("Creando contador de comprobantes {} a partir de {}", clave, inicial);
+
+            contadorRepository.crearSiNoExiste(clave, inicial);
+            contadorRepository.incrementar(clave, cantidad);
+        }
+
+        long fin = contadorRepository.obtenerValor(clave).orElseThrow();
+
+        List<String> numeros = new ArrayList<>(cantidad);
+        for (long n = fin - cantidad + 1; n <= fin; n++) {
+            numeros.add(String.format("%08d", n));
+        }
+
+        log.debug("Números de comprobante asignados {}: {} - {}", serie, numeros.get(0), numeros.get(cantidad - 1));
+        return numeros;
+    }
+
+    /**
+     * Números de la serie que fueron asignados pero no tienen comprobante emitido
+     * (p. ej. por inserciones fallidas fuera de la transacción de numeración)
+     *
+     * @param serie Serie del comprobante
+     * @return Números faltantes entre 1 y el valor actual del contador
+     */
+    @Transactional(readOnly = true)
+    public List<Long> detectarHuecos(String serie) {
+        long hasta = contadorRepository.obtenerValor(PREFIJO_CLAVE + serie).orElse(0L);
+        if (hasta == 0) {
+            return List.of();
+        }
+        return comprobanteRepository.findNumerosFaltantes(serie, hasta);
+    }
+
+    /**
+     * Recupera los números finales que quedaron sin comprobante:
+     * retrocede el contador hasta el último comprobante realmente emitido.
+     * Los huecos intermedios no se reutilizan (ya hay comprobantes posteriores)
+     * y se informan con {@link #detectarHuecos(String)}.
+     *
+     * @param serie Serie del comprobante
+     * @return Cantidad de números recuperados
+     */
+    @Transactional
+    public long recuperarNumerosFinales(String serie) {
+        String clave = PREFIJO_CLAVE + serie;
+
+        // Incremento nulo: solo toma el bloqueo de la fila de la serie
+        if (contadorRepository.incrementar(clave, 0) == 0) {
+            return 0;
+        }
+
+        long actual = contadorRepository.obtenerValor(clave).orElseThrow();
+        long ultimoEmitido = ultimoNumeroEmitido(serie);
+
+        if (actual <= ultimoEmitido) {
+            return 0;
+        }
+
+        contadorRepository.asignarValor(clave, ultimoEmitido);
+        log.warn("Contador {} retrocedido de {} a {}", clave, actual, ultimoEmitido);
+
+        return actual - ultimoEmitido;
+    }
+
+    private long ultimoNumeroEmitido(String serie) {
+        Integer ultimo = comprobanteRepository.findUltimoNumeroBySerie(serie);
+        return ultimo != null ? ultimo : 0;
+    }
+}
@@ -1,13 +1,12 @@
 package com.zoealexa.service.reserva;
 
-import com.zoealexa.entity.enums.Rol;
 import com.zoealexa.entity.reservas.Reserva;
-import com.zoealexa.entity.seguridad.Usuario;
 import com.zoealexa.exception.ConflictException;
 import com.zoealexa.exception.OperacionNoPermitidaException;
 import com.zoealexa.exception.RecursoNoEncontradoException;
 import com.zoealexa.repository.reservas.ReservaRepository;
-import com.zoealexa.repository.seguridad.UsuarioRepository;
+import com.zoealexa.security.ContextoSeguridad;
+import com.zoealexa.security.UsuarioActual;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
@@ -23,7 +22,7 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class AutorizacionService {
 
-    private final UsuarioRepository usuarioRepository;
+    private final ContextoSeguridad contextoSeguridad;
     private final ReservaRepository reservaRepository;
 
     /**
@@ -38,54 +37,56 @@ public class AutorizacionService {
      */
     public boolean puedeVerReserva(String codigoReserva) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            if (auth == null || !auth.isAuthenticated()) {
-                log.warn("Usuario no autenticado intentando ver reserva: {}", codigoReserva);
-                return false;
-            }
-
-            String email = auth.getName();
-            Usuario usuario = usuarioRepository.findByEmail(email)
-                    .orElseThrow(() -> new RecursoNoEncontradoException("Usuario", email));
-
-            // Si es ASESOR_VENTAS o ADMINISTRADOR, puede ver todas
-            if (usuario.getRol() == Rol.ASESOR_VENTAS || usuario.getRol() == Rol.ADMINISTRADOR) {
-                log.debug("Usuario {} (rol: {}) puede ver todas las reservas",
-                        email, usuario.getRol());
-                return true;
-            }
+            Reserva reserva = reservaRepository.findByCodigoReserva(codigoReserva)
+                    .orElseThrow(() -> new RecursoNoEncontradoException("Reserva", codigoReserva));
+            return puedeVerReserva(reserva);
+        } catch (Exception e) {
+            log.error("Error al verificar permisos para reserva: {}", codigoReserva, e);
+            return false;
+        }
+    }
 
-            // Si es AGENCIA, solo puede ver sus propias reservas
-            if (usuario.getRol() == Rol.AGENCIA) {
-                Reserva reserva = reservaRepository.findByCodigoReserva(codigoReserva)
-                        .orElseThrow(() -> new RecursoNoEncontradoException("Reserva", codigoReserva));
+    /**
+     * Igual que {@link #puedeVerReserva(String)} sobre una reserva ya cargada
+     * (no consulta la reserva ni el usuario)
+     */
+    public boolean puedeVerReserva(Reserva reserva) {
+        UsuarioActual usuario = contextoSeguridad.usuarioActual();
+        if (usuario == null) {
+            log.warn("Usuario no autenticado intentando ver reserva: {}", reserva.getCodigoReserva());
+            return false;
+        }
 
-                // Si la reserva no tiene agencia asociada, no puede verla
-                if (reserva.getAgencia() == null) {
-                    log.warn("Agencia {} intentó ver reserva sin agencia: {}",
-                            usuario.getAgencia().getIdAgencia(), codigoReserva);
-                    return false;
-                }
+        // Si es ASESOR_VENTAS o ADMINISTRADOR, puede ver todas
+        if (usuario.veTodasLasReservas()) {
+            log.debug("Usuario {} (rol: {}) puede ver todas las reservas",
+                    usuario.email(), usuario.rol());
+            return true;
+        }
 
-                // Verificar que la reserva pertenezca a su agencia
-                boolean perteneceAMiAgencia = reserva.getAgencia().getIdAgencia()
-                        .equals(usuario.getAgencia().getIdAgencia());
+        // Si es AGENCIA, solo puede ver sus propias reservas
+        if (usuario.esAgencia()) {
+            // Si la reserva no tiene agencia asociada, no puede verla
+            if (reserva.getAgencia() == null) {
+                log.warn("Agencia {} intentó ver reserva sin agencia: {}",
+                        usuario.idAgencia(), reserva.getCodigoReserva());
+                return false;
+            }
 
-                if (!perteneceAMiAgencia) {
-                    log.warn("Agencia {} intentó ver reserva de otra agencia: {}",
-                            usuario.getAgencia().getIdAgencia(), codigoReserva);
-                }
+            // Verificar que la reserva pertenezca a su agencia
+            boolean perteneceAMiAgencia = reserva.getAgencia().getIdAgencia()
+                    .equals(usuario.idAgencia());
 
-                return perteneceAMiAgencia;
+            if (!perteneceAMiAgencia) {
+                log.warn("Agencia {} intentó ver reserva de otra agencia: {}",
+                        usuario.idAgencia(), reserva.getCodigoReserva());
             }
 
-            log.warn("Rol desconocido: {} intentando ver reserva", usuario.getRol());
-            return false;
-
-        } catch (Exception e) {
-            log.error("Error al verificar permisos para reserva: {}", codigoReserva, e);
-            return false;
+            return perteneceAMiAgencia;
         }
+
+        log.warn("Rol desconocido: {} intentando ver reserva", usuario.rol());
+        return false;
     }
 
     /**
@@ -115,25 +116,27 @@ public class AutorizacionService {
         }
     }
 
+    /**
+     * Valida el acceso sobre una reserva ya cargada por el servicio
+     *
+     * @throws OperacionNoPermitidaException si no tiene permisos
+     */
+    public void validarAccesoReserva(Reserva reserva) {
+        if (!puedeVerReserva(reserva)) {
+            throw new ConflictException(
+                    "No tienes permisos para acceder a esta reserva"
+            );
+        }
+    }
+
     /**
      * Obtiene el ID de agencia del usuario actual (si es AGENCIA)
      *
      * @return ID de agencia o null si no es rol AGENCIA
      */
     public Integer obtenerIdAgenciaActual() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !auth.isAuthenticated()) {
-            return null;
-        }
-
-        String email = auth.getName();
-        Usuario usuario = usuarioRepository.findByEmail(email).orElse(null);
-
-        if (usuario != null && usuario.getRol() == Rol.AGENCIA) {
-            return usuario.getAgencia().getIdAgencia();
-        }
-
-        return null;
+        UsuarioActual usuario = contextoSeguridad.usuarioActual();
+        return usuario != null && usuario.esAgencia() ? usuario.idAgencia() : null;
     }
 
     /**
@@ -0,0 +1,299 @@
+package com.zoealexa.service.reserva;
+
+import com.zoealexa.dto.reserva.BloquearCuposRequest;
+import com.zoealexa.dto.reserva.response.BloqueoCupoResponse;
+import com.zoealexa.entity.enums.EstadoBloqueo;
+import com.zoealexa.entity.enums.EstadoViaje;
+import com.zoealexa.entity.reservas.BloqueoCupo;
+import com.zoealexa.entity.transporte.Viaje;
+import com.zoealexa.exception.BadRequestException;
+import com.zoealexa.exception.ConflictException;
+import com.zoealexa.exception.OperacionNoPermitidaException;
+import com.zoealexa.exception.RecursoNoEncontradoException;
+import com.zoealexa.repository.reservas.BloqueoCupoRepository;
+import com.zoealexa.repository.seguridad.UsuarioRepository;
+import com.zoealexa.repository.transporte.ViajeRepository;
+import com.zoealexa.util.TransaccionUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servicio de bloqueos temporales de cupos (antes del pago)
+ *
+ * Al crear un bloqueo se descuentan los cupos del viaje; si el bloqueo no se
+ * confirma como reserva antes de su vencimiento, los cupos se devuelven.
+ * Los vencimientos se programan en una DelayQueue atendida por un único hilo,
+ * sin recorrer la tabla en cada solicitud. Esa cola solo existe en el nodo que
+ * creó el bloqueo: un barrido periódico en la base de datos expira los que
+ * quedaron sin programar (nodo caído o cola perdida). Cada expiración gana la
+ * transición ACTIVO -> EXPIRADO una sola vez, por lo que ambos caminos pueden
+ * coincidir sin devolver los cupos dos veces.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BloqueoCupoService {
+
+    private static final Duration REINTENTO_EXPIRACION = Duration.ofSeconds(30);
+
+    private final BloqueoCupoRepository bloqueoCupoRepository;
+    private final ViajeRepository viajeRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final InventarioCuposService inventarioCuposService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.reservas.bloqueo.ttl-minutos:10}")
+    private int ttlMinutos;
+
+    // Vencimientos programados en este nodo (id de bloqueo -> vencimiento)
+    private final DelayQueue<Vencimiento> vencimientos = new DelayQueue<>();
+    private final Map<Long, Vencimiento> pendientes = new ConcurrentHashMap<>();
+
+    private TransactionTemplate transactionTemplate;
+    private Thread hiloExpiracion;
+
+    @PostConstruct
+    void iniciar() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        hiloExpiracion = new Thread(this::procesarVencimientos, "bloqueo-cupos-expiracion");
+        hiloExpiracion.setDaemon(true);
+        hiloExpiracion.start();
+    }
+
+    @PreDestroy
+    void detener() {
+        hiloExpiracion.interrupt();
+    }
+
+    /**
+     * Reprograma los bloqueos activos al iniciar (p. ej. tras un reinicio)
+     * Los que ya vencieron se procesan de inmediato
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarBloqueosActivos() {
+        var activos = bloqueoCupoRepository.findByEstado(EstadoBloqueo.ACTIVO);
+        activos.forEach(b -> programar(b.getIdBloqueo(), b.getFechaExpiracion()));
+        log.info("Bloqueos de cupos activos reprogramados: {}", activos.size());
+    }
+
+    /**
+     * Bloquea cupos de un viaje durante el tiempo configurado
+     */
+    @Transactional
+    public BloqueoCupoResponse bloquear(BloquearCuposRequest request, Integer idUsuarioActual) {
+        log.info("Bloqueando {} cupos en viaje ID: {}", request.getCantidad(), request.getIdViaje());
+
+        Viaje viaje = viajeRepository.findById(request.getIdViaje())
+                .orElseThrow(() -> new RecursoNoEncontradoException("Viaje", request.getIdViaje().toString()));
+
+        if (viaje.getEstado() != EstadoViaje.PROGRAMADO || viaje.getFechaViaje().isBefore(LocalDate.now())) {
+            throw new ConflictException("El viaje no admite nuevas reservas");
+        }
+
+        inventarioCuposService.reservar(viaje, request.getCantidad());
+
+        BloqueoCupo bloqueo = BloqueoCupo.builder()
+                .codigo(UUID.randomUUID().toString())
+                .viaje(viaje)
+                .usuario(usuarioRepository.getReferenceById(idUsuarioActual))
+                .cantidad(request.getCantidad())
+                .fechaExpiracion(LocalDateTime.now().plusMinutes(ttlMinutos))
+                .build();
+
+        bloqueo = bloqueoCupoRepository.save(bloqueo);
+
+        Long idBloqueo = bloqueo.getIdBloqueo();
+        LocalDateTime fechaExpiracion = bloqueo.getFechaExpiracion();
+        TransaccionUtil.despuesDelCommit(() -> programar(idBloqueo, fechaExpiracion));
+
+        log.info("Bloqueo {} creado, vence: {}", bloqueo.getCodigo(), fechaExpiracion);
+
+        return toResponse(bloqueo);
+    }
+
+    /**
+     * Confirma un bloqueo al convertirlo en reserva
+     * Los cupos ya fueron descontados al bloquear, por lo que no se vuelven a descontar
+     *
+     * @throws ConflictException si el bloqueo expiró o ya fue utilizado
+     */
+    @Transactional
+    public void confirmar(String codigoBloqueo, Integer idViaje, int cantidad, Integer idUsuarioActual) {
+        BloqueoCupo bloqueo = obtenerBloqueoPropio(codigoBloqueo, idUsuarioActual);
+
+        if (!bloqueo.getViaje().getIdViaje().equals(idViaje)) {
+            throw new BadRequestException("El bloqueo de cupos corresponde a otro viaje");
+        }
+
+        if (bloqueo.getCantidad() != cantidad) {
+            throw new BadRequestException(String.format(
+                    "El número de pasajeros (%d) no coincide con los cupos bloqueados (%d)",
+                    cantidad, bloqueo.getCantidad()));
+        }
+
+        if (bloqueoCupoRepository.confirmarSiVigente(bloqueo.getIdBloqueo(), LocalDateTime.now()) == 0) {
+            throw new ConflictException("El bloqueo de cupos expiró o ya fue utilizado");
+        }
+
+        Long idBloqueo = bloqueo.getIdBloqueo();
+        TransaccionUtil.despuesDelCommit(() -> cancelarProgramacion(idBloqueo));
+
+        log.info("Bloqueo {} confirmado", codigoBloqueo);
+    }
+
+    /**
+     * Libera un bloqueo antes de su vencimiento (el cliente abandonó la compra)
+     */
+    @Transactional
+    public void liberar(String codigoBloqueo, Integer idUsuarioActual) {
+        BloqueoCupo bloqueo = obtenerBloqueoPropio(codigoBloqueo, idUsuarioActual);
+
+        if (bloqueoCupoRepository.cambiarEstadoSiActivo(bloqueo.getIdBloqueo(), EstadoBloqueo.LIBERADO) == 0) {
+            throw new ConflictException("El bloqueo de cupos ya no está activo");
+        }
+
+        inventarioCuposService.liberar(bloqueo.getViaje(), bloqueo.getCantidad());
+
+        Long idBloqueo = bloqueo.getIdBloqueo();
+        TransaccionUtil.despuesDelCommit(() -> cancelarProgramacion(idBloqueo));
+
+        log.info("Bloqueo {} liberado", codigoBloqueo);
+    }
+
+    // ===== EXPIRACIÓN =====
+
+    /**
+     * Expira los bloqueos vencidos que ningún nodo procesó desde su cola
+     */
+    @Scheduled(fixedDelayString = "${app.reservas.bloqueo.barrido-ms:60000}",
+            initialDelayString = "${app.reservas.bloqueo.barrido-ms:60000}")
+    public void expirarVencidos() {
+        var vencidos = bloqueoCupoRepository.findIdsActivosVencidos(LocalDateTime.now());
+        if (vencidos.isEmpty()) {
+            return;
+        }
+
+        log.info("Barrido de bloqueos de cupos: {} vencidos sin expirar", vencidos.size());
+        for (Long idBloqueo : vencidos) {
+            pendientes.remove(idBloqueo);
+            try {
+                transactionTemplate.executeWithoutResult(status -> expirar(idBloqueo));
+            } catch (Exception e) {
+                // Se reintenta en el próximo barrido
+                log.error("Error al expirar bloqueo {} en el barrido: {}", idBloqueo, e.getMessage());
+            }
+        }
+    }
+
+    private void procesarVencimientos() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Vencimiento vencimiento;
+            try {
+                vencimiento = vencimientos.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            // Confirmado o liberado en este nodo mientras esperaba
+            if (!pendientes.remove(vencimiento.idBloqueo(), vencimiento)) {
+                continue;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> expirar(vencimiento.idBloqueo()));
+            } catch (Exception e) {
+                log.error("Error al expirar bloqueo {}, se reintentará: {}",
+                        vencimiento.idBloqueo(), e.getMessage());
+                programar(vencimiento.idBloqueo(), LocalDateTime.now().plus(REINTENTO_EXPIRACION));
+            }
+        }
+    }
+
+    private void expirar(Long idBloqueo) {
+        BloqueoCupo bloqueo = bloqueoCupoRepository.findById(idBloqueo).orElse(null);
+        if (bloqueo == null) {
+            return;
+        }
+
+        // Solo un proceso gana la transición ACTIVO -> EXPIRADO
+        if (bloqueoCupoRepository.cambiarEstadoSiActivo(idBloqueo, EstadoBloqueo.EXPIRADO) == 0) {
+            return;
+        }
+
+        inventarioCuposService.liberar(bloqueo.getViaje(), bloqueo.getCantidad());
+        log.info("Bloqueo {} expirado - {} cupos devueltos al viaje {}",
+                bloqueo.getCodigo(), bloqueo.getCantidad(), bloqueo.getViaje().getIdViaje());
+    }
+
+    private void programar(Long idBloqueo, LocalDateTime fechaExpiracion) {
+        long retrasoNanos = Math.max(0, Duration.between(LocalDateTime.now(), fechaExpiracion).toNanos());
+        Vencimiento vencimiento = new Vencimiento(idBloqueo, System.nanoTime() + retrasoNanos);
+        pendientes.put(idBloqueo, vencimiento);
+        vencimientos.put(vencimiento);
+    }
+
+    private void cancelarProgramacion(Long idBloqueo) {
+        // El elemento queda en la cola y se descarta al vencer (evita remove O(n))
+        pendientes.remove(idBloqueo);
+    }
+
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+
+    private BloqueoCupo obtenerBloqueoPropio(String codigoBloqueo, Integer idUsuarioActual) {
+        BloqueoCupo bloqueo = bloqueoCupoRepository.findByCodigo(codigoBloqueo)
+                .orElseThrow(() -> new RecursoNoEncontradoException("Bloqueo de cupos", codigoBloqueo));
+
+        if (!bloqueo.getUsuario().getIdUsuario().equals(idUsuarioActual)) {
+            throw new OperacionNoPermitidaException("No tienes permisos para usar este bloqueo de cupos");
+        }
+
+        return bloqueo;
+    }
+
+    private BloqueoCupoResponse toResponse(BloqueoCupo bloqueo) {
+        return BloqueoCupoResponse.builder()
+                .codigoBloqueo(bloqueo.getCodigo())
+                .idViaje(bloqueo.getViaje().getIdViaje())
+                .cantidad(bloqueo.getCantidad())
+                .estado(bloqueo.getEstado())
+                .fechaExpiracion(bloqueo.getFechaExpiracion())
+                .build();
+    }
+
+    /**
+     * Elemento de la DelayQueue: vence en un instante de System.nanoTime()
+     */
+    private record Vencimiento(Long idBloqueo, long vencimientoNanos) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(vencimientoNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed otro) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), otro.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -2,14 +2,14 @@ package com.zoealexa.service.reserva;
 
 import com.zoealexa.entity.enums.TipoComision;
 import com.zoealexa.entity.enums.TipoOperacionCancelacion;
+import com.zoealexa.entity.enums.TipoPenalidad;
 import com.zoealexa.entity.enums.TipoValor;
 import com.zoealexa.entity.reservas.Pasajero;
 import com.zoealexa.entity.reservas.Reserva;
 import com.zoealexa.entity.seguridad.Agencia;
-import com.zoealexa.entity.tarifas.ReglaDescuento;
-import com.zoealexa.entity.tarifas.ReglaPenalidad;
-import com.zoealexa.repository.tarifas.ReglaDescuentoRepository;
-import com.zoealexa.repository.tarifas.ReglaPenalidadRepository;
+import com.zoealexa.service.tarifas.MotorPenalidadesService;
+import com.zoealexa.service.tarifas.TablaDescuentosService;
+import com.zoealexa.util.Monto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -18,7 +18,6 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
-import java.util.Optional;
 
 /**
  * Servicio para cálculos de descuentos, penalidades y tarifas
@@ -28,21 +27,23 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class CalculoService {
 
-    private final ReglaDescuentoRepository reglaDescuentoRepository;
-    private final ReglaPenalidadRepository reglaPenalidadRepository;
+    private final TablaDescuentosService tablaDescuentosService;
+    private final MotorPenalidadesService motorPenalidadesService;
 
     // Constantes del negocio
-    private static final BigDecimal ADELANTO_MINIMO_PORCENTAJE = new BigDecimal("50.00");
-    private static final BigDecimal PORCENTAJE_100 = new BigDecimal("100");
-    private static final BigDecimal IGV_PORCENTAJE = new BigDecimal("0.18");
+    // Factores precalculados: ninguna operación crea sus operandos en cada llamada
+    private static final BigDecimal FACTOR_ADELANTO_MINIMO = new BigDecimal("0.50");
+    private static final BigDecimal FACTOR_CON_IGV = BigDecimal.ONE.add(new BigDecimal("0.18"));
+    private static final Monto LIMITE_EQUIPAJE_DEFAULT = Monto.deCentimos(15_00);
+    private static final Monto PRECIO_KILO_DEFAULT = Monto.deCentimos(10_00);
 
     /**
      * Calcula el adelanto mínimo requerido (50% del total)
      */
     public BigDecimal calcularAdelantoMinimo(BigDecimal total) {
         return total
-                .multiply(ADELANTO_MINIMO_PORCENTAJE)
-                .divide(PORCENTAJE_100, 2, RoundingMode.HALF_UP);
+                .multiply(FACTOR_ADELANTO_MINIMO)
+                .setScale(2, RoundingMode.HALF_UP);
     }
 
     /**
@@ -59,13 +60,10 @@ public class CalculoService {
     public ResultadoDescuento aplicarDescuentoPorEdad(Pasajero pasajero, BigDecimal precioBase, LocalDate fechaViaje) {
         int edad = pasajero.calcularEdad(fechaViaje);
 
-        // Buscar regla de descuento aplicable
-        Optional<ReglaDescuento> reglaOpt = reglaDescuentoRepository
-                .findByEdadAndActiva(edad, true)
-                .stream()
-                .findFirst();
+        // Buscar regla de descuento aplicable (tabla compilada en memoria)
+        TablaDescuentosService.DescuentoEdad regla = tablaDescuentosService.buscar(edad);
 
-        if (reglaOpt.isEmpty()) {
+        if (regla == null) {
             // Sin descuento aplicable
             return ResultadoDescuento.builder()
                     .tipoTarifa(obtenerTipoTarifaPorEdad(edad))
@@ -76,33 +74,26 @@ public class CalculoService {
                     .build();
         }
 
-        ReglaDescuento regla = reglaOpt.get();
-        BigDecimal montoDescuento = BigDecimal.ZERO;
-        BigDecimal porcentajeDescuento = BigDecimal.ZERO;
-
-        if (regla.getTipoValor() == TipoValor.PORCENTAJE) {
-            porcentajeDescuento = regla.getValor();
-            montoDescuento = precioBase
-                    .multiply(porcentajeDescuento)
-                    .divide(PORCENTAJE_100, 2, RoundingMode.HALF_UP);
-        } else if (regla.getTipoValor() == TipoValor.MONTO_FIJO) {
-            montoDescuento = regla.getValor();
-            porcentajeDescuento = montoDescuento
-                    .multiply(PORCENTAJE_100)
-                    .divide(precioBase, 2, RoundingMode.HALF_UP);
-        }
+        Monto base = Monto.de(precioBase);
+        Monto montoDescuento = Monto.CERO;
+        Monto porcentajeDescuento = Monto.CERO;
 
-        BigDecimal precioFinal = precioBase.subtract(montoDescuento);
-        if (precioFinal.compareTo(BigDecimal.ZERO) < 0) {
-            precioFinal = BigDecimal.ZERO;
+        if (regla.tipoValor() == TipoValor.PORCENTAJE) {
+            porcentajeDescuento = regla.valor();
+            montoDescuento = base.porcentaje(porcentajeDescuento);
+        } else if (regla.tipoValor() == TipoValor.MONTO_FIJO) {
+            montoDescuento = regla.valor();
+            porcentajeDescuento = montoDescuento.porcentajeSobre(base);
         }
 
+        Monto precioFinal = base.restar(montoDescuento).noNegativo();
+
         return ResultadoDescuento.builder()
-                .tipoTarifa(regla.getDescripcion())
+                .tipoTarifa(regla.descripcion())
                 .precioBase(precioBase)
-                .porcentajeDescuento(porcentajeDescuento)
-                .montoDescuento(montoDescuento)
-                .precioFinal(precioFinal)
+                .porcentajeDescuento(porcentajeDescuento.aBigDecimal())
+                .montoDescuento(montoDescuento.aBigDecimal())
+                .precioFinal(precioFinal.aBigDecimal())
                 .build();
     }
 
@@ -129,47 +120,37 @@ public class CalculoService {
                     reserva.getCodigoReserva());
         }
 
-        // Buscar regla de penalidad
-        String tipoPenalidadStr = tipoOperacion == TipoOperacionCancelacion.CANCELACION
-                ? "CANCELACION" : "REPROGRAMACION";
+        // Buscar regla de penalidad (escalón según días de anticipación)
+        TipoPenalidad tipoPenalidad = tipoOperacion == TipoOperacionCancelacion.CANCELACION
+                ? TipoPenalidad.CANCELACION : TipoPenalidad.REPROGRAMACION;
 
-        Optional<ReglaPenalidad> reglaOpt = reglaPenalidadRepository
-                .findByTipoPenalidadAndActiva(tipoPenalidadStr, true)
-                .stream()
-                .findFirst();
+        MotorPenalidadesService.PenalidadRegla regla =
+                motorPenalidadesService.buscarPenalidad(tipoPenalidad, diasAnticipacion);
 
-        if (reglaOpt.isEmpty()) {
-            log.warn("No se encontró regla de penalidad para {}", tipoPenalidadStr);
+        if (regla == null) {
+            log.warn("No se encontró regla de penalidad para {}", tipoPenalidad);
             return ResultadoPenalidad.sinPenalidad(reserva.getMontoPagado());
         }
 
-        ReglaPenalidad regla = reglaOpt.get();
-        BigDecimal montoPagado = reserva.getMontoPagado();
-        BigDecimal porcentajePenalidad = BigDecimal.ZERO;
-        BigDecimal montoPenalidad = BigDecimal.ZERO;
-
-        if (regla.getTipoValor() == TipoValor.PORCENTAJE) {
-            porcentajePenalidad = regla.getValor();
-            montoPenalidad = montoPagado
-                    .multiply(porcentajePenalidad)
-                    .divide(PORCENTAJE_100, 2, RoundingMode.HALF_UP);
-        } else if (regla.getTipoValor() == TipoValor.MONTO_FIJO) {
-            montoPenalidad = regla.getValor();
-            porcentajePenalidad = montoPenalidad
-                    .multiply(PORCENTAJE_100)
-                    .divide(montoPagado, 2, RoundingMode.HALF_UP);
-        }
+        Monto montoPagado = Monto.de(reserva.getMontoPagado());
+        Monto porcentajePenalidad = Monto.CERO;
+        Monto montoPenalidad = Monto.CERO;
 
-        BigDecimal montoDevolver = montoPagado.subtract(montoPenalidad);
-        if (montoDevolver.compareTo(BigDecimal.ZERO) < 0) {
-            montoDevolver = BigDecimal.ZERO;
+        if (regla.tipoValor() == TipoValor.PORCENTAJE) {
+            porcentajePenalidad = regla.valor();
+            montoPenalidad = montoPagado.porcentaje(porcentajePenalidad);
+        } else if (regla.tipoValor() == TipoValor.MONTO_FIJO) {
+            montoPenalidad = regla.valor();
+            porcentajePenalidad = montoPenalidad.porcentajeSobre(montoPagado);
         }
 
+        Monto montoDevolver = montoPagado.restar(montoPenalidad).noNegativo();
+
         return ResultadoPenalidad.builder()
-                .porcentajePenalidad(porcentajePenalidad)
-                .montoPenalidad(montoPenalidad)
-                .montoDevolver(montoDevolver)
-                .descripcionRegla(regla.getDescripcion())
+                .porcentajePenalidad(porcentajePenalidad.aBigDecimal())
+                .montoPenalidad(montoPenalidad.aBigDecimal())
+                .montoDevolver(montoDevolver.aBigDecimal())
+                .descripcionRegla(regla.descripcion())
                 .build();
     }
 
@@ -178,37 +159,29 @@ public class CalculoService {
      */
     public ResultadoEquipaje calcularCostoEquipaje(BigDecimal pesoKg) {
         // Buscar regla de equipaje
-        Optional<ReglaPenalidad> reglaOpt = reglaPenalidadRepository
-                .findByTipoPenalidadAndActiva("EQUIPAJE", true)
-                .stream()
-                .findFirst();
+        MotorPenalidadesService.PenalidadRegla regla = motorPenalidadesService.buscarEquipaje();
 
-        if (reglaOpt.isEmpty()) {
+        if (regla == null) {
             log.warn("No se encontró regla de equipaje - usando defaults");
             return ResultadoEquipaje.builder()
-                    .limiteIncluido(new BigDecimal("15.00"))
-                    .precioPorKilo(new BigDecimal("10.00"))
+                    .limiteIncluido(LIMITE_EQUIPAJE_DEFAULT.aBigDecimal())
+                    .precioPorKilo(PRECIO_KILO_DEFAULT.aBigDecimal())
                     .pesoExcedente(BigDecimal.ZERO)
                     .costoExceso(BigDecimal.ZERO)
                     .build();
         }
 
-        ReglaPenalidad regla = reglaOpt.get();
-        BigDecimal limiteIncluido = new BigDecimal(regla.getKilosPermitidos());
-        BigDecimal precioPorKilo = regla.getPrecioPorKilo();
-
-        BigDecimal pesoExcedente = pesoKg.subtract(limiteIncluido);
-        if (pesoExcedente.compareTo(BigDecimal.ZERO) < 0) {
-            pesoExcedente = BigDecimal.ZERO;
-        }
+        Monto limiteIncluido = regla.kilosPermitidos();
+        Monto precioPorKilo = regla.precioPorKilo();
 
-        BigDecimal costoExceso = pesoExcedente.multiply(precioPorKilo);
+        Monto pesoExcedente = Monto.de(pesoKg).restar(limiteIncluido).noNegativo();
+        Monto costoExceso = pesoExcedente.multiplicar(precioPorKilo);
 
         return ResultadoEquipaje.builder()
-                .limiteIncluido(limiteIncluido)
-                .precioPorKilo(precioPorKilo)
-                .pesoExcedente(pesoExcedente)
-                .costoExceso(costoExceso)
+                .limiteIncluido(limiteIncluido.aBigDecimal())
+                .precioPorKilo(precioPorKilo.aBigDecimal())
+                .pesoExcedente(pesoExcedente.aBigDecimal())
+                .costoExceso(costoExceso.aBigDecimal())
                 .build();
     }
 
@@ -225,7 +198,8 @@ public class CalculoService {
         if (agencia.getTipoComision() == TipoComision.PORCENTAJE) {
             comision = montoVenta
                     .multiply(agencia.getValorComision())
-                    .divide(PORCENTAJE_100, 2, RoundingMode.HALF_UP);
+                    .movePointLeft(2)
+                    .setScale(2, RoundingMode.HALF_UP);
         } else if (agencia.getTipoComision() == TipoComision.MONTO_FIJO) {
             comision = agencia.getValorComision();
         }
@@ -238,7 +212,7 @@ public class CalculoService {
      */
     public MontoConIgv calcularMontoConIgv(BigDecimal totalConIgv) {
         BigDecimal subtotal = totalConIgv
-                .divide(BigDecimal.ONE.add(IGV_PORCENTAJE), 2, RoundingMode.HALF_UP);
+                .divide(FACTOR_CON_IGV, 2, RoundingMode.HALF_UP);
         BigDecimal igv = totalConIgv.subtract(subtotal);
 
         return new MontoConIgv(subtotal, igv, totalConIgv);
@@ -0,0 +1,197 @@
+package com.zoealexa.service.reserva;
+
+import com.zoealexa.repository.reservas.ContadorSecuenciaRepository;
+import com.zoealexa.repository.reservas.ReservaRepository;
+import com.zoealexa.service.comprobante.NumeracionComprobanteService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Year;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Servicio para generar códigos únicos de reservas y comprobantes
+ *
+ * Los números de reserva salen de una secuencia por año (reserva_codigo_YYYY_seq)
+ * con incremento igual al tamaño del bloque: cada nextval entrega a esta
+ * instancia un rango propio. nextval no es transaccional y se ejecuta en la
+ * conexión de quien llama, así que renovar el bloque no toma una segunda
+ * conexión del pool ni bloqueos que duren hasta el commit.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CodigoGeneradorService {
+
+    private final ReservaRepository reservaRepository;
+    private final ContadorSecuenciaRepository contadorRepository;
+    private final NumeracionComprobanteService numeracionComprobanteService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.reservas.codigo.tamano-bloque:50}")
+    private int tamanoBloque;
+
+    // Rango de números de reserva asignado a esta instancia
+    private final AtomicReference<BloqueNumeros> bloqueReservas =
+            new AtomicReference<>(new BloqueNumeros(0, 1, 0));
+
+    /**
+     * Genera un código de reserva único
+     * Formato: RV-YYYY-NNNNNN (ej: RV-2025-000001)
+     *
+     * Los números salen de un bloque en memoria (sin bloqueos); solo al agotarse
+     * el bloque o cambiar de año se pide uno nuevo a la secuencia del año.
+     */
+    public String generarCodigoReserva() {
+        return generarCodigoReserva(Year.now().getValue());
+    }
+
+    String generarCodigoReserva(int anio) {
+        while (true) {
+            BloqueNumeros bloque = bloqueReservas.get();
+            if (bloque.anio() == anio) {
+                long numero = bloque.siguiente();
+                if (numero > 0) {
+                    String codigo = String.format("RV-%d-%06d", anio, numero);
+                    log.debug("Código de reserva generado: {}", codigo);
+                    return codigo;
+                }
+            }
+            renovarBloqueReservas(bloque, anio);
+        }
+    }
+
+    /**
+     * Crea de antemano las secuencias del año actual y del siguiente, para que
+     * el cambio de año no ejecute DDL dentro de una reserva
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.reservas.codigo.preparacion-ms:21600000}",
+            initialDelayString = "${app.reservas.codigo.preparacion-ms:21600000}")
+    public void prepararSecuencias() {
+        int anio = Year.now().getValue();
+        for (int a = anio; a <= anio + 1; a++) {
+            try {
+                incrementoOCrear(a);
+            } catch (DataAccessException e) {
+                // Otra instancia la está creando: se verifica en la próxima ejecución
+                log.warn("No se pudo preparar la secuencia de códigos de reserva {}: {}", a, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Toma un nuevo bloque de la secuencia del año
+     * Solo un hilo lo renueva; los demás reintentan con el bloque nuevo. Dentro
+     * del lock solo se usa la conexión que el hilo ya tiene, nunca otra del pool.
+     */
+    private synchronized void renovarBloqueReservas(BloqueNumeros agotado, int anio) {
+        if (bloqueReservas.get() != agotado) {
+            return;
+        }
+
+        // El tamaño del bloque es el incremento de la secuencia, no la configuración
+        // actual: si esta cambia, los rangos de las instancias siguen sin solaparse
+        long incremento = incrementoOCrear(anio);
+        Long inicio = jdbcTemplate.queryForObject("SELECT nextval('" + secuencia(anio) + "')", Long.class);
+        long fin = inicio + incremento - 1;
+
+        bloqueReservas.set(new BloqueNumeros(anio, inicio, fin));
+        log.debug("Nuevo bloque de códigos de reserva {}: {} - {}", anio, inicio, fin);
+    }
+
+    /**
+     * Incremento de la secuencia del año; si no existe, la crea a continuación
+     * del último número ya usado
+     */
+    private long incrementoOCrear(int anio) {
+        String secuencia = secuencia(anio);
+        List<Long> incremento = jdbcTemplate.queryForList(
+                "SELECT increment FROM information_schema.sequences WHERE LOWER(sequence_name) = ?",
+                Long.class, secuencia);
+        if (!incremento.isEmpty()) {
+            return incremento.get(0);
+        }
+
+        long inicial = ultimoNumeroReservaUsado(anio) + 1;
+        log.info("Creando secuencia {} a partir de {}", secuencia, inicial);
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + secuencia
+                + " START WITH " + inicial + " INCREMENT BY " + tamanoBloque);
+        return tamanoBloque;
+    }
+
+    /**
+     * Último número usado en el año antes de existir la secuencia: el mayor
+     * entre las reservas guardadas y el contador anual que la precedía
+     * (solo se consulta una vez por año, al crear la secuencia)
+     */
+    private long ultimoNumeroReservaUsado(int anio) {
+        Integer ultimaReserva = reservaRepository.findUltimoNumeroReservaDelAnio("RV-" + anio + "-%");
+        long contador = contadorRepository.obtenerValor("RV-" + anio).orElse(0L);
+        return Math.max(ultimaReserva != null ? ultimaReserva : 0, contador);
+    }
+
+    private static String secuencia(int anio) {
+        return "reserva_codigo_" + anio + "_seq";
+    }
+
+    /**
+     * Genera el siguiente número de comprobante para una serie específica
+     * Formato: Serie = B001 o F001, Número = 00000001
+     *
+     * Numeración sin huecos: debe llamarse dentro de la transacción que emite el comprobante
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String generarNumeroComprobante(String serie) {
+        return numeracionComprobanteService.siguienteNumero(serie);
+    }
+
+    /**
+     * Obtiene la serie de comprobante según el tipo
+     */
+    public String obtenerSerie(String tipoComprobante) {
+        return switch (tipoComprobante.toUpperCase()) {
+            case "BOLETA" -> "B001";
+            case "FACTURA" -> "F001";
+            default -> throw new IllegalArgumentException("Tipo de comprobante no válido: " + tipoComprobante);
+        };
+    }
+
+    /**
+     * Rango [inicio, fin] de números asignado a esta instancia para un año
+     */
+    private static final class BloqueNumeros {
+        private final int anio;
+        private final long fin;
+        private final AtomicLong proximo;
+
+        BloqueNumeros(int anio, long inicio, long fin) {
+            this.anio = anio;
+            this.fin = fin;
+            this.proximo = new AtomicLong(inicio);
+        }
+
+        int anio() {
+            return anio;
+        }
+
+        /**
+         * @return siguiente número del bloque, o -1 si está agotado
+         */
+        long siguiente() {
+            long numero = proximo.getAndIncrement();
+            return numero <= fin ? numero : -1;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.zoealexa.service.reserva;
+
+import com.zoealexa.entity.reservas.Reserva;
+import com.zoealexa.repository.reservas.ReservaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Barrido periódico de reservas PENDIENTE sin pago que superaron el plazo
+ *
+ * - Recorre las candidatas por páginas keyset (ID ascendente)
+ * - Cancela cada lote en una sola transacción con un UPDATE en bloque
+ * - Devuelve los cupos con un único UPDATE por viaje (no uno por reserva)
+ */
+@Service
+@Slf4j
+public class ExpiracionReservaService {
+
+    private final ReservaRepository reservaRepository;
+    private final InventarioCuposService inventarioCuposService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter reservasExpiradas;
+    private final Counter cuposLiberados;
+    private final AtomicInteger reservasUltimoBarrido = new AtomicInteger();
+    private final AtomicInteger cuposUltimoBarrido = new AtomicInteger();
+
+    @Value("${app.reservas.pendiente.vencimiento-horas:24}")
+    private int vencimientoHoras;
+
+    @Value("${app.reservas.pendiente.tamano-lote:500}")
+    private int tamanoLote;
+
+    public ExpiracionReservaService(ReservaRepository reservaRepository,
+                                    InventarioCuposService inventarioCuposService,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry) {
+        this.reservaRepository = reservaRepository;
+        this.inventarioCuposService = inventarioCuposService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.reservasExpiradas = Counter.builder("reservas.pendientes.expiradas")
+                .description("Reservas PENDIENTE sin pago canceladas por vencimiento")
+                .register(meterRegistry);
+        this.cuposLiberados = Counter.builder("reservas.pendientes.cupos.liberados")
+                .description("Cupos devueltos a los viajes por reservas vencidas")
+                .register(meterRegistry);
+        meterRegistry.gauge("reservas.pendientes.ultimo.barrido.reservas", reservasUltimoBarrido);
+        meterRegistry.gauge("reservas.pendientes.ultimo.barrido.cupos", cuposUltimoBarrido);
+    }
+
+    /**
+     * Ejecuta el barrido según la frecuencia configurada
+     */
+    @Scheduled(fixedDelayString = "${app.reservas.pendiente.barrido-ms:300000}",
+            initialDelayString = "${app.reservas.pendiente.barrido-ms:300000}")
+    public void barridoProgramado() {
+        expirarPendientes(LocalDateTime.now().minusHours(vencimientoHoras));
+    }
+
+    /**
+     * Cancela las reservas PENDIENTE sin pago creadas antes del límite
+     *
+     * @param limite Fecha de creación límite
+     * @return Totales reclamados en esta ejecución
+     */
+    public ResultadoBarrido expirarPendientes(LocalDateTime limite) {
+        int totalReservas = 0;
+        int totalCupos = 0;
+        Long ultimoId = 0L;
+
+        while (true) {
+            List<Long> ids = reservaRepository.findIdsPendientesVencidas(
+                    limite, ultimoId, PageRequest.of(0, tamanoLote));
+
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            ultimoId = ids.get(ids.size() - 1);
+
+            ResultadoBarrido lote = transactionTemplate.execute(status -> procesarLote(ids));
+            totalReservas += lote.reservas();
+            totalCupos += lote.cupos();
+
+            if (ids.size() < tamanoLote) {
+                break;
+            }
+        }
+
+        reservasExpiradas.increment(totalReservas);
+        cuposLiberados.increment(totalCupos);
+        reservasUltimoBarrido.set(totalReservas);
+        cuposUltimoBarrido.set(totalCupos);
+
+        if (totalReservas > 0) {
+            log.info("Barrido de reservas pendientes: {} reservas canceladas, {} cupos liberados",
+                    totalReservas, totalCupos);
+        }
+
+        return new ResultadoBarrido(totalReservas, totalCupos);
+    }
+
+    /**
+     * Procesa un lote dentro de una transacción
+     */
+    private ResultadoBarrido procesarLote(List<Long> candidatas) {
+        // 1. Bloquear las que siguen pendientes (un pago concurrente las saca del lote)
+        List<Long> ids = reservaRepository.bloquearPendientesSinPago(candidatas).stream()
+                .map(Reserva::getIdReserva)
+                .toList();
+
+        if (ids.isEmpty()) {
+            return new ResultadoBarrido(0, 0);
+        }
+
+        // 2. Cupos agregados por viaje
+        List<ReservaRepository.CuposPorViaje> cuposPorViaje = reservaRepository.contarCuposPorViaje(ids);
+
+        // 3. Cancelar en bloque
+        int canceladas = reservaRepository.cancelarPorIds(ids);
+
+        // 4. Un UPDATE por viaje
+        int cupos = 0;
+        for (ReservaRepository.CuposPorViaje fila : cuposPorViaje) {
+            int cantidad = fila.getCupos().intValue();
+            if (inventarioCuposService.liberar(fila.getIdViaje(), cantidad)) {
+                cupos += cantidad;
+            }
+        }
+
+        log.debug("Lote de expiración: {} reservas, {} cupos en {} viajes",
+                canceladas, cupos, cuposPorViaje.size());
+
+        return new ResultadoBarrido(canceladas, cupos);
+    }
+
+    public record ResultadoBarrido(int reservas, int cupos) {}
+}
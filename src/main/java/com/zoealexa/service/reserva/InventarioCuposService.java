@@ -0,0 +1,111 @@
+package com.zoealexa.service.reserva;
+
+import com.zoealexa.entity.transporte.Viaje;
+import com.zoealexa.exception.ConflictException;
+import com.zoealexa.repository.transporte.ViajeRepository;
+import com.zoealexa.service.transporte.IndiceViajesService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Servicio de inventario de cupos por viaje
+ *
+ * Reserva y libera cupos con un UPDATE condicional por viaje, de modo que
+ * dos reservas concurrentes sobre la misma salida nunca sobrevenden
+ * ni pisan la actualización de la otra. Tras el commit, la diferencia de cupos
+ * se suma en el índice de búsqueda (IndiceViajesService), sin volver a leer el viaje.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class InventarioCuposService {
+
+    private final ViajeRepository viajeRepository;
+    private final IndiceViajesService indiceViajesService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Reserva cupos en el viaje
+     *
+     * @param viaje Viaje (entidad gestionada) cuyo estado se sincroniza tras el descuento
+     * @param cantidad Número de cupos a reservar
+     * @throws ConflictException si no hay cupos suficientes o el viaje ya no está programado
+     */
+    @Transactional
+    public void reservar(Viaje viaje, int cantidad) {
+        if (cantidad <= 0) {
+            return;
+        }
+
+        int filas = viajeRepository.reservarCupos(viaje.getIdViaje(), cantidad);
+        sincronizar(viaje);
+
+        if (filas == 0) {
+            log.warn("Cupos insuficientes en viaje {} - Requiere: {}, Disponibles: {}",
+                    viaje.getIdViaje(), cantidad, viaje.getCuposDisponibles());
+            throw new ConflictException("Cupos disponibles insuficientes");
+        }
+
+        indiceViajesService.ajustarCupos(viaje.getIdViaje(), -cantidad);
+
+        log.debug("Reservados {} cupos en viaje {} - Disponibles: {}",
+                cantidad, viaje.getIdViaje(), viaje.getCuposDisponibles());
+    }
+
+    /**
+     * Libera cupos previamente reservados en el viaje
+     *
+     * No es idempotente: el llamador solo debe liberar después de ganar el cambio
+     * de estado de la reserva (ver ReservaRepository.cancelarSiVigente).
+     *
+     * @param viaje Viaje (entidad gestionada) cuyo estado se sincroniza tras la liberación
+     * @param cantidad Número de cupos a devolver
+     */
+    @Transactional
+    public void liberar(Viaje viaje, int cantidad) {
+        if (cantidad <= 0) {
+            return;
+        }
+
+        liberar(viaje.getIdViaje(), cantidad);
+        sincronizar(viaje);
+    }
+
+    /**
+     * Libera cupos por ID de viaje (sin entidad cargada)
+     * Usado para devoluciones agregadas: un solo UPDATE por viaje
+     *
+     * @return true si se liberaron los cupos
+     */
+    @Transactional
+    public boolean liberar(Integer idViaje, int cantidad) {
+        if (cantidad <= 0) {
+            return true;
+        }
+
+        if (viajeRepository.liberarCupos(idViaje, cantidad) == 0) {
+            log.error("No se pudieron liberar {} cupos en viaje {}: cupos ocupados insuficientes",
+                    cantidad, idViaje);
+            return false;
+        }
+
+        indiceViajesService.ajustarCupos(idViaje, cantidad);
+        log.debug("Liberados {} cupos en viaje {}", cantidad, idViaje);
+        return true;
+    }
+
+    /**
+     * Recarga el viaje para que la entidad en memoria refleje el UPDATE directo
+     */
+    private void sincronizar(Viaje viaje) {
+        if (entityManager.contains(viaje)) {
+            entityManager.refresh(viaje);
+        }
+    }
+}
@@ -2,11 +2,13 @@ package com.zoealexa.service.reserva;
 
 import com.zoealexa.dto.reserva.*;
 import com.zoealexa.dto.reserva.response.CancelacionReprogramacionResponse;
+import com.zoealexa.dto.reserva.response.PaginaCursorResponse;
 import com.zoealexa.dto.reserva.response.ReservaResponse;
 import com.zoealexa.dto.reserva.response.ReservaSimpleResponse;
 import com.zoealexa.entity.enums.EstadoPago;
 import com.zoealexa.entity.enums.EstadoReserva;
 import com.zoealexa.entity.enums.EstadoViaje;
+import com.zoealexa.entity.enums.TipoDocumento;
 import com.zoealexa.entity.enums.TipoOperacionCancelacion;
 import com.zoealexa.entity.equipaje.Equipaje;
 import com.zoealexa.entity.pagos.Pago;
@@ -16,30 +18,34 @@ import com.zoealexa.entity.reservas.Reserva;
 import com.zoealexa.entity.reservas.ReservaDetalle;
 import com.zoealexa.entity.seguridad.Agencia;
 import com.zoealexa.entity.seguridad.Usuario;
-import com.zoealexa.entity.tarifas.TarifaRuta;
 import com.zoealexa.entity.transporte.Viaje;
 import com.zoealexa.exception.*;
 import com.zoealexa.mapper.reserva.ReservaMapper;
 import com.zoealexa.repository.pago.CancelacionReprogramacionRepository;
 import com.zoealexa.repository.pago.PagoRepository;
-import com.zoealexa.repository.reservas.CodigoGeneradorService;
 import com.zoealexa.repository.reservas.EquipajeRepository;
 import com.zoealexa.repository.reservas.ReservaDetalleRepository;
 import com.zoealexa.repository.reservas.ReservaRepository;
 import com.zoealexa.repository.seguridad.AgenciaRepository;
 import com.zoealexa.repository.seguridad.PasajeroRepository;
 import com.zoealexa.repository.seguridad.UsuarioRepository;
-import com.zoealexa.repository.tarifas.TarifaRutaRepository;
 import com.zoealexa.repository.transporte.ViajeRepository;
+import com.zoealexa.service.tarifas.IndiceTarifasService;
+import com.zoealexa.util.CursorPaginacion;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Servicio principal para gestión de reservas
@@ -49,6 +55,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ReservaService {
 
+    private static final int TAMANO_PAGINA_DEFECTO = 20;
+
     // Repositories
     private final ReservaRepository reservaRepository;
     private final ViajeRepository viajeRepository;
@@ -58,13 +66,15 @@ public class ReservaService {
     private final PagoRepository pagoRepository;
     private final UsuarioRepository usuarioRepository;
     private final AgenciaRepository agenciaRepository;
-    private final TarifaRutaRepository tarifaRutaRepository;
+    private final IndiceTarifasService indiceTarifasService;
     private final CancelacionReprogramacionRepository cancelacionRepository;
 
     // Services
     private final CalculoService calculoService;
     private final CodigoGeneradorService codigoGeneradorService;
     private final AutorizacionService autorizacionService;
+    private final InventarioCuposService inventarioCuposService;
+    private final BloqueoCupoService bloqueoCupoService;
 
     // Mapper
     private final ReservaMapper reservaMapper;
@@ -85,9 +95,14 @@ public class ReservaService {
 
         validarViajeDisponible(viaje);
 
-        // 2. Validar cupos disponibles
+        // 2. Validar cupos: confirmar bloqueo previo o verificación rápida
+        //    (sin bloqueo, el descuento atómico se hace al final)
         int cantidadPasajeros = request.getPasajeros().size();
-        if (viaje.getCuposDisponibles() < cantidadPasajeros) {
+        boolean conBloqueo = request.getCodigoBloqueo() != null;
+        if (conBloqueo) {
+            bloqueoCupoService.confirmar(request.getCodigoBloqueo(), viaje.getIdViaje(),
+                    cantidadPasajeros, idUsuarioActual);
+        } else if (viaje.getCuposDisponibles() < cantidadPasajeros) {
             throw new ConflictException("Cupos disponibles insuficientes");
         }
 
@@ -102,10 +117,12 @@ public class ReservaService {
         }
 
         // 4. Obtener precio base de la ruta
-        TarifaRuta tarifa = tarifaRutaRepository.findByRutaAndFechaFinIsNull(viaje.getRuta())
-                .orElseThrow(() -> new ConflictException("No hay tarifa activa para esta ruta"));
+        BigDecimal precioBase = indiceTarifasService.precioBase(
+                viaje.getRuta().getIdRuta(), viaje.getFechaViaje().atTime(viaje.getHoraEmbarque()));
 
-        BigDecimal precioBase = tarifa.getPrecioBase();
+        if (precioBase == null) {
+            throw new ConflictException("No hay tarifa activa para esta ruta");
+        }
 
         // 5. Crear reserva
         Reserva reserva = Reserva.builder()
@@ -125,12 +142,13 @@ public class ReservaService {
         BigDecimal totalReserva = BigDecimal.ZERO;
         List<ReservaDetalle> detalles = new ArrayList<>();
 
-        for (PasajeroReservaRequest pasajeroReq : request.getPasajeros()) {
-            // 6.1 Obtener o crear pasajero
-            Pasajero pasajero = obtenerOCrearPasajero(pasajeroReq);
+        // 6.1 Obtener o crear todos los pasajeros en lote
+        List<Pasajero> pasajeros = obtenerOCrearPasajeros(request.getPasajeros());
+        Set<Long> idsPasajeros = new HashSet<>();
 
+        for (Pasajero pasajero : pasajeros) {
             // 6.2 Validar que no esté duplicado en esta reserva
-            if (existePasajeroEnReserva(detalles, pasajero)) {
+            if (!idsPasajeros.add(pasajero.getIdPasajero())) {
                 throw new PasajeroDuplicadoException(pasajero.getNombreCompleto());
             }
 
@@ -174,10 +192,11 @@ public class ReservaService {
         reserva.getDetalles().addAll(detalles);
         reserva = reservaRepository.save(reserva);
 
-        // 11. Actualizar cupos del viaje
-        viaje.setCuposOcupados(viaje.getCuposOcupados() + cantidadPasajeros);
-        viaje.setCuposDisponibles(viaje.getCuposDisponibles() - cantidadPasajeros);
-        viajeRepository.save(viaje);
+        // 11. Descontar cupos del viaje (UPDATE condicional, evita sobreventa concurrente)
+        //     Si vino de un bloqueo, los cupos ya fueron descontados al bloquear
+        if (!conBloqueo) {
+            inventarioCuposService.reservar(viaje, cantidadPasajeros);
+        }
 
         log.info("Reserva creada exitosamente: {}", reserva.getCodigoReserva());
 
@@ -190,39 +209,65 @@ public class ReservaService {
      */
     @Transactional(readOnly = true)
     public ReservaResponse buscarPorCodigo(String codigoReserva) {
-        Reserva reserva = reservaRepository.findByCodigoReserva(codigoReserva)
+        Reserva reserva = reservaRepository.findDetalleCompletoByCodigoReserva(codigoReserva)
                 .orElseThrow(() -> new NotFoundException(String.format("Reserva %s no encontrada", codigoReserva)));
 
-        // Validar que el usuario tenga acceso a esta reserva
-        autorizacionService.validarAccesoReserva(codigoReserva);
+        // Validar que el usuario tenga acceso a esta reserva (sin volver a cargarla)
+        autorizacionService.validarAccesoReserva(reserva);
 
         return reservaMapper.toResponse(reserva);
     }
 
     /**
-     * Lista todas las reservas
+     * Lista reservas por páginas (keyset sobre fechaReserva, idReserva)
+     * La consulta y la respuesta tienen tamaño acotado sin importar el historial.
      * RESTRICCIÓN: Las agencias solo ven sus propias reservas
      */
     @Transactional(readOnly = true)
-    public List<ReservaSimpleResponse> listarReservas() {
-        List<Reserva> reservas;
+    public PaginaCursorResponse<ReservaSimpleResponse> listarReservas(FiltroReservasRequest filtro) {
+        Integer idAgencia = filtro.getIdAgencia();
 
-        // Si es AGENCIA, filtrar solo sus reservas
+        // Si es AGENCIA, filtrar solo sus reservas (se ignora el filtro recibido)
         if (autorizacionService.esAgencia()) {
-            Integer idAgencia = autorizacionService.obtenerIdAgenciaActual();
+            idAgencia = autorizacionService.obtenerIdAgenciaActual();
             if (idAgencia == null) {
                 log.warn("Usuario AGENCIA sin idAgencia asociado");
-                return List.of();
+                return PaginaCursorResponse.vacia();
             }
-            reservas = reservaRepository.findByAgenciaIdAgencia(idAgencia);
-            log.debug("Listando reservas para agencia ID: {}", idAgencia);
-        } else {
-            // ASESOR_VENTAS ve todas las reservas
-            reservas = reservaRepository.findAll();
-            log.debug("Listando todas las reservas");
         }
 
-        return reservaMapper.toSimpleResponseList(reservas);
+        if (filtro.getFechaDesde() != null && filtro.getFechaHasta() != null
+                && filtro.getFechaHasta().isBefore(filtro.getFechaDesde())) {
+            throw new BadRequestException("La fecha hasta no puede ser anterior a la fecha desde");
+        }
+
+        int tamano = filtro.getTamano() != null ? filtro.getTamano() : TAMANO_PAGINA_DEFECTO;
+        CursorPaginacion.Posicion posicion = CursorPaginacion.decodificar(filtro.getCursor());
+
+        // Se pide una fila extra solo para saber si hay página siguiente
+        List<ReservaSimpleResponse> filas = reservaRepository.listarPagina(
+                posicion.fecha(), posicion.id(),
+                filtro.getEstado(), filtro.getIdViaje(), idAgencia,
+                filtro.getFechaDesde() != null ? filtro.getFechaDesde().atStartOfDay() : null,
+                filtro.getFechaHasta() != null ? filtro.getFechaHasta().plusDays(1).atStartOfDay() : null,
+                PageRequest.of(0, tamano + 1));
+
+        boolean hayMas = filas.size() > tamano;
+        List<ReservaSimpleResponse> pagina = hayMas ? filas.subList(0, tamano) : filas;
+
+        String siguienteCursor = null;
+        if (hayMas) {
+            ReservaSimpleResponse ultima = pagina.get(pagina.size() - 1);
+            siguienteCursor = CursorPaginacion.codificar(ultima.getFechaReserva(), ultima.getIdReserva());
+        }
+
+        log.debug("Listando {} reservas (agencia: {}, hay más: {})", pagina.size(), idAgencia, hayMas);
+
+        return PaginaCursorResponse.<ReservaSimpleResponse>builder()
+                .elementos(pagina)
+                .siguienteCursor(siguienteCursor)
+                .hayMas(hayMas)
+                .build();
     }
 
     /**
@@ -232,12 +277,10 @@ public class ReservaService {
     public ReservaResponse registrarPago(RegistrarPagoRequest request, Integer idUsuarioActual) {
         log.info("Registrando pago para reserva: {}", request.getCodigoReserva());
 
-        // Validar acceso a la reserva
-        autorizacionService.validarAccesoReserva(request.getCodigoReserva());
-
-        // 1. Obtener reserva
-        Reserva reserva = reservaRepository.findByCodigoReserva(request.getCodigoReserva())
+        // 1. Bloquear y obtener reserva; validar acceso sobre la misma entidad
+        Reserva reserva = reservaRepository.bloquearDetalleCompletoByCodigoReserva(request.getCodigoReserva())
                 .orElseThrow(() -> new RecursoNoEncontradoException("Reserva", request.getCodigoReserva()));
+        autorizacionService.validarAccesoReserva(reserva);
 
         // 2. Validar estado
         if (reserva.getEstado() == EstadoReserva.CANCELADA) {
@@ -298,12 +341,10 @@ public class ReservaService {
 
         log.info("Iniciando cancelación de reserva: {}", request.getCodigoReserva());
 
-        // Validar acceso a la reserva
-        autorizacionService.validarAccesoReserva(request.getCodigoReserva());
-
-        // 1. Obtener reserva
-        Reserva reserva = reservaRepository.findByCodigoReserva(request.getCodigoReserva())
+        // 1. Bloquear y obtener reserva; validar acceso sobre la misma entidad
+        Reserva reserva = reservaRepository.bloquearParaCancelacionByCodigoReserva(request.getCodigoReserva())
                 .orElseThrow(() -> new RecursoNoEncontradoException("Reserva", request.getCodigoReserva()));
+        autorizacionService.validarAccesoReserva(reserva);
 
         // 2. Validar que se pueda cancelar
         validarCancelacion(reserva);
@@ -313,11 +354,15 @@ public class ReservaService {
                 reserva, TipoOperacionCancelacion.CANCELACION
         );
 
-        // 4. Obtener usuario
-        Usuario usuario = usuarioRepository.findById(idUsuarioActual)
-                .orElseThrow(() -> new RecursoNoEncontradoException("Usuario", idUsuarioActual.toString()));
+        // 4. Referencia al usuario (id del token verificado, sin consultarlo)
+        Usuario usuario = usuarioRepository.getReferenceById(idUsuarioActual);
 
-        // 5. Crear registro de cancelación
+        // 5. Cambio de estado condicional: una cancelación concurrente que ya ganó deja 0 filas
+        if (reservaRepository.cancelarSiVigente(reserva.getIdReserva(), penalidad.getMontoPenalidad()) == 0) {
+            throw new OperacionNoPermitidaException("La reserva ya está cancelada");
+        }
+
+        // 6. Crear registro de cancelación
         CancelacionReprogramacion cancelacion = CancelacionReprogramacion.builder()
                 .reserva(reserva)
                 .tipoOperacion(TipoOperacionCancelacion.CANCELACION)
@@ -332,17 +377,8 @@ public class ReservaService {
 
         cancelacion = cancelacionRepository.save(cancelacion);
 
-        // 6. Actualizar reserva
-        reserva.setEstado(EstadoReserva.CANCELADA);
-        reserva.setPenalidadAplicada(penalidad.getMontoPenalidad());
-        reserva = reservaRepository.save(reserva);
-
-        // 7. Liberar cupos del viaje
-        Viaje viaje = reserva.getViaje();
-        int cantidadPasajeros = reserva.getDetalles().size();
-        viaje.setCuposOcupados(viaje.getCuposOcupados() - cantidadPasajeros);
-        viaje.setCuposDisponibles(viaje.getCuposDisponibles() + cantidadPasajeros);
-        viajeRepository.save(viaje);
+        // 7. Liberar cupos del viaje (solo quien ganó el cambio de estado)
+        inventarioCuposService.liberar(reserva.getViaje(), reserva.getDetalles().size());
 
         log.info("Reserva cancelada exitosamente: {}", reserva.getCodigoReserva());
 
@@ -362,12 +398,10 @@ public class ReservaService {
 
         log.info("Registrando equipaje para reserva: {}, pasajero: {}", codigoReserva, idPasajero);
 
-        // Validar acceso a la reserva
-        autorizacionService.validarAccesoReserva(codigoReserva);
-
-        // 1. Obtener reserva
-        Reserva reserva = reservaRepository.findByCodigoReserva(codigoReserva)
+        // 1. Bloquear y obtener reserva; validar acceso sobre la misma entidad
+        Reserva reserva = reservaRepository.bloquearDetalleCompletoByCodigoReserva(codigoReserva)
                 .orElseThrow(() -> new RecursoNoEncontradoException("Reserva", codigoReserva));
+        autorizacionService.validarAccesoReserva(reserva);
 
         // 2. Validar que la reserva esté en estado válido
         if (reserva.getEstado() == EstadoReserva.CANCELADA) {
@@ -413,6 +447,7 @@ public class ReservaService {
                 .build();
 
         equipaje = equipajeRepository.save(equipaje);
+        detalle.setEquipaje(equipaje);
 
         // 8. Si hay exceso, se cobrará por separado (boleta independiente)
         if (equipaje.tieneExceso()) {
@@ -444,26 +479,75 @@ public class ReservaService {
         }
     }
 
-    private Pasajero obtenerOCrearPasajero(PasajeroReservaRequest request) {
-        // Si viene el ID, buscar el pasajero existente
-        if (request.getIdPasajero() != null) {
-            return pasajeroRepository.findById(request.getIdPasajero())
-                    .orElseThrow(() -> new RecursoNoEncontradoException(
-                            "Pasajero", request.getIdPasajero().toString()));
+    /**
+     * Resuelve los pasajeros de la reserva con consultas en lote:
+     * una por ID, una por documento y una inserción de todos los nuevos
+     *
+     * @return Pasajeros en el mismo orden de la solicitud
+     */
+    private List<Pasajero> obtenerOCrearPasajeros(List<PasajeroReservaRequest> requests) {
+        // 1. Pasajeros existentes enviados por ID
+        Set<Long> ids = new HashSet<>();
+        Set<TipoDocumento> tipos = new HashSet<>();
+        Set<String> numeros = new HashSet<>();
+
+        for (PasajeroReservaRequest request : requests) {
+            if (request.getIdPasajero() != null) {
+                ids.add(request.getIdPasajero());
+            } else {
+                tipos.add(request.getTipoDocumento());
+                numeros.add(request.getNumeroDocumento());
+            }
+        }
+
+        Map<Long, Pasajero> porId = new HashMap<>();
+        if (!ids.isEmpty()) {
+            pasajeroRepository.findAllById(ids).forEach(p -> porId.put(p.getIdPasajero(), p));
         }
 
-        // Si es nuevo, verificar que no exista por documento
-        if (pasajeroRepository.existsByTipoDocumentoAndNumeroDocumento(
-                request.getTipoDocumento(), request.getNumeroDocumento())) {
+        // 2. Pasajeros ya registrados con el mismo documento
+        Map<DocumentoPasajero, Pasajero> porDocumento = new HashMap<>();
+        if (!numeros.isEmpty()) {
+            pasajeroRepository.findByTipoDocumentoInAndNumeroDocumentoIn(tipos, numeros)
+                    .forEach(p -> porDocumento.put(
+                            new DocumentoPasajero(p.getTipoDocumento(), p.getNumeroDocumento()), p));
+        }
+
+        // 3. Armar la lista en orden, creando los que faltan (un solo registro por documento)
+        List<Pasajero> resultado = new ArrayList<>(requests.size());
+        List<Pasajero> nuevos = new ArrayList<>();
+
+        for (PasajeroReservaRequest request : requests) {
+            if (request.getIdPasajero() != null) {
+                Pasajero existente = porId.get(request.getIdPasajero());
+                if (existente == null) {
+                    throw new RecursoNoEncontradoException("Pasajero", request.getIdPasajero().toString());
+                }
+                resultado.add(existente);
+                continue;
+            }
+
+            Pasajero pasajero = porDocumento.computeIfAbsent(
+                    new DocumentoPasajero(request.getTipoDocumento(), request.getNumeroDocumento()),
+                    documento -> {
+                        Pasajero nuevo = construirPasajero(request);
+                        nuevos.add(nuevo);
+                        return nuevo;
+                    });
+            resultado.add(pasajero);
+        }
 
-            // Si existe, retornarlo
-            return pasajeroRepository.findByTipoDocumentoAndNumeroDocumento(
-                    request.getTipoDocumento(), request.getNumeroDocumento()
-            ).orElseThrow();
+        // 4. Insertar los nuevos juntos
+        if (!nuevos.isEmpty()) {
+            pasajeroRepository.saveAll(nuevos);
+            log.debug("Pasajeros nuevos registrados: {}", nuevos.size());
         }
 
-        // Crear nuevo pasajero
-        Pasajero nuevoPasajero = Pasajero.builder()
+        return resultado;
+    }
+
+    private Pasajero construirPasajero(PasajeroReservaRequest request) {
+        return Pasajero.builder()
                 .nombres(request.getNombres())
                 .apellidos(request.getApellidos())
                 .fechaNacimiento(request.getFechaNacimiento())
@@ -473,14 +557,9 @@ public class ReservaService {
                 .telefono(request.getTelefono())
                 .email(request.getEmail())
                 .build();
-
-        return pasajeroRepository.save(nuevoPasajero);
     }
 
-    private boolean existePasajeroEnReserva(List<ReservaDetalle> detalles, Pasajero pasajero) {
-        return detalles.stream()
-                .anyMatch(d -> d.getPasajero().getIdPasajero().equals(pasajero.getIdPasajero()));
-    }
+    private record DocumentoPasajero(TipoDocumento tipoDocumento, String numeroDocumento) {}
 
     private void procesarPagoInicial(Reserva reserva, PagoInicialRequest pagoRequest,
                                      DatosFacturaRequest facturaRequest) {
@@ -10,6 +10,7 @@ import com.zoealexa.mapper.seguridad.UsuarioMapper;
 import com.zoealexa.repository.seguridad.AgenciaRepository;
 import com.zoealexa.repository.seguridad.TokenRecuperacionRepository;
 import com.zoealexa.repository.seguridad.UsuarioRepository;
+import com.zoealexa.security.EstadoUsuarioCache;
 import com.zoealexa.security.JwtService;
 import com.zoealexa.security.UserDetailsServiceImpl;
 import com.zoealexa.service.email.EmailService;
@@ -43,6 +44,8 @@ public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final UserDetailsServiceImpl userDetailsService;
     private final LoginAttemptService loginAttemptService;
+    private final LimiteIntentosLoginService limiteIntentosLoginService;
+    private final EstadoUsuarioCache estadoUsuarioCache;
 
     @Value("${app.mail.recuperacion.codigo-vigencia-minutos:15}")
     private int vigenciaMinutosCodigo;
@@ -50,11 +53,15 @@ public class AuthService {
     public LoginResponseDTO login(LoginRequestDTO request, String ip, String userAgent){
         log.info("Intento de login para email: {}", request.getEmail());
 
+        //0. Rechazar en memoria si la IP o el email superaron sus intentos (antes de BD y BCrypt)
+        limiteIntentosLoginService.verificar(request.getEmail(), ip);
+
         //1. Buscar usuario
         Usuario usuario = usuarioRepository.findByEmail(request.getEmail()).
                 orElseThrow(() -> {
+                    // Solo cuenta para la IP: un email elegido por el atacante no ocupa memoria ni escribe auditoría
                     log.warn("Usuario no encontrado: {}", request.getEmail());
-                    auditoriaService.resgisterLoginWithoutUser(request.getEmail(), ip, userAgent, "Usuario no encontrado");
+                    limiteIntentosLoginService.registrarFalloSinUsuario(ip);
                     return new BadCredentialsException("Correo Invalido");
                 });
 
@@ -64,6 +71,7 @@ public class AuthService {
             if (LocalDateTime.now().isAfter(usuario.getBloqueadoHasta())){
                 usuario.reiniciarIntentos();
                 usuarioRepository.save(usuario);
+                estadoUsuarioCache.invalidar(usuario.getEmail());
             }else {
                 log.warn("Usuario bloqueado: {}", request.getEmail());
                 auditoriaService.resgisterLoginWithUser(usuario,request.getEmail(), Accion.LOGIN_FALLIDO,ip, userAgent, "Usuario bloqueado", Resultado.FALLIDO);
@@ -88,6 +96,7 @@ public class AuthService {
             );
 
             //5. Si llegamos aquí, la autenticación fue exitosa
+            limiteIntentosLoginService.registrarExito(request.getEmail());
             usuario.reiniciarIntentos();
             usuario.registrarAcceso();
             usuarioRepository.save(usuario);
@@ -99,6 +108,7 @@ public class AuthService {
             String token = jwtService.generateTokenWithUserId(
                     usuario.getIdUsuario(),
                     usuario.getRol().name(),
+                    usuario.getAgencia() != null ? usuario.getAgencia().getIdAgencia() : null,
                     userDetails
             );
 
@@ -115,8 +125,12 @@ public class AuthService {
                     .build();
         } catch (org.springframework.security.authentication.BadCredentialsException e){
 
-            //10. Contraseña incorrecta - incrementar intentos fallidos
-            loginAttemptService.registrarIncorrectPassword(usuario, request.getEmail(), ip, userAgent);
+            //10. Contraseña incorrecta - se cuenta en memoria; solo el bloqueo se persiste
+            int fallos = limiteIntentosLoginService.registrarFallo(request.getEmail(), ip);
+            log.warn("❌ Login fallido para: {} - Intentos: {}", request.getEmail(), fallos);
+            if (limiteIntentosLoginService.alcanzaBloqueo(fallos)) {
+                loginAttemptService.registrarBloqueo(usuario, request.getEmail(), fallos, ip, userAgent);
+            }
             throw new BadCredentialsException("Credenciales inválidas");
         }
     }
@@ -190,6 +204,7 @@ public class AuthService {
             if (LocalDateTime.now().isAfter(usuario.getBloqueadoHasta())){
                 usuario.reiniciarIntentos();
                 usuarioRepository.save(usuario);
+                estadoUsuarioCache.invalidar(usuario.getEmail());
             }else {
                 throw new ConflictException("La cuenta no está activa");
             }
@@ -248,6 +263,7 @@ public class AuthService {
         usuario.setPassword(passwordEncoder.encode(request.getNuevaPassword()));
         usuario.reiniciarIntentos();
         usuarioRepository.save(usuario);
+        estadoUsuarioCache.invalidar(usuario.getEmail());
 
         // 5. Marcar token como utilizado
         token.marcarComoUtilizado();
@@ -0,0 +1,122 @@
+package com.zoealexa.service.seguridad;
+
+import com.zoealexa.exception.AccountLockedException;
+import com.zoealexa.exception.TooManyRequestsException;
+import com.zoealexa.util.VentanaDeslizante;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Límite de intentos fallidos de login en memoria, por email y por IP
+ *
+ * Los intentos se verifican antes de consultar el usuario y de ejecutar BCrypt:
+ * una ráfaga de credenciales se rechaza sin tocar la base de datos. Solo el
+ * fallo que alcanza el límite de un email se persiste (bloqueo del usuario y
+ * auditoría, en LoginAttemptService).
+ *
+ * - Email: al llegar al límite la cuenta queda bloqueada (423) hasta que venzan fallos
+ *   de la ventana, que es del orden de un bloqueo (minutos) y no de una ráfaga
+ * - IP: al llegar al límite se responde 429 con Retry-After, para cualquier email
+ * - Emails inexistentes solo cuentan para la IP: no ocupan claves de la ventana por email
+ * - Un login exitoso reinicia los fallos del email
+ */
+@Service
+@Slf4j
+public class LimiteIntentosLoginService {
+
+    private final int maxFallosEmail;
+    private final int maxFallosIp;
+    private final VentanaDeslizante porEmail;
+    private final VentanaDeslizante porIp;
+
+    public LimiteIntentosLoginService(
+            @Value("${app.seguridad.login.ventana-ip-seg:60}") long ventanaIpSegundos,
+            @Value("${app.seguridad.login.ventana-email-seg:900}") long ventanaEmailSegundos,
+            @Value("${app.seguridad.login.max-fallos-email:5}") int maxFallosEmail,
+            @Value("${app.seguridad.login.max-fallos-ip:20}") int maxFallosIp,
+            @Value("${app.seguridad.login.max-claves:100000}") int maxClaves) {
+        this.maxFallosEmail = maxFallosEmail;
+        this.maxFallosIp = maxFallosIp;
+        // Uno más que el límite: el fallo que bloquea se distingue de los concurrentes que llegan después
+        this.porEmail = new VentanaDeslizante(Duration.ofSeconds(ventanaEmailSegundos), maxFallosEmail + 1, 64, maxClaves);
+        this.porIp = new VentanaDeslizante(Duration.ofSeconds(ventanaIpSegundos), maxFallosIp, 64, maxClaves);
+    }
+
+    /**
+     * Rechaza el intento si la IP o el email ya alcanzaron su límite de fallos
+     *
+     * @throws TooManyRequestsException si la IP superó su límite
+     * @throws AccountLockedException si el email superó su límite
+     */
+    public void verificar(String email, String ip) {
+        long ahora = System.currentTimeMillis();
+
+        long esperaIp = porIp.esperaMs(ip, maxFallosIp, ahora);
+        if (esperaIp > 0) {
+            log.warn("Login rechazado por exceso de intentos desde IP: {}", ip);
+            throw new TooManyRequestsException(
+                    "Demasiados intentos de login. Intente nuevamente en unos momentos.", segundos(esperaIp));
+        }
+
+        if (porEmail.contar(clave(email), ahora) >= maxFallosEmail) {
+            log.warn("Login rechazado, email con demasiados intentos: {}", email);
+            throw new AccountLockedException("Usuario bloqueado temporalmente. Intente nuevamente en unos momentos.");
+        }
+    }
+
+    /**
+     * Registra un intento fallido con un email inexistente (solo cuenta para la IP)
+     */
+    public void registrarFalloSinUsuario(String ip) {
+        porIp.registrar(ip, System.currentTimeMillis());
+    }
+
+    /**
+     * Registra un intento fallido de un usuario existente
+     *
+     * @return Fallos del email en la ventana (incluido este)
+     */
+    public int registrarFallo(String email, String ip) {
+        long ahora = System.currentTimeMillis();
+        porIp.registrar(ip, ahora);
+        return porEmail.registrar(clave(email), ahora);
+    }
+
+    /**
+     * Indica si esa cantidad de fallos es la que bloquea el email (transición a bloqueado)
+     */
+    public boolean alcanzaBloqueo(int fallos) {
+        return fallos == maxFallosEmail;
+    }
+
+    /**
+     * Login exitoso: el email vuelve a tener todos sus intentos
+     */
+    public void registrarExito(String email) {
+        porEmail.limpiar(clave(email));
+    }
+
+    @Scheduled(fixedDelayString = "${app.seguridad.login.purga-ms:300000}",
+            initialDelayString = "${app.seguridad.login.purga-ms:300000}")
+    public void purgar() {
+        long ahora = System.currentTimeMillis();
+        porEmail.purgar(ahora);
+        porIp.purgar(ahora);
+        log.debug("Límite de login: {} emails y {} IPs con fallos recientes", porEmail.tamano(), porIp.tamano());
+    }
+
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+
+    private static String clave(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long segundos(long milisegundos) {
+        return Math.max(1, (milisegundos + 999) / 1000);
+    }
+}
@@ -3,6 +3,7 @@ import com.zoealexa.entity.enums.Accion;
 import com.zoealexa.entity.enums.Resultado;
 import com.zoealexa.entity.seguridad.Usuario;
 import com.zoealexa.repository.seguridad.UsuarioRepository;
+import com.zoealexa.security.EstadoUsuarioCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -16,32 +17,30 @@ public class LoginAttemptService {
 
     private final UsuarioRepository usuarioRepository;
     private final AuditoriaService auditoriaService;
-
+    private final EstadoUsuarioCache estadoUsuarioCache;
+
+    /**
+     * Persiste el bloqueo de un usuario que alcanzó el límite de intentos fallidos
+     *
+     * Los fallos anteriores al bloqueo solo se cuentan en memoria
+     * (LimiteIntentosLoginService); aquí se escribe únicamente la transición.
+     *
+     * @param intentos Fallos en la ventana que provocaron el bloqueo
+     */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void registrarIncorrectPassword(Usuario usuario, String email, String ip, String userAgent){
-
-        log.warn("⚠️ Registrando intento fallido para: {}", email);
-
-        // Incrementar intentos por contraseña incorrecta
-        usuario.incrementarIntentosFallidos();
+    public void registrarBloqueo(Usuario usuario, String email, int intentos, String ip, String userAgent){
 
-        String motivo = "Contraseña incorrecta";
-
-        // Bloquear si alcanzó el límite
-        if (usuario.getIntentosFallidos() >= 5) {
-            usuario.bloquearTemporalmente(1);
-            motivo = "Usuario bloqueado por múltiples intentos";
-            log.warn("🔒 Usuario bloqueado: {}", email);
-        }
+        usuario.setIntentosFallidos(intentos);
+        usuario.bloquearTemporalmente(1);
+        estadoUsuarioCache.invalidar(usuario.getEmail());
 
         // Guardar usuario
         usuarioRepository.save(usuario);
 
-        log.info("💾 Usuario guardado - Intentos: {}", usuario.getIntentosFallidos());
-
         // Registrar auditoría
-        auditoriaService.resgisterLoginWithUser(usuario,email, Accion.LOGIN_FALLIDO, ip, userAgent, motivo, Resultado.FALLIDO);
+        auditoriaService.resgisterLoginWithUser(usuario, email, Accion.LOGIN_FALLIDO, ip, userAgent,
+                "Usuario bloqueado por múltiples intentos", Resultado.FALLIDO);
 
-        log.warn("❌ Login fallido - Intentos: {}/5", usuario.getIntentosFallidos());
+        log.warn("🔒 Usuario bloqueado: {} - Intentos: {}", email, intentos);
     }
 }
@@ -7,6 +7,7 @@ import com.zoealexa.exception.ConflictException;
 import com.zoealexa.exception.NotFoundException;
 import com.zoealexa.mapper.seguridad.UsuarioMapper;
 import com.zoealexa.repository.seguridad.UsuarioRepository;
+import com.zoealexa.security.EstadoUsuarioCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -22,6 +23,7 @@ import java.util.stream.Collectors;
 public class UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
+    private final EstadoUsuarioCache estadoUsuarioCache;
 
     /**
      * Listar todos los usuarios
@@ -45,6 +47,9 @@ public class UsuarioService {
         Usuario usuario = usuarioRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Usuario no encontrado"));
 
+        // Los tokens emitidos con el email anterior dejan de autenticar al cambiarlo
+        estadoUsuarioCache.invalidar(usuario.getEmail());
+
         if (request.getEmail() != null) {
             if (!usuario.getEmail().equals(request.getEmail())){
                 if (usuarioRepository.existsByEmail(request.getEmail())) {
@@ -52,6 +57,7 @@ public class UsuarioService {
                     throw new ConflictException("El email ya está registrado");
                 }else {
                     usuario.setEmail(request.getEmail());
+                    estadoUsuarioCache.invalidar(request.getEmail());
                 }
             }
         }
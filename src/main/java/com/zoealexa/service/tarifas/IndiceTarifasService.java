@@ -0,0 +1,138 @@
+package com.zoealexa.service.tarifas;
+
+import com.zoealexa.repository.tarifas.TarifaRutaRepository;
+import com.zoealexa.util.TransaccionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice en memoria de tarifas por ruta con vigencia por fechas
+ *
+ * Cada ruta guarda sus periodos de tarifa ordenados por fecha de inicio; el
+ * precio para una fecha se resuelve con búsqueda binaria, sin consultas.
+ * Permite programar cambios de precio a futuro: el periodo nuevo empieza a
+ * aplicarse solo cuando llega su fecha de inicio. El índice es inmutable y se
+ * reemplaza tras cada alta de tarifa y periódicamente.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class IndiceTarifasService {
+
+    private final TarifaRutaRepository tarifaRutaRepository;
+
+    private volatile Map<Integer, PeriodosRuta> indice;
+
+    /**
+     * Precio base de la ruta vigente en la fecha indicada
+     *
+     * @param idRuta ID de la ruta
+     * @param fecha Fecha y hora en que se evalúa la tarifa (p. ej. embarque del viaje)
+     * @return Precio base o null si la ruta no tiene tarifa en esa fecha
+     */
+    public BigDecimal precioBase(Integer idRuta, LocalDateTime fecha) {
+        PeriodosRuta periodos = obtenerIndice().get(idRuta);
+        if (periodos == null) {
+            return null;
+        }
+
+        Periodo periodo = periodos.buscar(fecha);
+        return periodo != null ? periodo.precioBase() : null;
+    }
+
+    /**
+     * Programa la recarga para cuando la transacción actual haga commit
+     * Llamado por TarifaRutaService al registrar tarifas
+     */
+    public void invalidar() {
+        TransaccionUtil.despuesDelCommit(this::recargar);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        recargar();
+    }
+
+    @Scheduled(fixedDelayString = "${app.tarifas.cache.refresco-ms:300000}",
+            initialDelayString = "${app.tarifas.cache.refresco-ms:300000}")
+    public void refrescoProgramado() {
+        recargar();
+    }
+
+    /**
+     * Lee todos los periodos de tarifa y reemplaza el índice de forma atómica
+     */
+    public synchronized void recargar() {
+        Map<Integer, List<Periodo>> porRuta = new HashMap<>();
+
+        List<TarifaRutaRepository.PeriodoTarifa> filas = tarifaRutaRepository.findPeriodos();
+        for (TarifaRutaRepository.PeriodoTarifa fila : filas) {
+            porRuta.computeIfAbsent(fila.getIdRuta(), r -> new ArrayList<>())
+                    .add(new Periodo(fila.getIdTarifa(), fila.getFechaInicio(), fila.getFechaFin(),
+                            fila.getPrecioBase()));
+        }
+
+        Map<Integer, PeriodosRuta> nuevo = new HashMap<>(porRuta.size() * 2);
+        porRuta.forEach((idRuta, lista) -> nuevo.put(idRuta, new PeriodosRuta(lista.toArray(Periodo[]::new))));
+        indice = nuevo;
+
+        log.debug("Índice de tarifas cargado: {} periodos en {} rutas", filas.size(), nuevo.size());
+    }
+
+    private Map<Integer, PeriodosRuta> obtenerIndice() {
+        Map<Integer, PeriodosRuta> actual = indice;
+        if (actual == null) {
+            recargar();
+            actual = indice;
+        }
+        return actual;
+    }
+
+    private record Periodo(Integer idTarifa, LocalDateTime inicio, LocalDateTime fin, BigDecimal precioBase) {
+
+        boolean incluye(LocalDateTime fecha) {
+            return fin == null || fecha.isBefore(fin);
+        }
+    }
+
+    /**
+     * Periodos de una ruta ordenados por inicio (arreglo no modificable tras construirse)
+     */
+    private record PeriodosRuta(Periodo[] periodos) {
+
+        /**
+         * Último periodo que inicia en o antes de la fecha, si aún no terminó
+         */
+        Periodo buscar(LocalDateTime fecha) {
+            int bajo = 0;
+            int alto = periodos.length - 1;
+            int encontrado = -1;
+
+            while (bajo <= alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (periodos[medio].inicio().isAfter(fecha)) {
+                    alto = medio - 1;
+                } else {
+                    encontrado = medio;
+                    bajo = medio + 1;
+                }
+            }
+
+            if (encontrado < 0 || !periodos[encontrado].incluye(fecha)) {
+                return null;
+            }
+            return periodos[encontrado];
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.zoealexa.service.tarifas;
+
+import com.zoealexa.entity.enums.TipoPenalidad;
+import com.zoealexa.entity.enums.TipoValor;
+import com.zoealexa.entity.tarifas.ReglaPenalidad;
+import com.zoealexa.repository.tarifas.ReglaPenalidadRepository;
+import com.zoealexa.util.Monto;
+import com.zoealexa.util.TransaccionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Motor de reglas de penalidad y equipaje en memoria
+ *
+ * Las reglas activas se cargan una vez y se indexan por TipoPenalidad. Dentro
+ * de cada tipo se ordenan por días de anticipación mínima (descendente), de
+ * modo que la regla aplicable es la primera cuyo umbral se cumple. El índice
+ * es inmutable y se reemplaza tras cada cambio de reglas y periódicamente.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MotorPenalidadesService {
+
+    private static final Comparator<PenalidadRegla> ORDEN_ESCALONES = Comparator
+            .comparingInt(PenalidadRegla::umbralDias).reversed()
+            .thenComparing(PenalidadRegla::idPenalidad);
+
+    private final ReglaPenalidadRepository reglaPenalidadRepository;
+
+    private volatile Map<TipoPenalidad, List<PenalidadRegla>> indice;
+
+    /**
+     * Regla de penalidad compilada (copia inmutable, sin estado JPA)
+     */
+    public record PenalidadRegla(Integer idPenalidad, String descripcion, TipoValor tipoValor, Monto valor,
+                                 Integer diasAnticipacionMinima, Monto kilosPermitidos, Monto precioPorKilo) {
+
+        int umbralDias() {
+            return diasAnticipacionMinima != null ? diasAnticipacionMinima : 0;
+        }
+    }
+
+    /**
+     * Regla de penalidad aplicable según los días de anticipación
+     *
+     * @param tipo Tipo de penalidad
+     * @param diasAnticipacion Días entre hoy y la fecha del viaje
+     * @return Escalón con mayor umbral que se cumple, o null si no hay regla
+     */
+    public PenalidadRegla buscarPenalidad(TipoPenalidad tipo, long diasAnticipacion) {
+        for (PenalidadRegla regla : obtenerIndice().getOrDefault(tipo, List.of())) {
+            if (diasAnticipacion >= regla.umbralDias()) {
+                return regla;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Regla de equipaje activa
+     *
+     * @return Regla de equipaje o null si no hay ninguna activa
+     */
+    public PenalidadRegla buscarEquipaje() {
+        List<PenalidadRegla> reglas = obtenerIndice().getOrDefault(TipoPenalidad.EQUIPAJE, List.of());
+        return reglas.isEmpty() ? null : reglas.get(0);
+    }
+
+    /**
+     * Programa la recarga para cuando la transacción actual haga commit
+     * Llamado por ReglaPenalidadService en cada cambio de reglas
+     */
+    public void invalidar() {
+        TransaccionUtil.despuesDelCommit(this::recargar);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        recargar();
+    }
+
+    @Scheduled(fixedDelayString = "${app.tarifas.cache.refresco-ms:300000}",
+            initialDelayString = "${app.tarifas.cache.refresco-ms:300000}")
+    public void refrescoProgramado() {
+        recargar();
+    }
+
+    /**
+     * Lee las reglas activas y reemplaza el índice de forma atómica
+     */
+    public synchronized void recargar() {
+        Map<TipoPenalidad, List<PenalidadRegla>> porTipo = new EnumMap<>(TipoPenalidad.class);
+
+        List<ReglaPenalidad> reglas = reglaPenalidadRepository.findByActivaTrueOrderByIdPenalidadAsc();
+        for (ReglaPenalidad regla : reglas) {
+            porTipo.computeIfAbsent(regla.getTipoPenalidad(), t -> new ArrayList<>()).add(compilar(regla));
+        }
+
+        porTipo.replaceAll((tipo, lista) -> lista.stream().sorted(ORDEN_ESCALONES).toList());
+        indice = porTipo;
+
+        log.debug("Motor de penalidades cargado: {} reglas activas", reglas.size());
+    }
+
+    private Map<TipoPenalidad, List<PenalidadRegla>> obtenerIndice() {
+        Map<TipoPenalidad, List<PenalidadRegla>> actual = indice;
+        if (actual == null) {
+            recargar();
+            actual = indice;
+        }
+        return actual;
+    }
+
+    private PenalidadRegla compilar(ReglaPenalidad regla) {
+        Monto kilos = regla.getKilosPermitidos() != null
+                ? Monto.deCentimos(regla.getKilosPermitidos() * 100L) : Monto.CERO;
+
+        return new PenalidadRegla(regla.getIdPenalidad(), regla.getDescripcion(), regla.getTipoValor(),
+                Monto.de(regla.getValor()), regla.getDiasAnticipacionMinima(), kilos,
+                Monto.de(regla.getPrecioPorKilo()));
+    }
+}
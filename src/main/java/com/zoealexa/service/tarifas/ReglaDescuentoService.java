@@ -36,6 +36,7 @@ import java.util.stream.Collectors;
 public class ReglaDescuentoService {
 
     private final ReglaDescuentoRepository reglaDescuentoRepository;
+    private final TablaDescuentosService tablaDescuentosService;
 
     /**
      * Crear nueva regla de descuento
@@ -51,6 +52,7 @@ public class ReglaDescuentoService {
 
         ReglaDescuento regla = ReglaDescuentoMapper.toEntity(request);
         regla = reglaDescuentoRepository.save(regla);
+        tablaDescuentosService.invalidar();
 
         log.info("Regla de descuento creada con ID: {}", regla.getIdDescuento());
 
@@ -183,6 +185,7 @@ public class ReglaDescuentoService {
         }
 
         regla = reglaDescuentoRepository.save(regla);
+        tablaDescuentosService.invalidar();
 
         log.info("Regla de descuento actualizada: {}", regla.getIdDescuento());
 
@@ -203,6 +206,7 @@ public class ReglaDescuentoService {
 
         regla.setActiva(true);
         regla = reglaDescuentoRepository.save(regla);
+        tablaDescuentosService.invalidar();
 
         return ReglaDescuentoMapper.toResponseDTO(regla);
     }
@@ -221,6 +225,7 @@ public class ReglaDescuentoService {
 
         regla.setActiva(false);
         regla = reglaDescuentoRepository.save(regla);
+        tablaDescuentosService.invalidar();
 
         return ReglaDescuentoMapper.toResponseDTO(regla);
     }
@@ -36,6 +36,7 @@ import java.util.stream.Collectors;
 public class ReglaPenalidadService {
 
     private final ReglaPenalidadRepository reglaPenalidadRepository;
+    private final MotorPenalidadesService motorPenalidadesService;
 
     /**
      * Crear nueva regla de penalidad
@@ -51,6 +52,7 @@ public class ReglaPenalidadService {
 
         ReglaPenalidad regla = ReglaPenalidadMapper.toEntity(request);
         regla = reglaPenalidadRepository.save(regla);
+        motorPenalidadesService.invalidar();
 
         log.info("Regla de penalidad creada con ID: {}", regla.getIdPenalidad());
 
@@ -180,6 +182,13 @@ public class ReglaPenalidadService {
                 regla.setValor(request.getValor());
             }
         }
+        if (request.getDiasAnticipacionMinima() != null) {
+            if (regla.getTipoPenalidad() == TipoPenalidad.EQUIPAJE){
+                throw new BadRequestException("Para penalidad de EQUIPAJE, diasAnticipacionMinima debe ser null");
+            }else {
+                regla.setDiasAnticipacionMinima(request.getDiasAnticipacionMinima());
+            }
+        }
         if (request.getKilosPermitidos() != null) {
             if (regla.getTipoPenalidad() != TipoPenalidad.EQUIPAJE){
                 throw new BadRequestException("kilosPermitidos y precioPorKilo solo aplica para EQUIPAJE");
@@ -199,6 +208,7 @@ public class ReglaPenalidadService {
         }
 
         regla = reglaPenalidadRepository.save(regla);
+        motorPenalidadesService.invalidar();
 
         log.info("Regla de penalidad actualizada: {}", regla.getIdPenalidad());
 
@@ -219,6 +229,7 @@ public class ReglaPenalidadService {
 
         regla.setActiva(true);
         regla = reglaPenalidadRepository.save(regla);
+        motorPenalidadesService.invalidar();
 
         return ReglaPenalidadMapper.toResponseDTO(regla);
     }
@@ -237,6 +248,7 @@ public class ReglaPenalidadService {
 
         regla.setActiva(false);
         regla = reglaPenalidadRepository.save(regla);
+        motorPenalidadesService.invalidar();
 
         return ReglaPenalidadMapper.toResponseDTO(regla);
     }
@@ -342,6 +354,9 @@ public class ReglaPenalidadService {
             if (request.getTipoValor() != null || request.getValor() != null) {
                 throw new BadRequestException("Para penalidad de EQUIPAJE, tipoValor y valor deben ser null");
             }
+            if (request.getDiasAnticipacionMinima() != null) {
+                throw new BadRequestException("Para penalidad de EQUIPAJE, diasAnticipacionMinima debe ser null");
+            }
         } else {
             // Para otros tipos: Requerir tipoValor y valor
             if (request.getTipoValor() == null) {
@@ -0,0 +1,126 @@
+package com.zoealexa.service.tarifas;
+
+import com.zoealexa.entity.enums.TipoValor;
+import com.zoealexa.entity.tarifas.ReglaDescuento;
+import com.zoealexa.repository.tarifas.ReglaDescuentoRepository;
+import com.zoealexa.util.Monto;
+import com.zoealexa.util.TransaccionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Tabla de descuentos por edad compilada en memoria
+ *
+ * Las reglas activas se compilan en un arreglo indexado por edad (0 a 120),
+ * de modo que el descuento de cada pasajero es una lectura del arreglo, sin
+ * consultas ni bloqueos. La tabla es inmutable y se reemplaza completa
+ * cuando cambian las reglas (tras el commit) y periódicamente, para recoger
+ * cambios hechos desde otros nodos.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TablaDescuentosService {
+
+    public static final int EDAD_MAXIMA_TABLA = 120;
+
+    private final ReglaDescuentoRepository reglaDescuentoRepository;
+
+    private volatile Tabla tabla;
+
+    /**
+     * Regla de descuento compilada (copia inmutable, sin estado JPA)
+     */
+    public record DescuentoEdad(Integer idDescuento, String descripcion, Integer edadMinima,
+                                Integer edadMaxima, TipoValor tipoValor, Monto valor) {
+
+        boolean aplica(int edad) {
+            return (edadMinima == null || edad >= edadMinima)
+                    && (edadMaxima == null || edad <= edadMaxima);
+        }
+    }
+
+    /**
+     * Regla aplicable a la edad: la primera regla activa (por ID) cuyo rango la incluye
+     *
+     * @param edad Edad del pasajero
+     * @return Regla aplicable o null si no hay descuento
+     */
+    public DescuentoEdad buscar(int edad) {
+        Tabla actual = tabla;
+        if (actual == null) {
+            recompilar();
+            actual = tabla;
+        }
+
+        if (edad >= 0 && edad <= EDAD_MAXIMA_TABLA) {
+            return actual.porEdad()[edad];
+        }
+
+        // Fuera del arreglo: recorrido de la lista compilada (caso excepcional)
+        for (DescuentoEdad regla : actual.reglas()) {
+            if (regla.aplica(edad)) {
+                return regla;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Programa la recompilación para cuando la transacción actual haga commit
+     * Llamado por ReglaDescuentoService en cada cambio de reglas
+     */
+    public void invalidar() {
+        TransaccionUtil.despuesDelCommit(this::recompilar);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        recompilar();
+    }
+
+    @Scheduled(fixedDelayString = "${app.tarifas.cache.refresco-ms:300000}",
+            initialDelayString = "${app.tarifas.cache.refresco-ms:300000}")
+    public void refrescoProgramado() {
+        recompilar();
+    }
+
+    /**
+     * Lee las reglas activas y reemplaza la tabla de forma atómica
+     */
+    public synchronized void recompilar() {
+        List<DescuentoEdad> reglas = reglaDescuentoRepository.findByActivaTrueOrderByIdDescuentoAsc().stream()
+                .map(this::compilar)
+                .toList();
+
+        DescuentoEdad[] porEdad = new DescuentoEdad[EDAD_MAXIMA_TABLA + 1];
+        for (int edad = 0; edad <= EDAD_MAXIMA_TABLA; edad++) {
+            for (DescuentoEdad regla : reglas) {
+                if (regla.aplica(edad)) {
+                    porEdad[edad] = regla;
+                    break;
+                }
+            }
+        }
+
+        tabla = new Tabla(porEdad, reglas);
+
+        log.debug("Tabla de descuentos por edad compilada: {} reglas activas", reglas.size());
+    }
+
+    private DescuentoEdad compilar(ReglaDescuento regla) {
+        return new DescuentoEdad(regla.getIdDescuento(), regla.getDescripcion(), regla.getEdadMinima(),
+                regla.getEdadMaxima(), regla.getTipoValor(), Monto.de(regla.getValor()));
+    }
+
+    /**
+     * Instantánea inmutable: el arreglo no se modifica después de publicarse
+     */
+    private record Tabla(DescuentoEdad[] porEdad, List<DescuentoEdad> reglas) {}
+}
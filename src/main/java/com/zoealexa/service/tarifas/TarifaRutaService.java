@@ -8,6 +8,7 @@ import com.zoealexa.dto.tarifas.TarifaRutaRequestDTO;
 import com.zoealexa.dto.tarifas.TarifaRutaResponseDTO;
 import com.zoealexa.entity.tarifas.TarifaRuta;
 import com.zoealexa.entity.transporte.Ruta;
+import com.zoealexa.exception.BadRequestException;
 import com.zoealexa.exception.NotFoundException;
 import com.zoealexa.mapper.tarifas.TarifaRutaMapper;
 import com.zoealexa.repository.tarifas.TarifaRutaRepository;
@@ -24,11 +25,12 @@ public class TarifaRutaService {
 
     private final TarifaRutaRepository tarifaRepository;
     private final RutaRepository rutaRepository;
+    private final IndiceTarifasService indiceTarifasService;
 
     /**
      * Crear nueva tarifa para una ruta
-     * - Cierra automáticamente la tarifa vigente (si existe)
-     * - No pide fechas
+     * - Inicia ahora, o en la fecha indicada si se programa a futuro
+     * - Cierra automáticamente la tarifa abierta (si existe) al iniciar la nueva
      */
     public TarifaRutaResponseDTO crear(TarifaRutaRequestDTO request) {
 
@@ -39,11 +41,19 @@ public class TarifaRutaService {
                         new NotFoundException("Ruta no encontrada con ID: " + request.getIdRuta())
                 );
 
-        // 1️⃣ Cerrar tarifa vigente (si existe)
+        LocalDateTime fechaInicio = request.getFechaInicio() != null
+                ? request.getFechaInicio()
+                : LocalDateTime.now();
+
+        // 1️⃣ Cerrar tarifa abierta (si existe) en el inicio de la nueva
         tarifaRepository.findByRutaIdRutaAndFechaFinIsNull(ruta.getIdRuta())
                 .ifPresent(tarifaActiva -> {
-                    log.info("Cerrando tarifa vigente ID: {}", tarifaActiva.getIdTarifa());
-                    tarifaActiva.setFechaFin(LocalDateTime.now());
+                    if (!fechaInicio.isAfter(tarifaActiva.getFechaInicio())) {
+                        throw new BadRequestException("La nueva tarifa debe iniciar después de "
+                                + tarifaActiva.getFechaInicio());
+                    }
+                    log.info("Cerrando tarifa ID: {} en {}", tarifaActiva.getIdTarifa(), fechaInicio);
+                    tarifaActiva.setFechaFin(fechaInicio);
                     tarifaRepository.save(tarifaActiva);
                 });
 
@@ -51,11 +61,12 @@ public class TarifaRutaService {
         TarifaRuta nuevaTarifa = TarifaRuta.builder()
                 .ruta(ruta)
                 .precioBase(request.getPrecioBase())
-                .fechaInicio(LocalDateTime.now())
+                .fechaInicio(fechaInicio)
                 .fechaFin(null)
                 .build();
 
         nuevaTarifa = tarifaRepository.save(nuevaTarifa);
+        indiceTarifasService.invalidar();
 
         log.info("Nueva tarifa creada con ID: {}", nuevaTarifa.getIdTarifa());
 
@@ -86,7 +97,7 @@ public class TarifaRutaService {
         }
 
         TarifaRuta tarifa = tarifaRepository
-                .findByRutaIdRutaAndFechaFinIsNull(rutaId)
+                .findVigenteEn(rutaId, LocalDateTime.now())
                 .orElseThrow(() ->
                         new NotFoundException("No existe tarifa vigente para la ruta ID: " + rutaId)
                 );
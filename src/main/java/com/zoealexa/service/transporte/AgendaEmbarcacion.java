@@ -0,0 +1,148 @@
+package com.zoealexa.service.transporte;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Viajes de una embarcación como intervalos [salida, llegada) ordenados por salida
+ *
+ * Además de las salidas y llegadas guarda la mayor llegada acumulada hasta
+ * cada posición: un cruce con un intervalo nuevo se detecta con una búsqueda
+ * binaria, aun si la agenda ya tiene solapamientos (datos anteriores a esta
+ * validación). Es inmutable; los cambios devuelven una agenda nueva.
+ *
+ * Los instantes son segundos con la misma base que el índice de viajes
+ * (día epoch * 86400 + segundo del día).
+ */
+final class AgendaEmbarcacion {
+
+    private static final long SEGUNDOS_DIA = 86_400;
+
+    static final AgendaEmbarcacion VACIA = new AgendaEmbarcacion(List.of());
+
+    /**
+     * Un viaje ocupando la embarcación
+     */
+    record Ocupacion(int idViaje, long salida, long llegada) {
+
+        /**
+         * Sin duración conocida, la embarcación se considera ocupada hasta el fin del día
+         */
+        static Ocupacion de(int idViaje, LocalDate fecha, LocalTime hora, Integer duracionMinutos) {
+            long salida = fecha.toEpochDay() * SEGUNDOS_DIA + hora.toSecondOfDay();
+            long llegada = duracionMinutos != null
+                    ? salida + duracionMinutos * 60L
+                    : (fecha.toEpochDay() + 1) * SEGUNDOS_DIA;
+            return new Ocupacion(idViaje, salida, llegada);
+        }
+
+        boolean seCruzaCon(long desde, long hasta) {
+            return salida < hasta && desde < llegada;
+        }
+    }
+
+    private final List<Ocupacion> ocupaciones;
+    private final long[] salidas;
+    private final long[] maxLlegada;
+
+    private AgendaEmbarcacion(List<Ocupacion> ordenadas) {
+        this.ocupaciones = ordenadas;
+        int n = ordenadas.size();
+        this.salidas = new long[n];
+        this.maxLlegada = new long[n];
+
+        long maximo = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            salidas[i] = ordenadas.get(i).salida();
+            maximo = Math.max(maximo, ordenadas.get(i).llegada());
+            maxLlegada[i] = maximo;
+        }
+    }
+
+    static AgendaEmbarcacion de(Collection<Ocupacion> ocupaciones) {
+        if (ocupaciones.isEmpty()) {
+            return VACIA;
+        }
+        List<Ocupacion> ordenadas = new ArrayList<>(ocupaciones);
+        ordenadas.sort(Comparator.comparingLong(Ocupacion::salida).thenComparingInt(Ocupacion::idViaje));
+        return new AgendaEmbarcacion(List.copyOf(ordenadas));
+    }
+
+    /**
+     * Agenda con el viaje agregado (o reemplazado si ya estaba)
+     */
+    AgendaEmbarcacion con(Ocupacion ocupacion) {
+        List<Ocupacion> nuevas = new ArrayList<>(ocupaciones.size() + 1);
+        for (Ocupacion o : ocupaciones) {
+            if (o.idViaje() != ocupacion.idViaje()) {
+                nuevas.add(o);
+            }
+        }
+        nuevas.add(ocupacion);
+        return de(nuevas);
+    }
+
+    /**
+     * Agenda sin el viaje indicado
+     */
+    AgendaEmbarcacion sin(int idViaje) {
+        return de(ocupaciones.stream().filter(o -> o.idViaje() != idViaje).toList());
+    }
+
+    int tamano() {
+        return ocupaciones.size();
+    }
+
+    /**
+     * Un viaje que se cruza con [desde, hasta), ignorando el viaje excluido (el que se modifica)
+     */
+    Optional<Ocupacion> buscarCruce(long desde, long hasta, Integer idViajeExcluido) {
+        // Solo pueden cruzarse los que salen antes de "hasta"; de ellos, los que llegan después de "desde"
+        for (int i = primeraSalidaDesde(hasta) - 1; i >= 0 && maxLlegada[i] > desde; i--) {
+            Ocupacion ocupacion = ocupaciones.get(i);
+            if (ocupacion.seCruzaCon(desde, hasta)
+                    && (idViajeExcluido == null || ocupacion.idViaje() != idViajeExcluido)) {
+                return Optional.of(ocupacion);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Todos los pares de viajes que se cruzan y siguen cruzados después del instante indicado
+     * Barrido por salida: cada viaje se compara solo con los anteriores que siguen en curso
+     */
+    List<Ocupacion[]> cruces(long desde) {
+        List<Ocupacion[]> cruces = new ArrayList<>();
+        for (int i = 1; i < ocupaciones.size(); i++) {
+            Ocupacion actual = ocupaciones.get(i);
+            for (int j = i - 1; j >= 0 && maxLlegada[j] > actual.salida(); j--) {
+                Ocupacion anterior = ocupaciones.get(j);
+                if (anterior.llegada() > actual.salida()
+                        && Math.min(anterior.llegada(), actual.llegada()) > desde) {
+                    cruces.add(new Ocupacion[]{anterior, actual});
+                }
+            }
+        }
+        return cruces;
+    }
+
+    private int primeraSalidaDesde(long instante) {
+        int bajo = 0;
+        int alto = salidas.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (salidas[medio] < instante) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+}
@@ -0,0 +1,253 @@
+package com.zoealexa.service.transporte;
+
+import com.zoealexa.dto.transporte.ConflictoEmbarcacionDTO;
+import com.zoealexa.entity.enums.EstadoViaje;
+import com.zoealexa.entity.transporte.Embarcacion;
+import com.zoealexa.exception.ConflictException;
+import com.zoealexa.repository.transporte.EmbarcacionRepository;
+import com.zoealexa.repository.transporte.ViajeRepository;
+import com.zoealexa.repository.transporte.ViajeRepository.OcupacionEmbarcacion;
+import com.zoealexa.service.transporte.AgendaEmbarcacion.Ocupacion;
+import com.zoealexa.util.TransaccionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Agenda en memoria de la flota: viajes PROGRAMADO y EN_CURSO por embarcación
+ *
+ * Cada viaje ocupa su embarcación desde la salida hasta la llegada (salida +
+ * duración de la ruta). Al crear o mover un viaje se verifica en O(log n) que
+ * la embarcación no tenga otro viaje en ese horario, y el reporte de conflictos
+ * recorre la flota sin consultar los viajes. La agenda puede estar atrasada
+ * respecto de otra transacción u otro nodo: la verificación final se repite en
+ * la base de datos con la embarcación bloqueada.
+ *
+ * - Crear, modificar o cambiar de estado un viaje actualiza su embarcación tras el commit
+ * - Cambiar la duración de una ruta o generar una temporada recarga la agenda
+ * - Un job periódico la recarga para incluir cambios hechos por otros nodos
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class AgendaEmbarcacionesService {
+
+    private static final long SEGUNDOS_DIA = 86_400;
+
+    // Viajes que salieron días antes pueden seguir en curso
+    static final int DIAS_PREVIOS_OCUPACION = 7;
+
+    private final ViajeRepository viajeRepository;
+    private final EmbarcacionRepository embarcacionRepository;
+
+    private volatile Agendas agendas;
+
+    private record Agendas(Map<Integer, AgendaEmbarcacion> porEmbarcacion, Map<Integer, Integer> embarcacionPorViaje) {
+    }
+
+    // ===== VERIFICACIÓN Y REPORTE =====
+
+    /**
+     * Verifica que la embarcación no tenga otro viaje que se cruce con el horario indicado
+     *
+     * Primero se descarta en memoria el caso común; luego, dentro de la transacción
+     * que guarda el viaje, se bloquea la embarcación y se repite la verificación
+     * con sus viajes en la base de datos. Dos asignaciones concurrentes a la misma
+     * embarcación quedan serializadas y la segunda ve el viaje de la primera.
+     *
+     * @param idViajeExcluido Viaje que se está modificando (null al crear)
+     * @throws ConflictException si la embarcación ya está ocupada
+     */
+    public void verificarDisponible(Integer idEmbarcacion, LocalDate fecha, LocalTime hora,
+                                    Integer duracionMinutos, Integer idViajeExcluido) {
+        Ocupacion nueva = Ocupacion.de(0, fecha, hora, duracionMinutos);
+        rechazarCruce(obtenerAgendas().porEmbarcacion()
+                .getOrDefault(idEmbarcacion, AgendaEmbarcacion.VACIA)
+                .buscarCruce(nueva.salida(), nueva.llegada(), idViajeExcluido));
+
+        embarcacionRepository.bloquear(List.of(idEmbarcacion));
+        LocalDate llegada = LocalDate.ofEpochDay(Math.floorDiv(nueva.llegada(), SEGUNDOS_DIA));
+        List<OcupacionEmbarcacion> filas = viajeRepository.findOcupacionEmbarcaciones(
+                List.of(idEmbarcacion), fecha.minusDays(DIAS_PREVIOS_OCUPACION), llegada);
+        rechazarCruce(agrupar(filas).getOrDefault(idEmbarcacion, AgendaEmbarcacion.VACIA)
+                .buscarCruce(nueva.salida(), nueva.llegada(), idViajeExcluido));
+    }
+
+    /**
+     * Viajes de una misma embarcación que se cruzan, vigentes desde la fecha indicada
+     * Ordenados por embarcación y salida
+     */
+    public List<ConflictoEmbarcacionDTO> reporteConflictos(LocalDate desde) {
+        long instante = desde.toEpochDay() * SEGUNDOS_DIA;
+        Map<Integer, AgendaEmbarcacion> porEmbarcacion = obtenerAgendas().porEmbarcacion();
+
+        Map<Integer, List<Ocupacion[]>> cruces = new HashMap<>();
+        porEmbarcacion.forEach((idEmbarcacion, agenda) -> {
+            List<Ocupacion[]> encontrados = agenda.cruces(instante);
+            if (!encontrados.isEmpty()) {
+                cruces.put(idEmbarcacion, encontrados);
+            }
+        });
+
+        if (cruces.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, String> nombres = embarcacionRepository.findAllById(cruces.keySet()).stream()
+                .collect(Collectors.toMap(Embarcacion::getIdEmbarcacion, Embarcacion::getNombreEmbarcacion));
+
+        List<ConflictoEmbarcacionDTO> reporte = new ArrayList<>();
+        cruces.forEach((idEmbarcacion, pares) -> {
+            for (Ocupacion[] par : pares) {
+                reporte.add(ConflictoEmbarcacionDTO.builder()
+                        .idEmbarcacion(idEmbarcacion)
+                        .nombreEmbarcacion(nombres.get(idEmbarcacion))
+                        .idViaje(par[0].idViaje())
+                        .salidaViaje(fechaHora(par[0].salida()))
+                        .llegadaViaje(fechaHora(par[0].llegada()))
+                        .idViajeEnConflicto(par[1].idViaje())
+                        .salidaViajeEnConflicto(fechaHora(par[1].salida()))
+                        .llegadaViajeEnConflicto(fechaHora(par[1].llegada()))
+                        .build());
+            }
+        });
+
+        reporte.sort(Comparator.comparing(ConflictoEmbarcacionDTO::getIdEmbarcacion)
+                .thenComparing(ConflictoEmbarcacionDTO::getSalidaViajeEnConflicto));
+        return reporte;
+    }
+
+    // ===== ACTUALIZACIÓN =====
+
+    /**
+     * Programa la actualización de un viaje para cuando la transacción actual haga commit
+     */
+    public void invalidarViaje(Integer idViaje) {
+        TransaccionUtil.despuesDelCommit(() -> refrescarViaje(idViaje));
+    }
+
+    /**
+     * Programa la recarga completa para cuando la transacción actual haga commit
+     * (cambio de duración de una ruta, generación masiva de viajes)
+     */
+    public void invalidarTodo() {
+        TransaccionUtil.despuesDelCommit(this::recargar);
+    }
+
+    /**
+     * Lee el viaje de la base de datos y lo mueve, agrega o retira de la agenda de su embarcación
+     */
+    public synchronized void refrescarViaje(Integer idViaje) {
+        Agendas actual = obtenerAgendas();
+        Map<Integer, AgendaEmbarcacion> porEmbarcacion = new HashMap<>(actual.porEmbarcacion());
+        Map<Integer, Integer> embarcacionPorViaje = new HashMap<>(actual.embarcacionPorViaje());
+
+        Integer anterior = embarcacionPorViaje.remove(idViaje);
+        if (anterior != null) {
+            porEmbarcacion.computeIfPresent(anterior, (id, agenda) -> agenda.sin(idViaje));
+        }
+
+        viajeRepository.findOcupacionViaje(idViaje)
+                .filter(AgendaEmbarcacionesService::ocupaEmbarcacion)
+                .ifPresent(fila -> {
+                    Integer idEmbarcacion = fila.getIdEmbarcacion();
+                    porEmbarcacion.put(idEmbarcacion, porEmbarcacion
+                            .getOrDefault(idEmbarcacion, AgendaEmbarcacion.VACIA)
+                            .con(toOcupacion(fila)));
+                    embarcacionPorViaje.put(idViaje, idEmbarcacion);
+                });
+
+        agendas = new Agendas(Map.copyOf(porEmbarcacion), Map.copyOf(embarcacionPorViaje));
+    }
+
+    // ===== CARGA =====
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        recargar();
+    }
+
+    @Scheduled(fixedDelayString = "${app.viajes.agenda.recarga-ms:60000}",
+            initialDelayString = "${app.viajes.agenda.recarga-ms:60000}")
+    public void recargaProgramada() {
+        recargar();
+    }
+
+    /**
+     * Reconstruye la agenda de toda la flota desde la base de datos
+     */
+    public synchronized void recargar() {
+        Map<Integer, List<Ocupacion>> agrupadas = new HashMap<>();
+        Map<Integer, Integer> embarcacionPorViaje = new HashMap<>();
+
+        for (OcupacionEmbarcacion fila : viajeRepository.findOcupacionFlota()) {
+            agrupadas.computeIfAbsent(fila.getIdEmbarcacion(), e -> new ArrayList<>()).add(toOcupacion(fila));
+            embarcacionPorViaje.put(fila.getIdViaje(), fila.getIdEmbarcacion());
+        }
+
+        Map<Integer, AgendaEmbarcacion> porEmbarcacion = agrupadas.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> AgendaEmbarcacion.de(e.getValue())));
+
+        agendas = new Agendas(Map.copyOf(porEmbarcacion), Map.copyOf(embarcacionPorViaje));
+        log.debug("Agenda de embarcaciones cargada: {} viajes en {} embarcaciones",
+                embarcacionPorViaje.size(), porEmbarcacion.size());
+    }
+
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+
+    private Agendas obtenerAgendas() {
+        Agendas actual = agendas;
+        if (actual == null) {
+            recargar();
+            actual = agendas;
+        }
+        return actual;
+    }
+
+    /**
+     * Agenda de cada embarcación a partir de filas ya consultadas (generación masiva)
+     */
+    static Map<Integer, AgendaEmbarcacion> agrupar(List<OcupacionEmbarcacion> filas) {
+        return filas.stream().collect(Collectors.groupingBy(OcupacionEmbarcacion::getIdEmbarcacion,
+                Collectors.collectingAndThen(
+                        Collectors.mapping(AgendaEmbarcacionesService::toOcupacion, Collectors.toList()),
+                        AgendaEmbarcacion::de)));
+    }
+
+    static Ocupacion toOcupacion(OcupacionEmbarcacion fila) {
+        return Ocupacion.de(fila.getIdViaje(), fila.getFechaViaje(), fila.getHoraEmbarque(),
+                fila.getDuracionMinutos());
+    }
+
+    private static boolean ocupaEmbarcacion(OcupacionEmbarcacion fila) {
+        return fila.getEstado() == EstadoViaje.PROGRAMADO || fila.getEstado() == EstadoViaje.EN_CURSO;
+    }
+
+    private static void rechazarCruce(Optional<Ocupacion> cruce) {
+        if (cruce.isPresent()) {
+            Ocupacion ocupada = cruce.get();
+            throw new ConflictException(String.format(
+                    "La embarcación ya está asignada al viaje %d entre %s y %s",
+                    ocupada.idViaje(), fechaHora(ocupada.salida()), fechaHora(ocupada.llegada())));
+        }
+    }
+
+    private static LocalDateTime fechaHora(long segundos) {
+        return LocalDateTime.of(LocalDate.ofEpochDay(Math.floorDiv(segundos, SEGUNDOS_DIA)),
+                LocalTime.ofSecondOfDay(Math.floorMod(segundos, SEGUNDOS_DIA)));
+    }
+}
@@ -0,0 +1,83 @@
+package com.zoealexa.service.transporte;
+
+import com.zoealexa.dto.transporte.ViajeBusquedaDTO;
+import com.zoealexa.service.transporte.VersionCatalogoService.Catalogo;
+import com.zoealexa.util.CoalescedorSolicitudes;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Capa de agrupación y caché corta delante de las búsquedas públicas de viajes
+ *
+ * En picos (feriados) llegan cientos de búsquedas idénticas por segundo: la
+ * primera calcula el resultado y las demás lo comparten. La clave incluye la
+ * versión del catálogo de viajes, por lo que cualquier cambio de cupos o de
+ * viajes deja de usar los resultados anteriores sin esperar a que venzan.
+ *
+ * Métricas: viajes.busqueda.solicitudes{resultado=cache|coalescida|calculada}
+ * y viajes.busqueda.esperas.vencidas (coalescidas que calcularon por su cuenta)
+ */
+@Service
+public class BusquedaViajesCacheService {
+
+    private static final int MAX_ENTRADAS = 10_000;
+
+    private final VersionCatalogoService versionCatalogoService;
+    private final CoalescedorSolicitudes<ClaveBusqueda, List<ViajeBusquedaDTO>> coalescedor;
+
+    private record ClaveBusqueda(String tipo, Integer idRuta, LocalDate inicio, LocalDate fin, String version) {
+    }
+
+    public BusquedaViajesCacheService(VersionCatalogoService versionCatalogoService,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${app.viajes.busqueda.cache-ttl-ms:2000}") long ttlMs,
+                                      @Value("${app.viajes.busqueda.espera-max-ms:3000}") long esperaMaxMs) {
+        this.versionCatalogoService = versionCatalogoService;
+        this.coalescedor = new CoalescedorSolicitudes<>(
+                Duration.ofMillis(ttlMs), Duration.ofMillis(esperaMaxMs), MAX_ENTRADAS);
+
+        registrar(meterRegistry, "cache", CoalescedorSolicitudes::getAciertos);
+        registrar(meterRegistry, "coalescida", CoalescedorSolicitudes::getCoalescidas);
+        registrar(meterRegistry, "calculada", CoalescedorSolicitudes::getCalculos);
+
+        FunctionCounter.builder("viajes.busqueda.esperas.vencidas", coalescedor,
+                        CoalescedorSolicitudes::getEsperasVencidas)
+                .description("Búsquedas coalescidas que dejaron de esperar y calcularon por su cuenta")
+                .register(meterRegistry);
+    }
+
+    public List<ViajeBusquedaDTO> buscarDisponibles(Integer idRuta, LocalDate inicio, LocalDate fin,
+                                                    Supplier<List<ViajeBusquedaDTO>> busqueda) {
+        return obtener(new ClaveBusqueda("disponibles", idRuta, inicio, fin, versionActual()), busqueda);
+    }
+
+    public List<ViajeBusquedaDTO> buscarProximos(LocalDate inicio, LocalDate fin,
+                                                 Supplier<List<ViajeBusquedaDTO>> busqueda) {
+        return obtener(new ClaveBusqueda("proximos", null, inicio, fin, versionActual()), busqueda);
+    }
+
+    private List<ViajeBusquedaDTO> obtener(ClaveBusqueda clave, Supplier<List<ViajeBusquedaDTO>> busqueda) {
+        // El resultado se comparte entre solicitudes: se guarda como lista inmutable
+        return coalescedor.obtener(clave, () -> List.copyOf(busqueda.get()));
+    }
+
+    private String versionActual() {
+        return versionCatalogoService.version(Catalogo.VIAJES).etag();
+    }
+
+    private void registrar(MeterRegistry meterRegistry, String resultado,
+                           ToDoubleFunction<CoalescedorSolicitudes<?, ?>> valor) {
+        FunctionCounter.builder("viajes.busqueda.solicitudes", coalescedor, valor)
+                .description("Búsquedas públicas de viajes según cómo se resolvieron")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+}
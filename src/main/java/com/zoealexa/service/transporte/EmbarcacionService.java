@@ -12,6 +12,7 @@ import com.zoealexa.exception.NotFoundException;
 import com.zoealexa.mapper.transporte.EmbarcacionMapper;
 import com.zoealexa.mapper.transporte.RutaMapper;
 import com.zoealexa.repository.transporte.EmbarcacionRepository;
+import com.zoealexa.service.transporte.VersionCatalogoService.Catalogo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -27,6 +28,7 @@ import java.util.stream.Collectors;
 public class EmbarcacionService {
 
     private final EmbarcacionRepository embarcacionRepository;
+    private final VersionCatalogoService versionCatalogoService;
 
     /**
      * Crear nueva embarcación
@@ -47,6 +49,7 @@ public class EmbarcacionService {
         }
 
         embarcacion = embarcacionRepository.save(embarcacion);
+        versionCatalogoService.invalidar(Catalogo.EMBARCACIONES);
 
         log.info("Embarcación creada exitosamente con ID: {}", embarcacion.getIdEmbarcacion());
 
@@ -91,6 +94,7 @@ public class EmbarcacionService {
         }
 
         embarcacion = embarcacionRepository.save(embarcacion);
+        versionCatalogoService.invalidar(Catalogo.EMBARCACIONES);
 
         log.info("Embarcación actualizada: {}", embarcacion.getIdEmbarcacion());
 
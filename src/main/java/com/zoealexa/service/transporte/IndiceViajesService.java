@@ -0,0 +1,457 @@
+package com.zoealexa.service.transporte;
+
+import com.zoealexa.dto.transporte.ItinerarioDTO;
+import com.zoealexa.dto.transporte.ViajeBusquedaDTO;
+import com.zoealexa.entity.enums.EstadoRuta;
+import com.zoealexa.entity.enums.EstadoViaje;
+import com.zoealexa.repository.transporte.ViajeRepository;
+import com.zoealexa.repository.transporte.ViajeRepository.FilaIndiceViaje;
+import com.zoealexa.service.transporte.VersionCatalogoService.Catalogo;
+import com.zoealexa.util.TransaccionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Índice en memoria de viajes PROGRAMADO para la búsqueda pública
+ *
+ * Por cada ruta guarda arreglos paralelos ordenados por fecha y hora de salida
+ * (IDs, salidas, embarcación y cupos). Las búsquedas se resuelven con una
+ * búsqueda binaria sobre las salidas, sin acceder a la base de datos.
+ *
+ * - Reservas y cancelaciones suman la diferencia de cupos del UPDATE tras el
+ *   commit (InventarioCuposService), en el arreglo y sin lock ni consulta
+ * - Crear o modificar un viaje (ViajeService) reconstruye el índice; modificar
+ *   una ruta (RutaService) recarga solo los viajes de esa ruta
+ * - Un job periódico lo reconcilia con la base de datos: corrige los cambios
+ *   hechos por otros nodos o fuera de la aplicación (nombres de rutas, puertos
+ *   y embarcaciones) y registra las diferencias encontradas
+ *
+ * Junto al índice se construye la red de conexiones entre puertos (rutas
+ * ACTIVA con duración) para buscar itinerarios con escala.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class IndiceViajesService {
+
+    private static final long SEGUNDOS_DIA = 86_400;
+
+    private static final Comparator<Fila> ORDEN_SALIDA = Comparator
+            .comparingLong(Fila::salida)
+            .thenComparingInt(Fila::idViaje);
+
+    private final ViajeRepository viajeRepository;
+    private final VersionCatalogoService versionCatalogoService;
+
+    private volatile Indice indice;
+
+    /**
+     * Viaje indexado (copia sin estado JPA)
+     * salida = día epoch * 86400 + segundo del día de la hora de embarque
+     */
+    private record Fila(int idViaje, int idRuta, String nombreRuta, int idPuertoOrigen, int idPuertoDestino,
+                        String ciudadOrigen, String ciudadDestino, Integer duracionMinutos, boolean rutaActiva,
+                        String nombreEmbarcacion, long salida, int cupos) {
+    }
+
+    /**
+     * Viajes de una ruta en arreglos paralelos ordenados por salida
+     * Los cupos se actualizan en el lugar; el resto es inmutable
+     */
+    private record IndiceRuta(int idRuta, String nombreRuta, int idPuertoOrigen, int idPuertoDestino,
+                              String ciudadOrigen, String ciudadDestino, Integer duracionMinutos, boolean activa,
+                              int[] idsViaje, long[] salidas, String[] embarcaciones, AtomicIntegerArray cupos) {
+    }
+
+    private record Ubicacion(IndiceRuta ruta, int posicion) {
+    }
+
+    private record Indice(Map<Integer, IndiceRuta> porRuta, Map<Integer, Ubicacion> porViaje,
+                          RedConexiones<Ubicacion> red) {
+    }
+
+    // ===== BÚSQUEDAS =====
+
+    /**
+     * Viajes de una ruta con cupos disponibles entre dos fechas (incluidas),
+     * por fecha y hora de salida
+     */
+    public List<ViajeBusquedaDTO> buscarDisponibles(Integer idRuta, LocalDate inicio, LocalDate fin) {
+        IndiceRuta ruta = obtenerIndice().porRuta().get(idRuta);
+        if (ruta == null) {
+            return List.of();
+        }
+
+        List<ViajeBusquedaDTO> resultado = new ArrayList<>();
+        long hasta = salida(fin.plusDays(1), LocalTime.MIDNIGHT);
+
+        for (int i = primeraPosicion(ruta.salidas(), salida(inicio, LocalTime.MIDNIGHT));
+             i < ruta.salidas().length && ruta.salidas()[i] < hasta; i++) {
+            int cupos = ruta.cupos().get(i);
+            if (cupos > 0) {
+                resultado.add(toDTO(ruta, i, cupos));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Viajes de todas las rutas entre dos fechas (incluidas), por fecha y hora de salida
+     */
+    public List<ViajeBusquedaDTO> buscarProximos(LocalDate inicio, LocalDate fin) {
+        long desde = salida(inicio, LocalTime.MIDNIGHT);
+        long hasta = salida(fin.plusDays(1), LocalTime.MIDNIGHT);
+
+        List<Ubicacion> encontrados = new ArrayList<>();
+        for (IndiceRuta ruta : obtenerIndice().porRuta().values()) {
+            for (int i = primeraPosicion(ruta.salidas(), desde);
+                 i < ruta.salidas().length && ruta.salidas()[i] < hasta; i++) {
+                encontrados.add(new Ubicacion(ruta, i));
+            }
+        }
+
+        encontrados.sort(Comparator
+                .comparingLong((Ubicacion u) -> u.ruta().salidas()[u.posicion()])
+                .thenComparingInt(u -> u.ruta().idsViaje()[u.posicion()]));
+
+        return encontrados.stream()
+                .map(u -> toDTO(u.ruta(), u.posicion(), u.ruta().cupos().get(u.posicion())))
+                .toList();
+    }
+
+    /**
+     * Itinerarios entre dos puertos, directos o con escala, que salen entre dos fechas (incluidas)
+     *
+     * @param pasajeros Cupos necesarios en cada tramo
+     * @param escalaMinimaMinutos Tiempo mínimo entre la llegada a un puerto y la siguiente salida
+     * @param maxResultados Cantidad máxima de itinerarios
+     */
+    public List<ItinerarioDTO> buscarItinerarios(Integer idPuertoOrigen, Integer idPuertoDestino,
+                                                 LocalDate inicio, LocalDate fin, int pasajeros,
+                                                 int escalaMinimaMinutos, int maxResultados) {
+        long desde = salida(inicio, LocalTime.MIDNIGHT);
+        long hasta = salida(fin.plusDays(1), LocalTime.MIDNIGHT) - 1;
+
+        return obtenerIndice().red()
+                .buscar(idPuertoOrigen, idPuertoDestino, desde, hasta, pasajeros,
+                        escalaMinimaMinutos * 60L, maxResultados)
+                .stream()
+                .map(IndiceViajesService::toItinerario)
+                .toList();
+    }
+
+    // ===== ACTUALIZACIÓN =====
+
+    /**
+     * Programa el ajuste de cupos de un viaje para cuando la transacción actual haga commit
+     * Llamado al reservar (diferencia negativa) o liberar (positiva) cupos
+     */
+    public void ajustarCupos(Integer idViaje, int diferencia) {
+        TransaccionUtil.despuesDelCommit(() -> aplicarDiferenciaCupos(idViaje, diferencia));
+    }
+
+    /**
+     * Suma la diferencia ya confirmada a los cupos del viaje, sin leer la base de datos
+     * ni tomar el lock del índice. Un viaje que no está en el índice se ignora, y un
+     * ajuste que coincide con una reconstrucción lo corrige la reconciliación.
+     */
+    public void aplicarDiferenciaCupos(Integer idViaje, int diferencia) {
+        Ubicacion ubicacion = obtenerIndice().porViaje().get(idViaje);
+        if (ubicacion == null) {
+            return;
+        }
+        ubicacion.ruta().cupos().addAndGet(ubicacion.posicion(), diferencia);
+        versionCatalogoService.incrementar(Catalogo.VIAJES);
+    }
+
+    /**
+     * Programa la actualización de un viaje para cuando la transacción actual haga commit
+     * Llamado al crear o modificar viajes
+     */
+    public void invalidarViaje(Integer idViaje) {
+        TransaccionUtil.despuesDelCommit(() -> refrescarViaje(idViaje));
+    }
+
+    /**
+     * Lee el viaje de la base de datos y actualiza su entrada
+     * Si solo cambiaron los cupos se actualiza el arreglo; si cambió la ruta,
+     * la salida, la embarcación o el estado se reconstruye el índice.
+     * En todos los casos cambia la versión del catálogo de viajes (ETag).
+     */
+    public synchronized void refrescarViaje(Integer idViaje) {
+        aplicarCambio(idViaje);
+        versionCatalogoService.incrementar(Catalogo.VIAJES);
+    }
+
+    /**
+     * Programa la recarga de los viajes de una ruta para cuando la transacción actual haga commit
+     * Llamado al modificar una ruta (puertos, duración o estado)
+     */
+    public void invalidarRuta(Integer idRuta) {
+        TransaccionUtil.despuesDelCommit(() -> refrescarRuta(idRuta));
+    }
+
+    /**
+     * Reemplaza los viajes de una ruta por los de la base de datos y reconstruye el índice
+     */
+    public synchronized void refrescarRuta(Integer idRuta) {
+        Indice actual = obtenerIndice();
+
+        List<Fila> filas = new ArrayList<>(actual.porViaje().size());
+        for (Ubicacion u : actual.porViaje().values()) {
+            if (u.ruta().idRuta() != idRuta) {
+                filas.add(toFila(u));
+            }
+        }
+        viajeRepository.findFilasIndiceByRuta(idRuta).stream()
+                .map(this::toFila)
+                .forEach(filas::add);
+
+        indice = construir(filas);
+        versionCatalogoService.incrementar(Catalogo.VIAJES);
+        log.debug("Índice de viajes: ruta {} recargada", idRuta);
+    }
+
+    // ===== CARGA Y RECONCILIACIÓN =====
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        reconciliar();
+    }
+
+    @Scheduled(fixedDelayString = "${app.viajes.indice.reconciliacion-ms:60000}",
+            initialDelayString = "${app.viajes.indice.reconciliacion-ms:60000}")
+    public void reconciliacionProgramada() {
+        reconciliar();
+    }
+
+    /**
+     * Reconstruye el índice desde la base de datos y lo compara con el actual
+     *
+     * @return Cantidad de viajes que diferían (faltantes, sobrantes o con datos distintos)
+     */
+    public synchronized int reconciliar() {
+        Indice anterior = indice;
+
+        List<Fila> filas = viajeRepository.findFilasIndice().stream()
+                .map(this::toFila)
+                .toList();
+        Indice nuevo = construir(filas);
+        indice = nuevo;
+
+        if (anterior == null) {
+            log.info("Índice de viajes cargado: {} viajes programados en {} rutas ({} en la red de itinerarios)",
+                    filas.size(), nuevo.porRuta().size(), nuevo.red().tamano());
+            return 0;
+        }
+
+        int diferencias = contarDiferencias(anterior, nuevo);
+        if (diferencias > 0) {
+            versionCatalogoService.incrementar(Catalogo.VIAJES);
+            log.warn("Índice de viajes reconciliado: {} viajes diferían de la base de datos", diferencias);
+        } else {
+            log.debug("Índice de viajes consistente: {} viajes", filas.size());
+        }
+        return diferencias;
+    }
+
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+
+    private void aplicarCambio(Integer idViaje) {
+        Indice actual = obtenerIndice();
+        Fila nueva = viajeRepository.findFilaIndice(idViaje)
+                .filter(f -> f.getEstado() == EstadoViaje.PROGRAMADO)
+                .map(this::toFila)
+                .orElse(null);
+
+        Ubicacion ubicacion = actual.porViaje().get(idViaje);
+        Fila anterior = ubicacion != null ? toFila(ubicacion) : null;
+
+        if (nueva != null && anterior != null && nueva.equals(conCupos(anterior, nueva.cupos()))) {
+            ubicacion.ruta().cupos().set(ubicacion.posicion(), nueva.cupos());
+            return;
+        }
+
+        if (nueva == null && anterior == null) {
+            return;
+        }
+
+        List<Fila> filas = new ArrayList<>(actual.porViaje().size() + 1);
+        for (Ubicacion u : actual.porViaje().values()) {
+            if (u.ruta().idsViaje()[u.posicion()] != idViaje) {
+                filas.add(toFila(u));
+            }
+        }
+        if (nueva != null) {
+            filas.add(nueva);
+        }
+
+        indice = construir(filas);
+        log.debug("Índice de viajes: viaje {} {}", idViaje, nueva != null ? "actualizado" : "retirado");
+    }
+
+    private Indice obtenerIndice() {
+        Indice actual = indice;
+        if (actual == null) {
+            reconciliar();
+            actual = indice;
+        }
+        return actual;
+    }
+
+    private Indice construir(List<Fila> filas) {
+        Map<Integer, List<Fila>> agrupadas = new LinkedHashMap<>();
+        for (Fila fila : filas) {
+            agrupadas.computeIfAbsent(fila.idRuta(), r -> new ArrayList<>()).add(fila);
+        }
+
+        Map<Integer, IndiceRuta> porRuta = new HashMap<>();
+        Map<Integer, Ubicacion> porViaje = new HashMap<>();
+        List<RedConexiones.Conexion<Ubicacion>> conexiones = new ArrayList<>();
+
+        agrupadas.forEach((idRuta, lista) -> {
+            lista.sort(ORDEN_SALIDA);
+            int n = lista.size();
+            int[] ids = new int[n];
+            long[] salidas = new long[n];
+            String[] embarcaciones = new String[n];
+            int[] cupos = new int[n];
+
+            for (int i = 0; i < n; i++) {
+                Fila fila = lista.get(i);
+                ids[i] = fila.idViaje();
+                salidas[i] = fila.salida();
+                embarcaciones[i] = fila.nombreEmbarcacion();
+                cupos[i] = fila.cupos();
+            }
+
+            Fila primera = lista.get(0);
+            IndiceRuta ruta = new IndiceRuta(idRuta, primera.nombreRuta(), primera.idPuertoOrigen(),
+                    primera.idPuertoDestino(), primera.ciudadOrigen(), primera.ciudadDestino(),
+                    primera.duracionMinutos(), primera.rutaActiva(), ids, salidas, embarcaciones,
+                    new AtomicIntegerArray(cupos));
+
+            // Sin duración no se conoce la llegada: la ruta no participa en itinerarios
+            boolean enRed = ruta.activa() && ruta.duracionMinutos() != null;
+
+            porRuta.put(idRuta, ruta);
+            for (int i = 0; i < n; i++) {
+                Ubicacion ubicacion = new Ubicacion(ruta, i);
+                porViaje.put(ids[i], ubicacion);
+                if (enRed) {
+                    conexiones.add(new RedConexiones.Conexion<>(ruta.idPuertoOrigen(), ruta.idPuertoDestino(),
+                            salidas[i], salidas[i] + ruta.duracionMinutos() * 60L, ruta.cupos(), i, ubicacion));
+                }
+            }
+        });
+
+        return new Indice(Map.copyOf(porRuta), Map.copyOf(porViaje), new RedConexiones<>(conexiones));
+    }
+
+    private int contarDiferencias(Indice anterior, Indice nuevo) {
+        Set<Integer> ids = new HashSet<>(anterior.porViaje().keySet());
+        ids.addAll(nuevo.porViaje().keySet());
+
+        int diferencias = 0;
+        for (Integer id : ids) {
+            Ubicacion a = anterior.porViaje().get(id);
+            Ubicacion b = nuevo.porViaje().get(id);
+            if (a == null || b == null || !toFila(a).equals(toFila(b))) {
+                diferencias++;
+            }
+        }
+        return diferencias;
+    }
+
+    /**
+     * Primera posición cuya salida es mayor o igual a la indicada
+     */
+    private static int primeraPosicion(long[] salidas, long desde) {
+        int posicion = Arrays.binarySearch(salidas, desde);
+        if (posicion < 0) {
+            return -posicion - 1;
+        }
+        // Con salidas repetidas binarySearch puede caer en cualquiera de ellas
+        while (posicion > 0 && salidas[posicion - 1] == desde) {
+            posicion--;
+        }
+        return posicion;
+    }
+
+    private static long salida(LocalDate fecha, LocalTime hora) {
+        return fecha.toEpochDay() * SEGUNDOS_DIA + hora.toSecondOfDay();
+    }
+
+    private Fila toFila(FilaIndiceViaje fila) {
+        return new Fila(fila.getIdViaje(), fila.getIdRuta(), fila.getNombreRuta(), fila.getIdPuertoOrigen(),
+                fila.getIdPuertoDestino(), fila.getCiudadOrigen(), fila.getCiudadDestino(),
+                fila.getDuracionMinutos(), fila.getEstadoRuta() == EstadoRuta.ACTIVA, fila.getNombreEmbarcacion(),
+                salida(fila.getFechaViaje(), fila.getHoraEmbarque()), fila.getCuposDisponibles());
+    }
+
+    private Fila toFila(Ubicacion ubicacion) {
+        IndiceRuta ruta = ubicacion.ruta();
+        int i = ubicacion.posicion();
+        return new Fila(ruta.idsViaje()[i], ruta.idRuta(), ruta.nombreRuta(), ruta.idPuertoOrigen(),
+                ruta.idPuertoDestino(), ruta.ciudadOrigen(), ruta.ciudadDestino(), ruta.duracionMinutos(),
+                ruta.activa(), ruta.embarcaciones()[i], ruta.salidas()[i], ruta.cupos().get(i));
+    }
+
+    private static Fila conCupos(Fila fila, int cupos) {
+        return new Fila(fila.idViaje(), fila.idRuta(), fila.nombreRuta(), fila.idPuertoOrigen(),
+                fila.idPuertoDestino(), fila.ciudadOrigen(), fila.ciudadDestino(), fila.duracionMinutos(),
+                fila.rutaActiva(), fila.nombreEmbarcacion(), fila.salida(), cupos);
+    }
+
+    private static ViajeBusquedaDTO toDTO(IndiceRuta ruta, int i, int cupos) {
+        long salida = ruta.salidas()[i];
+        return ViajeBusquedaDTO.builder()
+                .idViaje(ruta.idsViaje()[i])
+                .nombreRuta(ruta.nombreRuta())
+                .nombreEmbarcacion(ruta.embarcaciones()[i])
+                .fechaViaje(LocalDate.ofEpochDay(Math.floorDiv(salida, SEGUNDOS_DIA)))
+                .horaEmbarque(LocalTime.ofSecondOfDay(Math.floorMod(salida, SEGUNDOS_DIA)))
+                .cuposDisponibles(cupos)
+                .ciudadOrigen(ruta.ciudadOrigen())
+                .ciudadDestino(ruta.ciudadDestino())
+                .build();
+    }
+
+    private static ItinerarioDTO toItinerario(List<RedConexiones.Conexion<Ubicacion>> tramos) {
+        RedConexiones.Conexion<Ubicacion> primero = tramos.get(0);
+        RedConexiones.Conexion<Ubicacion> ultimo = tramos.get(tramos.size() - 1);
+
+        return ItinerarioDTO.builder()
+                .fechaHoraSalida(fechaHora(primero.salida()))
+                .fechaHoraLlegada(fechaHora(ultimo.llegada()))
+                .duracionMinutos((ultimo.llegada() - primero.salida()) / 60)
+                .escalas(tramos.size() - 1)
+                .tramos(tramos.stream()
+                        .map(c -> toDTO(c.referencia().ruta(), c.referencia().posicion(), c.cupos().get(c.posicion())))
+                        .toList())
+                .build();
+    }
+
+    private static LocalDateTime fechaHora(long segundos) {
+        return LocalDateTime.of(LocalDate.ofEpochDay(Math.floorDiv(segundos, SEGUNDOS_DIA)),
+                LocalTime.ofSecondOfDay(Math.floorMod(segundos, SEGUNDOS_DIA)));
+    }
+}
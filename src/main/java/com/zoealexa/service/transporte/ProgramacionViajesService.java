@@ -0,0 +1,364 @@
+package com.zoealexa.service.transporte;
+
+import com.zoealexa.dto.transporte.ProgramacionViajesRequestDTO;
+import com.zoealexa.dto.transporte.ProgresoProgramacionDTO;
+import com.zoealexa.dto.transporte.ServicioProgramacionDTO;
+import com.zoealexa.entity.enums.EstadoEmbarcacion;
+import com.zoealexa.entity.enums.EstadoRuta;
+import com.zoealexa.entity.enums.EstadoViaje;
+import com.zoealexa.entity.transporte.Embarcacion;
+import com.zoealexa.entity.transporte.Ruta;
+import com.zoealexa.entity.transporte.Viaje;
+import com.zoealexa.exception.BadRequestException;
+import com.zoealexa.exception.ConflictException;
+import com.zoealexa.exception.NotFoundException;
+import com.zoealexa.repository.transporte.EmbarcacionRepository;
+import com.zoealexa.repository.transporte.RutaRepository;
+import com.zoealexa.repository.transporte.ViajeRepository;
+import com.zoealexa.repository.transporte.ViajeRepository.OcupacionEmbarcacion;
+import com.zoealexa.repository.transporte.ViajeRepository.SalidaRuta;
+import com.zoealexa.service.transporte.AgendaEmbarcacion.Ocupacion;
+import com.zoealexa.util.DiasOperacion;
+import com.zoealexa.util.TransaccionUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Generación masiva de viajes (temporada de salidas)
+ *
+ * Las rutas y embarcaciones se validan una vez al iniciar; los días de
+ * operación de cada ruta se convierten en una máscara de bits. La generación
+ * corre en segundo plano dentro de una sola transacción:
+ * - la ocupación de las embarcaciones en el periodo se carga con una consulta
+ *   y los cruces de horario se verifican en memoria (AgendaEmbarcacion para
+ *   los viajes existentes, intervalos ordenados para los nuevos)
+ * - los viajes se insertan en lotes JDBC (IDs de secuencia pooled) y el
+ *   contexto de persistencia se limpia después de cada lote
+ * - el avance se consulta por ID de trabajo; al terminar se recarga el índice
+ *   de viajes una sola vez
+ *
+ * Una salida que ya existe (misma ruta, fecha y hora, con cualquier embarcación)
+ * se omite, por lo que repetir una programación no duplica viajes.
+ */
+@Service
+@Slf4j
+public class ProgramacionViajesService {
+
+    private static final int MAX_DIAS = 366;
+
+    // Trabajos terminados que se conservan para consultar su resultado
+    private static final long RETENCION_HORAS = 24;
+
+    private final RutaRepository rutaRepository;
+    private final EmbarcacionRepository embarcacionRepository;
+    private final ViajeRepository viajeRepository;
+    private final IndiceViajesService indiceViajesService;
+    private final AgendaEmbarcacionesService agendaEmbarcacionesService;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+
+    private final Map<String, Trabajo> trabajos = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.viajes.programacion.tamano-lote:500}")
+    private int tamanoLote;
+
+    public ProgramacionViajesService(RutaRepository rutaRepository,
+                                     EmbarcacionRepository embarcacionRepository,
+                                     ViajeRepository viajeRepository,
+                                     IndiceViajesService indiceViajesService,
+                                     AgendaEmbarcacionesService agendaEmbarcacionesService,
+                                     PlatformTransactionManager transactionManager,
+                                     @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.rutaRepository = rutaRepository;
+        this.embarcacionRepository = embarcacionRepository;
+        this.viajeRepository = viajeRepository;
+        this.indiceViajesService = indiceViajesService;
+        this.agendaEmbarcacionesService = agendaEmbarcacionesService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * Servicio validado: días de operación ya convertidos a máscara
+     */
+    private record Servicio(int idRuta, int idEmbarcacion, LocalTime hora, int mascara,
+                            Integer duracionMinutos, int cupos) {
+    }
+
+    private record Salida(int idRuta, long salida) {
+    }
+
+    /**
+     * Estado de un trabajo en curso o terminado
+     */
+    private static final class Trabajo {
+        private final String id = UUID.randomUUID().toString();
+        private final int total;
+        private final LocalDateTime inicio = LocalDateTime.now();
+        private final AtomicInteger procesadas = new AtomicInteger();
+        private final AtomicInteger creados = new AtomicInteger();
+        private final AtomicInteger existentes = new AtomicInteger();
+        private final AtomicInteger conflictos = new AtomicInteger();
+        private volatile String estado = "EN_PROCESO";
+        private volatile String mensaje;
+        private volatile LocalDateTime fin;
+
+        private Trabajo(int total) {
+            this.total = total;
+        }
+    }
+
+    // ===== API =====
+
+    /**
+     * Valida la programación e inicia la generación en segundo plano
+     *
+     * @return Avance inicial (incluye el ID para consultar el progreso)
+     */
+    public ProgresoProgramacionDTO iniciar(ProgramacionViajesRequestDTO request) {
+        LocalDate inicio = request.getFechaInicio();
+        LocalDate fin = request.getFechaFin();
+
+        if (!inicio.isAfter(LocalDate.now())) {
+            throw new BadRequestException("La programación debe empezar después de hoy");
+        }
+        if (fin.isBefore(inicio)) {
+            throw new BadRequestException("La fecha de fin debe ser igual o posterior a la de inicio");
+        }
+        if (ChronoUnit.DAYS.between(inicio, fin) >= MAX_DIAS) {
+            throw new BadRequestException("La programación no puede superar " + MAX_DIAS + " días");
+        }
+
+        List<Servicio> servicios = validarServicios(request.getServicios());
+
+        int total = 0;
+        for (LocalDate fecha = inicio; !fecha.isAfter(fin); fecha = fecha.plusDays(1)) {
+            for (Servicio servicio : servicios) {
+                if (DiasOperacion.opera(servicio.mascara(), fecha.getDayOfWeek())) {
+                    total++;
+                }
+            }
+        }
+
+        purgarTerminados();
+        Trabajo trabajo = new Trabajo(total);
+        trabajos.put(trabajo.id, trabajo);
+
+        log.info("Programación {} iniciada: {} servicios, {} salidas del {} al {}",
+                trabajo.id, servicios.size(), total, inicio, fin);
+
+        taskExecutor.execute(() -> ejecutar(trabajo, servicios, inicio, fin));
+        return toDTO(trabajo);
+    }
+
+    /**
+     * Avance de un trabajo de programación
+     */
+    public ProgresoProgramacionDTO obtenerProgreso(String idTrabajo) {
+        Trabajo trabajo = trabajos.get(idTrabajo);
+        if (trabajo == null) {
+            throw new NotFoundException("Programación no encontrada con ID: " + idTrabajo);
+        }
+        return toDTO(trabajo);
+    }
+
+    // ===== GENERACIÓN =====
+
+    private void ejecutar(Trabajo trabajo, List<Servicio> servicios, LocalDate inicio, LocalDate fin) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> generar(trabajo, servicios, inicio, fin));
+            trabajo.estado = "COMPLETADO";
+            log.info("Programación {} completada: {} viajes creados, {} ya existían, {} con la embarcación ocupada",
+                    trabajo.id, trabajo.creados.get(), trabajo.existentes.get(), trabajo.conflictos.get());
+        } catch (RuntimeException e) {
+            // La transacción se revirtió: no quedó ningún viaje de este trabajo
+            trabajo.creados.set(0);
+            trabajo.mensaje = e.getMessage();
+            trabajo.estado = "FALLIDO";
+            log.error("Programación {} fallida: {}", trabajo.id, e.getMessage(), e);
+        } finally {
+            trabajo.fin = LocalDateTime.now();
+        }
+    }
+
+    private void generar(Trabajo trabajo, List<Servicio> servicios, LocalDate inicio, LocalDate fin) {
+        Set<Integer> idsEmbarcacion = servicios.stream()
+                .map(Servicio::idEmbarcacion)
+                .collect(Collectors.toSet());
+
+        // 1. Bloquear las embarcaciones y leer su ocupación actual (una consulta):
+        //    ningún viaje creado en paralelo puede cruzarse con los de este trabajo
+        embarcacionRepository.bloquear(idsEmbarcacion);
+        List<OcupacionEmbarcacion> filas = viajeRepository.findOcupacionEmbarcaciones(
+                idsEmbarcacion, inicio.minusDays(AgendaEmbarcacionesService.DIAS_PREVIOS_OCUPACION), fin);
+        Map<Integer, AgendaEmbarcacion> agendas = AgendaEmbarcacionesService.agrupar(filas);
+
+        // Salidas ya programadas de estas rutas, con cualquier embarcación (una consulta)
+        Set<Integer> idsRuta = servicios.stream()
+                .map(Servicio::idRuta)
+                .collect(Collectors.toSet());
+        Set<Salida> existentes = new HashSet<>();
+        for (SalidaRuta fila : viajeRepository.findSalidasRutas(idsRuta, inicio, fin)) {
+            existentes.add(new Salida(fila.getIdRuta(),
+                    Ocupacion.de(0, fila.getFechaViaje(), fila.getHoraEmbarque(), null).salida()));
+        }
+
+        // Viajes nuevos por embarcación (salida -> llegada); nunca se cruzan entre sí
+        Map<Integer, TreeMap<Long, Long>> nuevos = new HashMap<>();
+
+        // 2. Recorrer el periodo en orden de fechas
+        List<Viaje> lote = new ArrayList<>(tamanoLote);
+        for (LocalDate fecha = inicio; !fecha.isAfter(fin); fecha = fecha.plusDays(1)) {
+            for (Servicio servicio : servicios) {
+                if (!DiasOperacion.opera(servicio.mascara(), fecha.getDayOfWeek())) {
+                    continue;
+                }
+
+                Ocupacion ocupacion = Ocupacion.de(0, fecha, servicio.hora(), servicio.duracionMinutos());
+                long salida = ocupacion.salida();
+                long llegada = ocupacion.llegada();
+                TreeMap<Long, Long> agenda = nuevos.computeIfAbsent(servicio.idEmbarcacion(), e -> new TreeMap<>());
+
+                if (existentes.contains(new Salida(servicio.idRuta(), salida))) {
+                    trabajo.existentes.incrementAndGet();
+                } else if (seCruza(agenda, salida, llegada)
+                        || agendas.getOrDefault(servicio.idEmbarcacion(), AgendaEmbarcacion.VACIA)
+                        .buscarCruce(salida, llegada, null).isPresent()) {
+                    trabajo.conflictos.incrementAndGet();
+                } else {
+                    agenda.put(salida, llegada);
+                    lote.add(Viaje.builder()
+                            .ruta(rutaRepository.getReferenceById(servicio.idRuta()))
+                            .embarcacion(embarcacionRepository.getReferenceById(servicio.idEmbarcacion()))
+                            .fechaViaje(fecha)
+                            .horaEmbarque(servicio.hora())
+                            .cuposDisponibles(servicio.cupos())
+                            .estado(EstadoViaje.PROGRAMADO)
+                            .build());
+                }
+                trabajo.procesadas.incrementAndGet();
+
+                if (lote.size() >= tamanoLote) {
+                    guardarLote(lote, trabajo);
+                }
+            }
+        }
+        guardarLote(lote, trabajo);
+
+        // 3. Un solo refresco del índice y de la agenda en lugar de uno por viaje
+        TransaccionUtil.despuesDelCommit(indiceViajesService::reconciliar);
+        agendaEmbarcacionesService.invalidarTodo();
+    }
+
+    private void guardarLote(List<Viaje> lote, Trabajo trabajo) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        viajeRepository.saveAll(lote);
+        entityManager.flush();
+        entityManager.clear();
+        trabajo.creados.addAndGet(lote.size());
+        lote.clear();
+    }
+
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+
+    private List<Servicio> validarServicios(List<ServicioProgramacionDTO> solicitados) {
+        Map<Integer, Ruta> rutas = rutaRepository.findAllById(solicitados.stream()
+                        .map(ServicioProgramacionDTO::getIdRuta).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Ruta::getIdRuta, Function.identity()));
+        Map<Integer, Embarcacion> embarcaciones = embarcacionRepository.findAllById(solicitados.stream()
+                        .map(ServicioProgramacionDTO::getIdEmbarcacion).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Embarcacion::getIdEmbarcacion, Function.identity()));
+
+        List<Servicio> servicios = new ArrayList<>(solicitados.size());
+        for (ServicioProgramacionDTO dto : solicitados) {
+            Ruta ruta = rutas.get(dto.getIdRuta());
+            if (ruta == null) {
+                throw new NotFoundException("Ruta no encontrada con id: " + dto.getIdRuta());
+            }
+            if (ruta.getEstado() != EstadoRuta.ACTIVA) {
+                throw new ConflictException("No se puede programar viajes para la ruta inactiva " + ruta.getIdRuta());
+            }
+
+            Embarcacion embarcacion = embarcaciones.get(dto.getIdEmbarcacion());
+            if (embarcacion == null) {
+                throw new NotFoundException("Embarcación no encontrada con id: " + dto.getIdEmbarcacion());
+            }
+            if (embarcacion.getEstado() != EstadoEmbarcacion.EN_SERVICIO) {
+                throw new ConflictException("La embarcación " + embarcacion.getIdEmbarcacion() + " no está operativa");
+            }
+
+            int mascara = DiasOperacion.mascara(ruta.getDiasOperacion());
+            if (mascara == DiasOperacion.NINGUNO) {
+                throw new BadRequestException("La ruta " + ruta.getIdRuta() + " no tiene días de operación válidos");
+            }
+
+            servicios.add(new Servicio(ruta.getIdRuta(), embarcacion.getIdEmbarcacion(), dto.getHoraEmbarque(),
+                    mascara, ruta.getDuracionMinutos(), embarcacion.getCapacidad()));
+        }
+        return servicios;
+    }
+
+    /**
+     * Verifica si el intervalo [salida, llegada) se cruza con alguno de los nuevos
+     * (no se solapan entre sí: basta mirar el anterior y el siguiente)
+     */
+    private static boolean seCruza(TreeMap<Long, Long> agenda, long salida, long llegada) {
+        Map.Entry<Long, Long> anterior = agenda.floorEntry(salida);
+        if (anterior != null && anterior.getValue() > salida) {
+            return true;
+        }
+        Long siguiente = agenda.ceilingKey(salida);
+        return siguiente != null && siguiente < llegada;
+    }
+
+    private void purgarTerminados() {
+        LocalDateTime limite = LocalDateTime.now().minusHours(RETENCION_HORAS);
+        trabajos.values().removeIf(t -> t.fin != null && t.fin.isBefore(limite));
+    }
+
+    private static ProgresoProgramacionDTO toDTO(Trabajo trabajo) {
+        int procesadas = trabajo.procesadas.get();
+        return ProgresoProgramacionDTO.builder()
+                .idTrabajo(trabajo.id)
+                .estado(trabajo.estado)
+                .totalSalidas(trabajo.total)
+                .procesadas(procesadas)
+                .creados(trabajo.creados.get())
+                .omitidosExistentes(trabajo.existentes.get())
+                .omitidosConflicto(trabajo.conflictos.get())
+                .porcentaje(trabajo.total == 0 ? 100 : procesadas * 100 / trabajo.total)
+                .mensaje(trabajo.mensaje)
+                .fechaInicio(trabajo.inicio)
+                .fechaFin(trabajo.fin)
+                .build();
+    }
+}
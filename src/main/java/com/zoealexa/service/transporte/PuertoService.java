@@ -5,6 +5,7 @@ import com.zoealexa.dto.transporte.UpdatePuertoRequestDTO;
 import com.zoealexa.entity.enums.EstadoEmbarcacion;
 import com.zoealexa.entity.enums.TipoOperacion;
 import com.zoealexa.mapper.transporte.EmbarcacionMapper;
+import com.zoealexa.service.transporte.VersionCatalogoService.Catalogo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -30,6 +31,7 @@ import java.util.stream.Collectors;
 public class PuertoService {
 
     private final PuertoRepository puertoRepository;
+    private final VersionCatalogoService versionCatalogoService;
 
     /**
      * Crear nuevo puerto
@@ -48,6 +50,7 @@ public class PuertoService {
         }
 
         puerto = puertoRepository.save(puerto);
+        versionCatalogoService.invalidar(Catalogo.PUERTOS);
 
         log.info("Puerto creado exitosamente con ID: {}", puerto.getIdPuerto());
 
@@ -89,6 +92,7 @@ public class PuertoService {
         }
 
         puerto = puertoRepository.save(puerto);
+        versionCatalogoService.invalidar(Catalogo.PUERTOS);
 
         log.info("Puerto actualizado: {}", puerto.getIdPuerto());
 
@@ -0,0 +1,174 @@
+package com.zoealexa.service.transporte;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Red de viajes entre puertos para buscar itinerarios con escala (Connection Scan)
+ *
+ * Cada viaje es una conexión puerto origen → puerto destino con hora de salida
+ * y de llegada. Las conexiones se guardan en arreglos paralelos ordenados por
+ * salida; una búsqueda las recorre una sola vez desde la hora de partida
+ * manteniendo la llegada más temprana a cada puerto. Los cupos se leen al
+ * consultar, del mismo arreglo que actualiza el índice de viajes.
+ *
+ * Es inmutable salvo los cupos: el índice construye una red nueva cuando
+ * cambian los viajes o las rutas.
+ *
+ * @param <T> Referencia al viaje de cada conexión (para armar la respuesta)
+ */
+final class RedConexiones<T> {
+
+    private static final long SIN_LLEGADA = Long.MAX_VALUE;
+
+    /**
+     * Viaje de la red; salida y llegada en segundos, con la misma base que el índice
+     */
+    record Conexion<T>(int idPuertoOrigen, int idPuertoDestino, long salida, long llegada,
+                       AtomicIntegerArray cupos, int posicion, T referencia) {
+    }
+
+    private final Map<Integer, Integer> nodos;
+    private final int[] origenes;
+    private final int[] destinos;
+    private final long[] salidas;
+    private final long[] llegadas;
+    private final List<Conexion<T>> conexiones;
+
+    RedConexiones(List<Conexion<T>> conexiones) {
+        List<Conexion<T>> ordenadas = new ArrayList<>(conexiones);
+        ordenadas.sort(Comparator.comparingLong(Conexion::salida));
+
+        int n = ordenadas.size();
+        this.nodos = new HashMap<>();
+        this.origenes = new int[n];
+        this.destinos = new int[n];
+        this.salidas = new long[n];
+        this.llegadas = new long[n];
+
+        for (int i = 0; i < n; i++) {
+            Conexion<T> conexion = ordenadas.get(i);
+            origenes[i] = nodos.computeIfAbsent(conexion.idPuertoOrigen(), p -> nodos.size());
+            destinos[i] = nodos.computeIfAbsent(conexion.idPuertoDestino(), p -> nodos.size());
+            salidas[i] = conexion.salida();
+            llegadas[i] = conexion.llegada();
+        }
+        this.conexiones = List.copyOf(ordenadas);
+    }
+
+    int tamano() {
+        return conexiones.size();
+    }
+
+    /**
+     * Itinerarios de origen a destino que salen entre desde y hasta
+     *
+     * Devuelve los itinerarios no dominados ordenados por salida: para cada uno
+     * no existe otro que salga más tarde y llegue antes o a la misma hora.
+     *
+     * @param pasajeros Cupos necesarios en cada tramo
+     * @param escalaMinima Segundos mínimos entre la llegada a un puerto y la siguiente salida
+     * @param maxResultados Cantidad máxima de itinerarios
+     * @return Tramos de cada itinerario, en orden de viaje
+     */
+    List<List<Conexion<T>>> buscar(int idPuertoOrigen, int idPuertoDestino, long desde, long hasta,
+                                   int pasajeros, long escalaMinima, int maxResultados) {
+        Integer origen = nodos.get(idPuertoOrigen);
+        Integer destino = nodos.get(idPuertoDestino);
+        if (origen == null || destino == null || origen.equals(destino)) {
+            return List.of();
+        }
+
+        List<List<Conexion<T>>> itinerarios = new ArrayList<>();
+        long partida = desde;
+        // Cada pasada avanza la partida; el tope acota el costo si muchas salidas llegan juntas
+        for (int pasada = 0; pasada < maxResultados * 4 && itinerarios.size() < maxResultados; pasada++) {
+            List<Conexion<T>> tramos = escanear(origen, destino, partida, hasta, pasajeros, escalaMinima);
+            if (tramos.isEmpty()) {
+                break;
+            }
+
+            // Misma llegada saliendo más tarde: reemplaza al anterior
+            int ultimo = itinerarios.size() - 1;
+            if (ultimo >= 0 && llegada(itinerarios.get(ultimo)) == llegada(tramos)) {
+                itinerarios.set(ultimo, tramos);
+            } else {
+                itinerarios.add(tramos);
+            }
+            partida = tramos.get(0).salida() + 1;
+        }
+        return itinerarios;
+    }
+
+    /**
+     * Llegada más temprana a destino partiendo desde el origen no antes de partida
+     */
+    private List<Conexion<T>> escanear(int origen, int destino, long partida, long hasta,
+                                       int pasajeros, long escalaMinima) {
+        long[] llegada = new long[nodos.size()];
+        int[] entrada = new int[nodos.size()];
+        Arrays.fill(llegada, SIN_LLEGADA);
+        Arrays.fill(entrada, -1);
+        llegada[origen] = partida;
+
+        for (int i = primeraPosicion(partida); i < salidas.length; i++) {
+            long salida = salidas[i];
+            if (salida > hasta || salida >= llegada[destino]) {
+                // Ninguna conexión posterior puede mejorar la llegada
+                break;
+            }
+
+            int desdePuerto = origenes[i];
+            if (llegada[desdePuerto] == SIN_LLEGADA) {
+                continue;
+            }
+            long listo = desdePuerto == origen ? llegada[origen] : llegada[desdePuerto] + escalaMinima;
+            if (salida < listo || llegadas[i] >= llegada[destinos[i]]) {
+                continue;
+            }
+
+            Conexion<T> conexion = conexiones.get(i);
+            if (conexion.cupos().get(conexion.posicion()) < pasajeros) {
+                continue;
+            }
+
+            llegada[destinos[i]] = llegadas[i];
+            entrada[destinos[i]] = i;
+        }
+
+        if (entrada[destino] < 0) {
+            return List.of();
+        }
+
+        List<Conexion<T>> tramos = new ArrayList<>();
+        for (int i = entrada[destino]; i >= 0; i = origenes[i] == origen ? -1 : entrada[origenes[i]]) {
+            tramos.add(conexiones.get(i));
+        }
+        Collections.reverse(tramos);
+        return tramos;
+    }
+
+    private int primeraPosicion(long desde) {
+        int bajo = 0;
+        int alto = salidas.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (salidas[medio] < desde) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    private static long llegada(List<? extends Conexion<?>> tramos) {
+        return tramos.get(tramos.size() - 1).llegada();
+    }
+}
@@ -5,6 +5,7 @@ import com.zoealexa.entity.enums.EstadoEmbarcacion;
 import com.zoealexa.entity.enums.EstadoPuerto;
 import com.zoealexa.exception.BusinessException;
 import com.zoealexa.exception.ConflictException;
+import com.zoealexa.service.transporte.VersionCatalogoService.Catalogo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -32,7 +33,10 @@ import java.util.stream.Collectors;
 public class RutaService {
 
     private final RutaRepository rutaRepository;
+    private final VersionCatalogoService versionCatalogoService;
     private final PuertoRepository puertoRepository;
+    private final IndiceViajesService indiceViajesService;
+    private final AgendaEmbarcacionesService agendaEmbarcacionesService;
 
     /**
      * Crear nueva ruta
@@ -76,6 +80,7 @@ public class RutaService {
 
         // 5. Guardar
         ruta = rutaRepository.save(ruta);
+        versionCatalogoService.invalidar(Catalogo.RUTAS);
 
         log.info("Ruta creada exitosamente con ID: {} ({} → {})",
                 ruta.getIdRuta(),
@@ -167,10 +172,14 @@ public class RutaService {
             log.debug("Puerto de destino actualizado a: {}", puertoDestino.getNombrePuerto());
         }
 
-        // 5. Actualizar duración si se envió
+        // 5. Actualizar días de operación y duración si se enviaron
         if (request.getDiasOperacion() != null) {
             ruta.setDiasOperacion(request.getDiasOperacion());
-            log.debug("Duración actualizada a: {} horas", request.getDiasOperacion());
+            log.debug("Días de operación actualizados a: {}", request.getDiasOperacion());
+        }
+        if (request.getDuracionMinutos() != null) {
+            ruta.setDuracionMinutos(request.getDuracionMinutos());
+            log.debug("Duración actualizada a: {} minutos", request.getDuracionMinutos());
         }
 
         // 6. Actualizar estado si se envió
@@ -181,6 +190,11 @@ public class RutaService {
 
         // 7. Guardar cambios
         ruta = rutaRepository.save(ruta);
+        versionCatalogoService.invalidar(Catalogo.RUTAS);
+        indiceViajesService.invalidarRuta(id);
+        if (request.getDuracionMinutos() != null) {
+            agendaEmbarcacionesService.invalidarTodo();
+        }
 
         log.info("Ruta {} actualizada exitosamente", id);
 
@@ -0,0 +1,129 @@
+package com.zoealexa.service.transporte;
+
+import com.zoealexa.util.TransaccionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores de cambios por catálogo (viajes, rutas, puertos, embarcaciones)
+ *
+ * Cada cambio confirmado incrementa el contador de su tabla; las respuestas de
+ * los endpoints de catálogo llevan un ETag formado por los contadores de los
+ * que dependen, de modo que una petición condicional se responde con 304 sin
+ * consultar ni serializar. Los contadores son de este nodo (el ETag incluye un
+ * identificador de instancia) y se renuevan periódicamente para acotar el
+ * tiempo en que un cambio hecho en otro nodo pasa desapercibido.
+ */
+@Service
+@Slf4j
+public class VersionCatalogoService {
+
+    /**
+     * Catálogos versionados
+     *
+     * Los viajes cambian varias veces por segundo (cada reserva mueve sus cupos):
+     * una fecha al segundo no distingue esos cambios, así que sus respuestas se
+     * validan solo por ETag.
+     */
+    public enum Catalogo {
+        VIAJES(false), RUTAS(true), PUERTOS(true), EMBARCACIONES(true);
+
+        private final boolean validaPorFecha;
+
+        Catalogo(boolean validaPorFecha) {
+            this.validaPorFecha = validaPorFecha;
+        }
+    }
+
+    /**
+     * Versión de una respuesta: ETag y fecha de última modificación (epoch ms, al
+     * segundo; SIN_FECHA si la respuesta solo se valida por ETag)
+     */
+    public record Version(String etag, long ultimaModificacion) {
+
+        public static final long SIN_FECHA = -1;
+
+        public boolean tieneFecha() {
+            return ultimaModificacion != SIN_FECHA;
+        }
+
+        /**
+         * Versión de una respuesta que además depende de otro valor (p. ej. la fecha actual)
+         *
+         * @param variante Valor que se agrega al ETag
+         * @param vigenteDesde Momento (epoch ms) desde el que rige ese valor
+         */
+        public Version conVariante(Object variante, long vigenteDesde) {
+            return new Version(etag.substring(0, etag.length() - 1) + "-" + variante + "\"",
+                    tieneFecha() ? Math.max(ultimaModificacion, vigenteDesde) : SIN_FECHA);
+        }
+    }
+
+    private final String instancia = UUID.randomUUID().toString().substring(0, 8);
+    private final Map<Catalogo, AtomicLong> versiones = new EnumMap<>(Catalogo.class);
+    private final Map<Catalogo, AtomicLong> modificaciones = new EnumMap<>(Catalogo.class);
+
+    public VersionCatalogoService() {
+        long ahora = ahoraAlSegundo();
+        for (Catalogo catalogo : Catalogo.values()) {
+            versiones.put(catalogo, new AtomicLong());
+            modificaciones.put(catalogo, new AtomicLong(ahora));
+        }
+    }
+
+    /**
+     * Versión combinada de los catálogos de los que depende una respuesta
+     */
+    public Version version(Catalogo... catalogos) {
+        StringBuilder etag = new StringBuilder("\"").append(instancia);
+        long ultimaModificacion = 0;
+        boolean validaPorFecha = true;
+
+        for (Catalogo catalogo : catalogos) {
+            etag.append('-').append(versiones.get(catalogo).get());
+            ultimaModificacion = Math.max(ultimaModificacion, modificaciones.get(catalogo).get());
+            validaPorFecha &= catalogo.validaPorFecha;
+        }
+
+        return new Version(etag.append('"').toString(),
+                validaPorFecha ? ultimaModificacion : Version.SIN_FECHA);
+    }
+
+    /**
+     * Registra un cambio en el catálogo cuando la transacción actual haga commit
+     */
+    public void invalidar(Catalogo catalogo) {
+        TransaccionUtil.despuesDelCommit(() -> incrementar(catalogo));
+    }
+
+    /**
+     * Registra un cambio ya confirmado
+     */
+    public void incrementar(Catalogo catalogo) {
+        // Primero la fecha: un lector que ve la versión nueva nunca ve una fecha anterior
+        modificaciones.get(catalogo).accumulateAndGet(ahoraAlSegundo(), Math::max);
+        versiones.get(catalogo).incrementAndGet();
+    }
+
+    /**
+     * Renueva todas las versiones (cambios hechos por otros nodos)
+     */
+    @Scheduled(fixedDelayString = "${app.catalogo.version.renovacion-ms:60000}",
+            initialDelayString = "${app.catalogo.version.renovacion-ms:60000}")
+    public void renovar() {
+        for (Catalogo catalogo : Catalogo.values()) {
+            incrementar(catalogo);
+        }
+        log.debug("Versiones de catálogo renovadas");
+    }
+
+    private static long ahoraAlSegundo() {
+        return System.currentTimeMillis() / 1000 * 1000;
+    }
+}
@@ -6,7 +6,9 @@ import com.zoealexa.exception.BadRequestException;
 import com.zoealexa.exception.ConflictException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import com.zoealexa.dto.transporte.*;
 import com.zoealexa.entity.enums.EstadoViaje;
@@ -14,6 +16,7 @@ import com.zoealexa.entity.transporte.*;
 import com.zoealexa.exception.NotFoundException;
 import com.zoealexa.mapper.transporte.ViajeMapper;
 import com.zoealexa.repository.transporte.*;
+import com.zoealexa.util.DiasOperacion;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
@@ -29,6 +32,18 @@ public class ViajeService {
     private final ViajeRepository viajeRepository;
     private final RutaRepository rutaRepository;
     private final EmbarcacionRepository embarcacionRepository;
+    private final IndiceViajesService indiceViajesService;
+    private final BusquedaViajesCacheService busquedaViajesCacheService;
+    private final AgendaEmbarcacionesService agendaEmbarcacionesService;
+
+    @Value("${app.viajes.itinerarios.escala-minima-min:60}")
+    private int escalaMinimaMinutos;
+
+    @Value("${app.viajes.itinerarios.horizonte-dias:7}")
+    private int horizonteDias;
+
+    @Value("${app.viajes.itinerarios.max-resultados:5}")
+    private int maxItinerarios;
 
     /**
      * Crear nuevo viaje
@@ -73,17 +88,23 @@ public class ViajeService {
 
         // Validar que coincida con los días de operación de la ruta
         DayOfWeek diaSemana = request.getFechaViaje().getDayOfWeek();
-        String codigoDia = obtenerCodigoDia(diaSemana);
-
-        if (!viaje.getRuta().getDiasOperacion().contains(codigoDia)) {
+        if (!DiasOperacion.opera(DiasOperacion.mascara(viaje.getRuta().getDiasOperacion()), diaSemana)) {
             throw new BadRequestException(
                     String.format("La fecha %s (%s) no coincide con los días de operación de la ruta: %s",
                                 request.getFechaViaje(), diaSemana, viaje.getRuta().getDiasOperacion())
             );
         }
 
+        // Validar que la embarcación no tenga otro viaje en ese horario
+        if (ocupaEmbarcacion(viaje)) {
+            agendaEmbarcacionesService.verificarDisponible(embarcacion.getIdEmbarcacion(),
+                    viaje.getFechaViaje(), viaje.getHoraEmbarque(), ruta.getDuracionMinutos(), null);
+        }
+
         // 4. Guardar
         Viaje viajeGuardado = viajeRepository.save(viaje);
+        indiceViajesService.invalidarViaje(viajeGuardado.getIdViaje());
+        agendaEmbarcacionesService.invalidarViaje(viajeGuardado.getIdViaje());
 
         log.info("Viaje creado exitosamente con id: {}", viajeGuardado.getIdViaje());
         return ViajeMapper.toResponseDTO(viajeGuardado);
@@ -91,8 +112,10 @@ public class ViajeService {
 
     /**
      * Buscar viajes disponibles
+     * Se resuelve con el índice en memoria, sin transacción ni acceso a la base de datos;
+     * las búsquedas idénticas concurrentes comparten un único cálculo
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<ViajeBusquedaDTO> buscarDisponibles(
             Integer rutaId,
             LocalDate fechaInicio,
@@ -101,18 +124,54 @@ public class ViajeService {
         log.info("Buscando viajes disponibles - Ruta: {}, Del {} al {}",
                 rutaId, fechaInicio, fechaFin);
 
-        List<Viaje> viajes = viajeRepository.findViajesDisponibles(
+        List<ViajeBusquedaDTO> viajes = busquedaViajesCacheService.buscarDisponibles(
                 rutaId,
                 fechaInicio,
-                fechaFin
+                fechaFin,
+                () -> indiceViajesService.buscarDisponibles(rutaId, fechaInicio, fechaFin)
         );
 
         log.info("Viajes encontrados: {}", viajes.size());
 
-        return viajes.stream()
-                .map(ViajeMapper::toBusquedaDTO)
-                .collect(Collectors.toList());
+        return viajes;
     }
+    /**
+     * Buscar itinerarios entre dos puertos, directos o con escala
+     * Considera las salidas desde la fecha indicada hasta el horizonte configurado;
+     * se resuelve con la red de conexiones en memoria
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ItinerarioDTO> buscarItinerarios(
+            Integer idPuertoOrigen,
+            Integer idPuertoDestino,
+            LocalDate fecha,
+            int pasajeros) {
+
+        if (idPuertoOrigen.equals(idPuertoDestino)) {
+            throw new BadRequestException("El puerto de origen y destino no pueden ser el mismo");
+        }
+        if (pasajeros < 1) {
+            throw new BadRequestException("La cantidad de pasajeros debe ser al menos 1");
+        }
+
+        log.info("Buscando itinerarios - Puerto {} → Puerto {}, desde {}, {} pasajero(s)",
+                idPuertoOrigen, idPuertoDestino, fecha, pasajeros);
+
+        List<ItinerarioDTO> itinerarios = indiceViajesService.buscarItinerarios(
+                idPuertoOrigen,
+                idPuertoDestino,
+                fecha,
+                fecha.plusDays(horizonteDias - 1L),
+                pasajeros,
+                escalaMinimaMinutos,
+                maxItinerarios
+        );
+
+        log.info("Itinerarios encontrados: {}", itinerarios.size());
+
+        return itinerarios;
+    }
+
     /**
      * Listar Viajes
      */
@@ -125,19 +184,17 @@ public class ViajeService {
 
     /**
      * Obtener viajes próximos (siguientes 7 días)
+     * Se resuelve con el índice en memoria, compartiendo el cálculo entre solicitudes
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<ViajeBusquedaDTO> obtenerProximos() {
         LocalDate hoy = LocalDate.now();
         LocalDate limite = hoy.plusDays(7);
 
         log.info("Obteniendo viajes próximos (7 días)");
 
-        List<Viaje> viajes = viajeRepository.findViajesProximos(hoy, limite);
-
-        return viajes.stream()
-                .map(ViajeMapper::toBusquedaDTO)
-                .collect(Collectors.toList());
+        return busquedaViajesCacheService.buscarProximos(hoy, limite,
+                () -> indiceViajesService.buscarProximos(hoy, limite));
     }
 
     /**
@@ -229,9 +286,7 @@ public class ViajeService {
 
             // Validar que coincida con los días de operación de la ruta
             DayOfWeek diaSemana = updateDTO.getFechaViaje().getDayOfWeek();
-            String codigoDia = obtenerCodigoDia(diaSemana);
-
-            if (!viaje.getRuta().getDiasOperacion().contains(codigoDia)) {
+            if (!DiasOperacion.opera(DiasOperacion.mascara(viaje.getRuta().getDiasOperacion()), diaSemana)) {
                 throw new BadRequestException(
                         String.format("La fecha %s (%s) no coincide con los días de operación de la ruta: %s",
                                 updateDTO.getFechaViaje(), diaSemana, viaje.getRuta().getDiasOperacion())
@@ -272,14 +327,31 @@ public class ViajeService {
             viaje.setEstado(updateDTO.getEstado());
         }
 
+        // Validar que la embarcación no tenga otro viaje en el nuevo horario
+        boolean cambiaHorario = updateDTO.hasIdRuta() || updateDTO.hasIdEmbarcacion()
+                || updateDTO.hasFechaViaje() || updateDTO.hasHoraEmbarque();
+        if (cambiaHorario && ocupaEmbarcacion(viaje)) {
+            agendaEmbarcacionesService.verificarDisponible(viaje.getEmbarcacion().getIdEmbarcacion(),
+                    viaje.getFechaViaje(), viaje.getHoraEmbarque(), viaje.getRuta().getDuracionMinutos(), idViaje);
+        }
+
         // Guardar cambios
         Viaje viajeActualizado = viajeRepository.save(viaje);
+        indiceViajesService.invalidarViaje(idViaje);
+        agendaEmbarcacionesService.invalidarViaje(idViaje);
         log.info("Viaje actualizado exitosamente con ID: {}", idViaje);
 
         // Convertir a DTO y retornar
         return ViajeMapper.toResponseDTO(viajeActualizado);
     }
 
+    /**
+     * Un viaje ocupa su embarcación mientras está programado o en curso
+     */
+    private boolean ocupaEmbarcacion(Viaje viaje) {
+        return viaje.getEstado() == EstadoViaje.PROGRAMADO || viaje.getEstado() == EstadoViaje.EN_CURSO;
+    }
+
     /**
      * Valida que la transición de estado sea válida
      * */
@@ -302,19 +374,4 @@ public class ViajeService {
             );
         }
     }
-
-    /**
-     * Obtiene el código de día (LUN, MAR, etc.) desde DayOfWeek
-     */
-    private String obtenerCodigoDia(DayOfWeek diaSemana) {
-        return switch (diaSemana) {
-            case MONDAY -> "LUN";
-            case TUESDAY -> "MAR";
-            case WEDNESDAY -> "MIE";
-            case THURSDAY -> "JUE";
-            case FRIDAY -> "VIE";
-            case SATURDAY -> "SAB";
-            case SUNDAY -> "DOM";
-        };
-    }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.zoealexa.util;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa solicitudes idénticas concurrentes (single-flight) y guarda el resultado poco tiempo
+ *
+ * La primera solicitud de una clave ejecuta el cálculo; las que llegan mientras
+ * está en curso esperan ese mismo resultado, y las que llegan después lo reciben
+ * de la caché hasta que vence. Si el cálculo falla (con cualquier excepción o
+ * error), todas las solicitudes en espera reciben la excepción y la clave no
+ * queda en caché.
+ *
+ * La espera por un cálculo ajeno está acotada: si vence, la solicitud calcula
+ * su propio resultado (sin reemplazar la entrada) en lugar de retener su hilo
+ * detrás de un cálculo bloqueado.
+ *
+ * Contadores (solo crecen): aciertos + coalescidas + cálculos = solicitudes;
+ * las esperas vencidas son coalescidas que terminaron calculando por su cuenta.
+ */
+public class CoalescedorSolicitudes<K, V> {
+
+    private final long ttlNanos;
+    private final long esperaMaxNanos;
+    private final int maxEntradas;
+    private final Map<K, Entrada<V>> entradas = new ConcurrentHashMap<>();
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder coalescidas = new LongAdder();
+    private final LongAdder calculos = new LongAdder();
+    private final LongAdder esperasVencidas = new LongAdder();
+
+    private record Entrada<V>(CompletableFuture<V> resultado, long creadaNanos) {
+    }
+
+    /**
+     * @param ttl Tiempo que un resultado se reutiliza desde que se empezó a calcular
+     * @param esperaMax Tiempo máximo que una solicitud espera un cálculo en curso de otra
+     * @param maxEntradas Cantidad de claves a partir de la cual se purgan las vencidas
+     */
+    public CoalescedorSolicitudes(Duration ttl, Duration esperaMax, int maxEntradas) {
+        this.ttlNanos = ttl.toNanos();
+        this.esperaMaxNanos = esperaMax.toNanos();
+        this.maxEntradas = maxEntradas;
+    }
+
+    public V obtener(K clave, Supplier<V> calculo) {
+        long ahora = System.nanoTime();
+
+        Entrada<V> existente = entradas.get(clave);
+        if (existente != null && vigente(existente, ahora)) {
+            return compartir(existente, calculo);
+        }
+
+        Entrada<V> nueva = new Entrada<>(new CompletableFuture<>(), ahora);
+        Entrada<V> actual = entradas.compute(clave,
+                (k, previa) -> previa != null && vigente(previa, ahora) ? previa : nueva);
+        if (actual != nueva) {
+            return compartir(actual, calculo);
+        }
+
+        calculos.increment();
+        if (entradas.size() > maxEntradas) {
+            purgarVencidas(ahora);
+        }
+
+        try {
+            V valor = calculo.get();
+            nueva.resultado().complete(valor);
+            return valor;
+        } catch (Throwable e) {
+            entradas.remove(clave, nueva);
+            nueva.resultado().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getCoalescidas() {
+        return coalescidas.sum();
+    }
+
+    public long getCalculos() {
+        return calculos.sum();
+    }
+
+    public long getEsperasVencidas() {
+        return esperasVencidas.sum();
+    }
+
+    private V compartir(Entrada<V> entrada, Supplier<V> calculo) {
+        if (entrada.resultado().isDone()) {
+            aciertos.increment();
+        } else {
+            coalescidas.increment();
+        }
+
+        try {
+            return entrada.resultado().get(esperaMaxNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // El cálculo compartido sigue en curso: esta solicitud no lo espera más
+            esperasVencidas.increment();
+            return calculo.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Espera de un cálculo compartido interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Un cálculo en curso siempre se comparte; uno terminado, mientras no venza
+     */
+    private boolean vigente(Entrada<V> entrada, long ahora) {
+        return !entrada.resultado().isDone() || ahora - entrada.creadaNanos() < ttlNanos;
+    }
+
+    private void purgarVencidas(long ahora) {
+        entradas.values().removeIf(e -> !vigente(e, ahora));
+    }
+}
@@ -0,0 +1,53 @@
+package com.zoealexa.util;
+
+import com.zoealexa.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para paginación keyset por (fecha, id) en orden descendente
+ *
+ * El cliente recibe la posición de la última fila de la página y la devuelve
+ * tal cual; la consulta continúa con las filas estrictamente anteriores.
+ */
+public final class CursorPaginacion {
+
+    /**
+     * Posición anterior a cualquier fila: primera página sin condición especial en la consulta
+     */
+    public static final Posicion INICIO = new Posicion(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private static final String SEPARADOR = "|";
+
+    private CursorPaginacion() {
+    }
+
+    public record Posicion(LocalDateTime fecha, Long id) {
+    }
+
+    public static String codificar(LocalDateTime fecha, Long id) {
+        String valor = fecha + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor Cursor recibido del cliente, o null para la primera página
+     * @throws BadRequestException si el cursor no fue generado por {@link #codificar}
+     */
+    public static Posicion decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return INICIO;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.lastIndexOf(SEPARADOR);
+            return new Posicion(LocalDateTime.parse(valor.substring(0, separador)),
+                    Long.parseLong(valor.substring(separador + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Cursor de paginación inválido");
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.zoealexa.util;
+
+import java.time.DayOfWeek;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Días de operación de una ruta ("LUN,MIE,VIE") como máscara de bits
+ *
+ * Bit 0 = lunes ... bit 6 = domingo. Se interpreta una vez por ruta y luego
+ * cada fecha se verifica con una operación de bits. Los códigos pueden venir
+ * separados por cualquier carácter que no sea letra ("LUN,MIE", "LUN MIE",
+ * "LUN-MIE") y se comparan completos, no como subcadena del texto.
+ */
+public final class DiasOperacion {
+
+    public static final int NINGUNO = 0;
+
+    private static final String[] CODIGOS = {"LUN", "MAR", "MIE", "JUE", "VIE", "SAB", "DOM"};
+    private static final Pattern SEPARADOR = Pattern.compile("[^\\p{L}]+");
+
+    private DiasOperacion() {
+    }
+
+    /**
+     * Máscara de los días indicados; los códigos desconocidos se ignoran
+     */
+    public static int mascara(String diasOperacion) {
+        if (diasOperacion == null) {
+            return NINGUNO;
+        }
+
+        int mascara = NINGUNO;
+        for (String codigo : SEPARADOR.split(diasOperacion)) {
+            String normalizado = codigo.toUpperCase(Locale.ROOT);
+            for (int i = 0; i < CODIGOS.length; i++) {
+                if (CODIGOS[i].equals(normalizado)) {
+                    mascara |= 1 << i;
+                }
+            }
+        }
+        return mascara;
+    }
+
+    public static boolean opera(int mascara, DayOfWeek dia) {
+        return (mascara & (1 << dia.ordinal())) != 0;
+    }
+}
@@ -0,0 +1,103 @@
+package com.zoealexa.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Valor decimal de punto fijo con 2 decimales, guardado como long (céntimos)
+ *
+ * Se usa en los cálculos que parten de reglas compiladas en memoria
+ * (descuentos por edad, penalidades y equipaje), cuyos valores ya están en
+ * Monto: las operaciones son aritmética de enteros con redondeo HALF_UP
+ * explícito. Las operaciones de un solo paso sobre montos de entidades
+ * siguen en BigDecimal, donde convertir costaría más que calcular.
+ * Las operaciones lanzan ArithmeticException si se desbordan.
+ */
+public record Monto(long centimos) implements Comparable<Monto> {
+
+    public static final Monto CERO = new Monto(0);
+
+    private static final long ESCALA = 100;
+    private static final long ESCALA_PORCENTAJE = ESCALA * 100;
+
+    /**
+     * @throws ArithmeticException si el valor tiene más de 2 decimales (no se redondea en silencio)
+     */
+    public static Monto de(BigDecimal valor) {
+        if (valor == null || valor.signum() == 0) {
+            return CERO;
+        }
+        return new Monto(valor.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+
+    public static Monto deCentimos(long centimos) {
+        return new Monto(centimos);
+    }
+
+    public BigDecimal aBigDecimal() {
+        return BigDecimal.valueOf(centimos, 2);
+    }
+
+    public Monto sumar(Monto otro) {
+        return new Monto(Math.addExact(centimos, otro.centimos));
+    }
+
+    public Monto restar(Monto otro) {
+        return new Monto(Math.subtractExact(centimos, otro.centimos));
+    }
+
+    /**
+     * Producto de dos valores de 2 decimales (p. ej. kilos × precio por kilo)
+     */
+    public Monto multiplicar(Monto factor) {
+        return new Monto(dividirRedondeado(Math.multiplyExact(centimos, factor.centimos), ESCALA));
+    }
+
+    /**
+     * Porcentaje de este monto (porcentaje expresado como 18.00 = 18%)
+     */
+    public Monto porcentaje(Monto porcentaje) {
+        return new Monto(dividirRedondeado(Math.multiplyExact(centimos, porcentaje.centimos), ESCALA_PORCENTAJE));
+    }
+
+    /**
+     * Porcentaje que representa este monto sobre el total (18.00 = 18%)
+     *
+     * @throws ArithmeticException si el total es cero
+     */
+    public Monto porcentajeSobre(Monto total) {
+        return new Monto(dividirRedondeado(Math.multiplyExact(centimos, ESCALA_PORCENTAJE), total.centimos));
+    }
+
+    /**
+     * Este monto, o cero si es negativo
+     */
+    public Monto noNegativo() {
+        return centimos < 0 ? CERO : this;
+    }
+
+    @Override
+    public int compareTo(Monto otro) {
+        return Long.compare(centimos, otro.centimos);
+    }
+
+    @Override
+    public String toString() {
+        return aBigDecimal().toPlainString();
+    }
+
+    /**
+     * División entera con redondeo HALF_UP (la mitad se aleja de cero)
+     */
+    private static long dividirRedondeado(long dividendo, long divisor) {
+        if (divisor == 0) {
+            throw new ArithmeticException("División entre cero");
+        }
+        long cociente = dividendo / divisor;
+        long resto = dividendo % divisor;
+        if (Math.abs(resto) * 2 >= Math.abs(divisor)) {
+            cociente += (dividendo < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return cociente;
+    }
+}
@@ -0,0 +1,39 @@
+package com.zoealexa.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utilidades para ejecutar acciones según el ciclo de vida de la transacción actual
+ */
+@Slf4j
+public final class TransaccionUtil {
+
+    private TransaccionUtil() {
+    }
+
+    /**
+     * Ejecuta la acción cuando la transacción actual haga commit
+     * (si hace rollback, no se ejecuta). Sin transacción activa, se ejecuta de inmediato.
+     *
+     * Un error de la acción tras el commit se registra y no se propaga: la
+     * transacción ya está confirmada y el llamador no debe tratarla como fallida.
+     */
+    public static void despuesDelCommit(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    accion.run();
+                } catch (RuntimeException e) {
+                    log.error("Error en acción posterior al commit: {}", e.getMessage(), e);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,164 @@
+package com.zoealexa.util;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Contador de eventos por clave en una ventana deslizante, en memoria
+ *
+ * Las claves se reparten en franjas con su propio lock, de modo que claves
+ * distintas casi nunca compiten. Cada clave guarda solo los instantes de sus
+ * últimos eventos (como máximo el límite que interesa consultar), así que la
+ * memoria por clave es constante.
+ *
+ * La cantidad de claves está acotada: al llenarse una franja se purgan las
+ * claves vencidas y, si sigue llena, se descarta la clave usada hace más
+ * tiempo. Toda clave nueva se registra y cuenta sus eventos: llenar la tabla
+ * no desactiva el límite de las claves activas.
+ */
+public class VentanaDeslizante {
+
+    private final long ventanaMs;
+    private final int maxEventos;
+    private final int maxClavesPorFranja;
+    private final Franja[] franjas;
+
+    private static final class Franja {
+        // Orden de acceso: la primera clave es la usada hace más tiempo
+        private final Map<String, ArrayDeque<Long>> eventos = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * @param ventana Duración de la ventana
+     * @param maxEventos Eventos que se recuerdan por clave (el mayor límite que se consulta)
+     * @param cantidadFranjas Cantidad de locks independientes
+     * @param maxClaves Cantidad máxima de claves en memoria
+     */
+    public VentanaDeslizante(Duration ventana, int maxEventos, int cantidadFranjas, int maxClaves) {
+        this.ventanaMs = ventana.toMillis();
+        this.maxEventos = maxEventos;
+        this.maxClavesPorFranja = Math.max(1, maxClaves / cantidadFranjas);
+        this.franjas = new Franja[cantidadFranjas];
+        for (int i = 0; i < cantidadFranjas; i++) {
+            franjas[i] = new Franja();
+        }
+    }
+
+    /**
+     * Registra un evento y devuelve cuántos tiene la clave en la ventana (incluido este)
+     */
+    public int registrar(String clave, long ahoraMs) {
+        Franja franja = franja(clave);
+        synchronized (franja) {
+            ArrayDeque<Long> eventos = franja.eventos.get(clave);
+            if (eventos == null) {
+                if (franja.eventos.size() >= maxClavesPorFranja) {
+                    purgar(franja, ahoraMs);
+                    if (franja.eventos.size() >= maxClavesPorFranja) {
+                        descartarMasAntigua(franja);
+                    }
+                }
+                eventos = new ArrayDeque<>();
+                franja.eventos.put(clave, eventos);
+            }
+            descartarVencidos(eventos, ahoraMs);
+            eventos.addLast(ahoraMs);
+            if (eventos.size() > maxEventos) {
+                eventos.removeFirst();
+            }
+            return eventos.size();
+        }
+    }
+
+    /**
+     * Eventos de la clave en la ventana
+     */
+    public int contar(String clave, long ahoraMs) {
+        Franja franja = franja(clave);
+        synchronized (franja) {
+            ArrayDeque<Long> eventos = franja.eventos.get(clave);
+            if (eventos == null) {
+                return 0;
+            }
+            descartarVencidos(eventos, ahoraMs);
+            return eventos.size();
+        }
+    }
+
+    /**
+     * Milisegundos hasta que la clave vuelva a tener menos de "limite" eventos en la ventana
+     * (0 si ya está por debajo)
+     */
+    public long esperaMs(String clave, int limite, long ahoraMs) {
+        Franja franja = franja(clave);
+        synchronized (franja) {
+            ArrayDeque<Long> eventos = franja.eventos.get(clave);
+            if (eventos == null) {
+                return 0;
+            }
+            descartarVencidos(eventos, ahoraMs);
+            if (eventos.size() < limite) {
+                return 0;
+            }
+            // Debe vencer el evento que deja exactamente "limite - 1" en la ventana
+            long evento = eventos.stream().skip(eventos.size() - limite).findFirst().orElse(ahoraMs);
+            return Math.max(0, evento + ventanaMs - ahoraMs);
+        }
+    }
+
+    public void limpiar(String clave) {
+        Franja franja = franja(clave);
+        synchronized (franja) {
+            franja.eventos.remove(clave);
+        }
+    }
+
+    /**
+     * Retira las claves sin eventos en la ventana
+     */
+    public void purgar(long ahoraMs) {
+        for (Franja franja : franjas) {
+            synchronized (franja) {
+                purgar(franja, ahoraMs);
+            }
+        }
+    }
+
+    public int tamano() {
+        int total = 0;
+        for (Franja franja : franjas) {
+            synchronized (franja) {
+                total += franja.eventos.size();
+            }
+        }
+        return total;
+    }
+
+    // ===== MÉTODOS AUXILIARES PRIVADOS =====
+
+    private Franja franja(String clave) {
+        return franjas[Math.floorMod(clave.hashCode(), franjas.length)];
+    }
+
+    private void purgar(Franja franja, long ahoraMs) {
+        franja.eventos.values().removeIf(eventos -> {
+            descartarVencidos(eventos, ahoraMs);
+            return eventos.isEmpty();
+        });
+    }
+
+    private static void descartarMasAntigua(Franja franja) {
+        Iterator<ArrayDeque<Long>> iterador = franja.eventos.values().iterator();
+        iterador.next();
+        iterador.remove();
+    }
+
+    private void descartarVencidos(ArrayDeque<Long> eventos, long ahoraMs) {
+        while (!eventos.isEmpty() && eventos.peekFirst() <= ahoraMs - ventanaMs) {
+            eventos.removeFirst();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.zoealexa.controller;
+
+import com.zoealexa.service.transporte.VersionCatalogoService;
+import com.zoealexa.service.transporte.VersionCatalogoService.Catalogo;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Peticiones condicionales sobre catálogos: con el ETag vigente se responde
+ * 304 sin ejecutar la consulta; tras un cambio se vuelve a consultar. Las
+ * respuestas de viajes no llevan Last-Modified.
+ */
+class RespuestaCatalogoTest {
+
+    private static final CacheControl CACHE = CacheControl.maxAge(Duration.ofSeconds(15)).cachePublic();
+
+    private final VersionCatalogoService versiones = new VersionCatalogoService();
+    private final AtomicInteger consultas = new AtomicInteger();
+
+    @Test
+    void etagVigenteResponde304SinConsultar() {
+        ResponseEntity<List<String>> primera = pedir(null);
+        String etag = primera.getHeaders().getETag();
+
+        assertThat(primera.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(primera.getHeaders().getCacheControl()).isEqualTo("max-age=15, public");
+        assertThat(etag).isNotNull();
+
+        ResponseEntity<List<String>> segunda = pedir(etag);
+
+        assertThat(segunda.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(segunda.getBody()).isNull();
+        assertThat(consultas.get()).isEqualTo(1);
+    }
+
+    @Test
+    void cambioEnElCatalogoInvalidaElEtag() {
+        String etag = pedir(null).getHeaders().getETag();
+
+        versiones.incrementar(Catalogo.PUERTOS);
+        assertThat(pedir(etag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        versiones.incrementar(Catalogo.RUTAS);
+        ResponseEntity<List<String>> respuesta = pedir(etag);
+
+        assertThat(respuesta.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(respuesta.getHeaders().getETag()).isNotEqualTo(etag);
+        assertThat(consultas.get()).isEqualTo(2);
+    }
+
+    @Test
+    void viajesSeValidanSoloPorEtag() {
+        ResponseEntity<List<String>> primera = pedirViajes(null);
+
+        assertThat(primera.getHeaders().getETag()).isNotNull();
+        assertThat(primera.getHeaders().getLastModified()).isEqualTo(-1);
+
+        // Un cambio dentro del mismo segundo no debe responderse con 304
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/viajes/buscar");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, System.currentTimeMillis() + 60_000);
+        versiones.incrementar(Catalogo.VIAJES);
+
+        assertThat(pedir(request, Catalogo.VIAJES).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(pedirViajes(primera.getHeaders().getETag()).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(consultas.get()).isEqualTo(3);
+    }
+
+    @Test
+    void catalogosSinViajesConservanLastModified() {
+        ResponseEntity<List<String>> primera = pedir(null);
+        long ultimaModificacion = primera.getHeaders().getLastModified();
+
+        assertThat(ultimaModificacion).isPositive();
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/rutas/activas");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, ultimaModificacion);
+
+        assertThat(pedir(request, Catalogo.RUTAS).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    private ResponseEntity<List<String>> pedir(String ifNoneMatch) {
+        return pedir(peticion("/api/rutas/activas", ifNoneMatch), Catalogo.RUTAS);
+    }
+
+    private ResponseEntity<List<String>> pedirViajes(String ifNoneMatch) {
+        return pedir(peticion("/api/viajes/buscar", ifNoneMatch), Catalogo.VIAJES);
+    }
+
+    private static MockHttpServletRequest peticion(String uri, String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return request;
+    }
+
+    private ResponseEntity<List<String>> pedir(MockHttpServletRequest request, Catalogo catalogo) {
+        return RespuestaCatalogo.condicional(
+                new ServletWebRequest(request, new MockHttpServletResponse()),
+                versiones.version(catalogo),
+                CACHE,
+                () -> {
+                    consultas.incrementAndGet();
+                    return List.of("Iquitos - Yurimaguas");
+                });
+    }
+}
@@ -0,0 +1,181 @@
+package com.zoealexa.repository.reservas;
+
+import com.zoealexa.config.JpaConfig;
+import com.zoealexa.dto.reserva.response.ReservaResponse;
+import com.zoealexa.dto.reserva.response.ReservaSimpleResponse;
+import com.zoealexa.entity.comprobantes.Comprobante;
+import com.zoealexa.entity.enums.EstadoReserva;
+import com.zoealexa.entity.enums.MetodoPago;
+import com.zoealexa.entity.enums.Rol;
+import com.zoealexa.entity.enums.TipoComprobante;
+import com.zoealexa.entity.enums.TipoDocumento;
+import com.zoealexa.entity.enums.TipoOperacion;
+import com.zoealexa.entity.enums.TipoPago;
+import com.zoealexa.entity.equipaje.Equipaje;
+import com.zoealexa.entity.pagos.Pago;
+import com.zoealexa.entity.reservas.Pasajero;
+import com.zoealexa.entity.reservas.Reserva;
+import com.zoealexa.entity.reservas.ReservaDetalle;
+import com.zoealexa.entity.seguridad.Usuario;
+import com.zoealexa.entity.transporte.Embarcacion;
+import com.zoealexa.entity.transporte.Puerto;
+import com.zoealexa.entity.transporte.Ruta;
+import com.zoealexa.entity.transporte.Viaje;
+import com.zoealexa.mapper.reserva.ReservaMapper;
+import com.zoealexa.util.CursorPaginacion;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Planes de carga de reservas: el número de consultas no depende
+ * de cuántos pasajeros, pagos o comprobantes tenga la reserva.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reservas;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JpaConfig.class, ReservaMapper.class})
+class ReservaRepositoryTest {
+
+    private static final String CODIGO = "RES-PLAN-0001";
+    private static final int PASAJEROS = 6;
+    private static final int PAGOS = 3;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private ReservaMapper reservaMapper;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void prepararDatos() {
+        crearReserva();
+        entityManager.flush();
+        entityManager.clear();
+
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+    }
+
+    @Test
+    void detalleCompletoEnTresConsultas() {
+        Reserva reserva = reservaRepository.findDetalleCompletoByCodigoReserva(CODIGO).orElseThrow();
+        ReservaResponse respuesta = reservaMapper.toResponse(reserva);
+
+        assertThat(respuesta.getPasajeros()).hasSize(PASAJEROS);
+        assertThat(respuesta.getPagos()).hasSize(PAGOS);
+        assertThat(respuesta.getPagos()).allSatisfy(p -> assertThat(p.getComprobantes()).hasSize(1));
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void cancelacionEnUnaConsulta() {
+        Reserva reserva = reservaRepository.bloquearParaCancelacionByCodigoReserva(CODIGO).orElseThrow();
+
+        assertThat(reserva.getDetalles()).hasSize(PASAJEROS);
+        assertThat(reserva.getViaje().getRuta().getPuertoOrigen().getCiudad()).isEqualTo("Iquitos");
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void listadoPaginadoEnUnaConsultaPorPagina() {
+        CursorPaginacion.Posicion inicio = CursorPaginacion.INICIO;
+        List<ReservaSimpleResponse> pagina = reservaRepository.listarPagina(inicio.fecha(), inicio.id(),
+                EstadoReserva.PENDIENTE, null, null, null, null, PageRequest.of(0, 10));
+
+        assertThat(pagina).singleElement()
+                .satisfies(r -> assertThat(r.getCantidadPasajeros()).isEqualTo(PASAJEROS));
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+
+        // Continuar desde la última fila: no quedan reservas anteriores
+        ReservaSimpleResponse ultima = pagina.get(0);
+        CursorPaginacion.Posicion siguiente = CursorPaginacion.decodificar(
+                CursorPaginacion.codificar(ultima.getFechaReserva(), ultima.getIdReserva()));
+
+        assertThat(reservaRepository.listarPagina(siguiente.fecha(), siguiente.id(),
+                null, null, null, null, null, PageRequest.of(0, 10))).isEmpty();
+    }
+
+    private void crearReserva() {
+        Usuario usuario = entityManager.persist(Usuario.builder()
+                .nombresUsuario("Asesor").rol(Rol.ASESOR_VENTAS).email("asesor@zoealexa.pe")
+                .password("x").telefono("987654321").build());
+        Puerto origen = entityManager.persist(Puerto.builder()
+                .ciudad("Iquitos").nombrePuerto("Puerto Henry").tipoOperacion(TipoOperacion.AMBOS).build());
+        Puerto destino = entityManager.persist(Puerto.builder()
+                .ciudad("Yurimaguas").nombrePuerto("Puerto La Boca").tipoOperacion(TipoOperacion.AMBOS).build());
+        Ruta ruta = entityManager.persist(Ruta.builder()
+                .puertoOrigen(origen).puertoDestino(destino).diasOperacion("LUN,MIE,VIE").build());
+        Embarcacion embarcacion = entityManager.persist(Embarcacion.builder()
+                .nombreEmbarcacion("Eduardo VIII").capacidad(100).build());
+        Viaje viaje = entityManager.persist(Viaje.builder()
+                .ruta(ruta).embarcacion(embarcacion)
+                .fechaViaje(LocalDate.now().plusDays(5)).horaEmbarque(LocalTime.of(18, 0))
+                .cuposDisponibles(100).build());
+
+        BigDecimal precio = new BigDecimal("120.00");
+        Reserva reserva = entityManager.persist(Reserva.builder()
+                .codigoReserva(CODIGO).viaje(viaje).usuario(usuario)
+                .origen("Iquitos").destino("Yurimaguas")
+                .total(precio.multiply(BigDecimal.valueOf(PASAJEROS)))
+                .saldoPendiente(BigDecimal.ZERO).build());
+
+        for (int i = 0; i < PASAJEROS; i++) {
+            Pasajero pasajero = entityManager.persist(Pasajero.builder()
+                    .nombres("Pasajero " + i).apellidos("Plan")
+                    .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                    .tipoDocumento(TipoDocumento.DNI).numeroDocumento(String.format("%08d", i))
+                    .build());
+            ReservaDetalle detalle = entityManager.persist(ReservaDetalle.builder()
+                    .reserva(reserva).pasajero(pasajero).tipoTarifa("ADULTO")
+                    .precioBase(precio).precioFinal(precio).build());
+            reserva.getDetalles().add(detalle);
+
+            if (i % 2 == 0) {
+                entityManager.persist(Equipaje.builder()
+                        .reserva(reserva).reservaDetalle(detalle).pasajero(pasajero)
+                        .pesoKg(new BigDecimal("20.00")).limiteIncluido(new BigDecimal("15.00"))
+                        .precioPorKilo(new BigDecimal("10.00")).build());
+            }
+        }
+
+        for (int i = 0; i < PAGOS; i++) {
+            Pago pago = entityManager.persist(Pago.builder()
+                    .reserva(reserva).tipoPago(TipoPago.ANTICIPO).metodoPago(MetodoPago.YAPE)
+                    .monto(new BigDecimal("240.00")).build());
+            entityManager.persist(Comprobante.builder()
+                    .pago(pago).reserva(reserva).tipo(TipoComprobante.BOLETA)
+                    .serie("B001").numero(String.format("%08d", i + 1))
+                    .subtotal(new BigDecimal("203.39")).build());
+        }
+    }
+}
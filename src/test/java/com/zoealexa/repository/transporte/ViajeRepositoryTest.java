@@ -0,0 +1,126 @@
+package com.zoealexa.repository.transporte;
+
+import com.zoealexa.dto.transporte.ViajeBusquedaDTO;
+import com.zoealexa.entity.enums.TipoOperacion;
+import com.zoealexa.entity.transporte.Embarcacion;
+import com.zoealexa.entity.transporte.Puerto;
+import com.zoealexa.entity.transporte.Ruta;
+import com.zoealexa.entity.transporte.Viaje;
+import com.zoealexa.mapper.transporte.ViajeMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Carga del índice de viajes: la proyección FilaIndiceViaje debe resolverse
+ * en una consulta, frente a la carga de entidades + mapper (una consulta extra
+ * por cada ruta, puerto y embarcación distintos).
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:viajes;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ViajeRepositoryTest {
+
+    private static final int RUTAS = 3;
+    private static final int EMBARCACIONES = 4;
+    private static final int DIAS = 7;
+
+    // Camino anterior: entidades Viaje y asociaciones LAZY resueltas por el mapper
+    private static final String CONSULTA_ENTIDADES = "SELECT v FROM Viaje v " +
+            "WHERE v.estado = 'PROGRAMADO' ORDER BY v.idViaje ASC";
+
+    @Autowired
+    private ViajeRepository viajeRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void proyeccionCargaElIndiceEnUnaConsulta() {
+        crearViajes();
+
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        entityManager.clear();
+        estadisticas.clear();
+        List<ViajeBusquedaDTO> conEntidades = entityManager.getEntityManager()
+                .createQuery(CONSULTA_ENTIDADES, Viaje.class)
+                .getResultList().stream()
+                .map(ViajeMapper::toBusquedaDTO)
+                .toList();
+        long consultasEntidades = estadisticas.getPrepareStatementCount();
+
+        entityManager.clear();
+        estadisticas.clear();
+        List<ViajeBusquedaDTO> proyectados = viajeRepository.findFilasIndice().stream()
+                .sorted(Comparator.comparing(ViajeRepository.FilaIndiceViaje::getIdViaje))
+                .map(f -> ViajeBusquedaDTO.builder()
+                        .idViaje(f.getIdViaje())
+                        .nombreRuta(f.getNombreRuta())
+                        .nombreEmbarcacion(f.getNombreEmbarcacion())
+                        .fechaViaje(f.getFechaViaje())
+                        .horaEmbarque(f.getHoraEmbarque())
+                        .cuposDisponibles(f.getCuposDisponibles())
+                        .ciudadOrigen(f.getCiudadOrigen())
+                        .ciudadDestino(f.getCiudadDestino())
+                        .build())
+                .toList();
+        long consultasProyeccion = estadisticas.getPrepareStatementCount();
+
+        assertThat(proyectados).hasSize(RUTAS * DIAS);
+        assertThat(proyectados).containsExactlyElementsOf(conEntidades);
+        assertThat(consultasProyeccion).isEqualTo(1);
+        assertThat(consultasEntidades).isGreaterThan(consultasProyeccion);
+    }
+
+    private void crearViajes() {
+        List<Embarcacion> embarcaciones = new ArrayList<>();
+        for (int e = 0; e < EMBARCACIONES; e++) {
+            embarcaciones.add(entityManager.persist(Embarcacion.builder()
+                    .nombreEmbarcacion("Embarcación " + e).capacidad(200).build()));
+        }
+
+        for (int r = 0; r < RUTAS; r++) {
+            Puerto origen = entityManager.persist(Puerto.builder()
+                    .ciudad("Origen " + r).nombrePuerto("Puerto O" + r).tipoOperacion(TipoOperacion.AMBOS).build());
+            Puerto destino = entityManager.persist(Puerto.builder()
+                    .ciudad("Destino " + r).nombrePuerto("Puerto D" + r).tipoOperacion(TipoOperacion.AMBOS).build());
+            Ruta ruta = entityManager.persist(Ruta.builder()
+                    .puertoOrigen(origen).puertoDestino(destino).diasOperacion("LUN,MAR,MIE,JUE,VIE,SAB,DOM").build());
+
+            for (int d = 1; d <= DIAS; d++) {
+                entityManager.persist(Viaje.builder()
+                        .ruta(ruta)
+                        .embarcacion(embarcaciones.get((r + d) % EMBARCACIONES))
+                        .fechaViaje(LocalDate.now().plusDays(d))
+                        .horaEmbarque(LocalTime.of(6 + r, 0))
+                        .cuposDisponibles(200)
+                        .build());
+            }
+        }
+
+        entityManager.flush();
+    }
+}
@@ -0,0 +1,80 @@
+package com.zoealexa.security;
+
+import com.zoealexa.config.JpaConfig;
+import com.zoealexa.entity.enums.EstadoUsuario;
+import com.zoealexa.entity.enums.Rol;
+import com.zoealexa.entity.seguridad.Usuario;
+import com.zoealexa.repository.seguridad.UsuarioRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Estado de acceso para el filtro JWT: una consulta por usuario mientras la
+ * entrada está vigente, y el bloqueo se ve apenas se invalida.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:estadousuario;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JpaConfig.class, EstadoUsuarioCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EstadoUsuarioCacheTest {
+
+    private static final int REQUESTS = 1_000;
+
+    @Autowired
+    private EstadoUsuarioCache estadoUsuarioCache;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void consultaUnaVezYReflejaElBloqueoAlInvalidar() {
+        Usuario usuario = usuarioRepository.save(Usuario.builder()
+                .nombresUsuario("Agencia").rol(Rol.AGENCIA).email("agencia@zoealexa.pe")
+                .password("x").telefono("987654321").build());
+
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            assertThat(estadoUsuarioCache.estaHabilitado(usuario.getEmail())).isTrue();
+        }
+
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+
+        usuario.bloquearTemporalmente(1);
+        usuarioRepository.save(usuario);
+        // Sin invalidar, la entrada sigue vigente
+        assertThat(estadoUsuarioCache.estaHabilitado(usuario.getEmail())).isTrue();
+
+        estadoUsuarioCache.invalidar(usuario.getEmail());
+        assertThat(estadoUsuarioCache.estaHabilitado(usuario.getEmail())).isFalse();
+
+        usuario.setEstado(EstadoUsuario.ACTIVO);
+        usuario.setBloqueadoHasta(null);
+        usuarioRepository.save(usuario);
+        estadoUsuarioCache.invalidar(usuario.getEmail());
+        assertThat(estadoUsuarioCache.estaHabilitado(usuario.getEmail())).isTrue();
+
+        assertThat(estadoUsuarioCache.estaHabilitado("inexistente@zoealexa.pe")).isFalse();
+    }
+}
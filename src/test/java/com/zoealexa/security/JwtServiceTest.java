@@ -0,0 +1,46 @@
+package com.zoealexa.security;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verificación del JWT en un solo parseo con clave y parser precalculados:
+ * expone los claims y rechaza tokens alterados o vencidos.
+ */
+class JwtServiceTest {
+
+    private static final String SECRETO = Base64.getEncoder()
+            .encodeToString("clave-de-prueba-zoealexa-hmac-sha256-32b".getBytes());
+
+    private final JwtService jwtService = new JwtService(SECRETO, 3_600_000);
+
+    private final UserDetails usuario = User.withUsername("agencia@zoealexa.pe")
+            .password("").authorities("ROLE_AGENCIA").build();
+
+    @Test
+    void verificaUnaVezYExponeLosClaims() {
+        String token = jwtService.generateTokenWithUserId(7, "AGENCIA", 3, usuario);
+
+        TokenVerificado verificado = jwtService.verificar(token);
+
+        assertThat(verificado.email()).isEqualTo("agencia@zoealexa.pe");
+        assertThat(verificado.idUsuario()).isEqualTo(7);
+        assertThat(verificado.rol()).isEqualTo("AGENCIA");
+        assertThat(verificado.idAgencia()).isEqualTo(3);
+        assertThat(verificado.expira()).isAfter(verificado.emitido());
+        assertThat(jwtService.isTokenValid(token, usuario)).isTrue();
+
+        assertThatThrownBy(() -> jwtService.verificar(token.substring(0, token.length() - 2) + "xx"))
+                .isInstanceOf(JwtException.class);
+        String expirado = new JwtService(SECRETO, -1_000).generateTokenWithUserId(7, "AGENCIA", 3, usuario);
+        assertThatThrownBy(() -> jwtService.verificar(expirado))
+                .isInstanceOf(JwtException.class);
+    }
+}
@@ -0,0 +1,109 @@
+package com.zoealexa.security;
+
+import com.zoealexa.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pool acotado de BCrypt: con hilos y cola ocupados se rechaza de inmediato (429);
+ * un hash que vence su espera en la cola libera su lugar.
+ */
+class PasswordEncoderAcotadoTest {
+
+    @Test
+    void rechazaConColaLlena() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch enCurso = new CountDownLatch(1);
+        PasswordEncoder lento = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                enCurso.countDown();
+                esperar(liberar);
+                return super.matches(rawPassword, encodedPassword);
+            }
+        };
+        MeterRegistry registry = new SimpleMeterRegistry();
+        PasswordEncoderAcotado encoder = new PasswordEncoderAcotado(lento, 1, 1, 5_000, 3, registry);
+        String hash = encoder.encode("secreto");
+
+        ExecutorService clientes = Executors.newFixedThreadPool(2);
+        try {
+            // Uno ocupa el único hilo y otro la única posición de la cola
+            Future<Boolean> primero = clientes.submit(() -> encoder.matches("secreto", hash));
+            assertThat(enCurso.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<Boolean> segundo = clientes.submit(() -> encoder.matches("otro", hash));
+            while (registry.get("auth.password.cola").gauge().value() < 1) {
+                Thread.onSpinWait();
+            }
+
+            long inicio = System.nanoTime();
+            assertThatThrownBy(() -> encoder.matches("secreto", hash))
+                    .isInstanceOf(TooManyRequestsException.class)
+                    .extracting(e -> ((TooManyRequestsException) e).getReintentarEnSegundos())
+                    .isEqualTo(3L);
+            assertThat(System.nanoTime() - inicio).isLessThan(TimeUnit.MILLISECONDS.toNanos(500));
+
+            liberar.countDown();
+            assertThat(primero.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(segundo.get(5, TimeUnit.SECONDS)).isFalse();
+        } finally {
+            clientes.shutdownNow();
+            encoder.destroy();
+        }
+
+        assertThat(registry.get("auth.password.rechazos").counter().count()).isEqualTo(1);
+        assertThat(registry.get("auth.password.hash").tag("operacion", "verificar").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void esperaVencidaLiberaElLugarEnLaCola() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch enCurso = new CountDownLatch(1);
+        PasswordEncoder lento = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                enCurso.countDown();
+                esperar(liberar);
+                return super.matches(rawPassword, encodedPassword);
+            }
+        };
+        MeterRegistry registry = new SimpleMeterRegistry();
+        PasswordEncoderAcotado encoder = new PasswordEncoderAcotado(lento, 1, 1, 100, 3, registry);
+        String hash = encoder.encode("secreto");
+
+        ExecutorService clientes = Executors.newSingleThreadExecutor();
+        try {
+            clientes.submit(() -> encoder.matches("secreto", hash));
+            assertThat(enCurso.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Espera en la cola hasta vencer: al rechazarse deja la cola vacía
+            assertThatThrownBy(() -> encoder.matches("secreto", hash))
+                    .isInstanceOf(TooManyRequestsException.class);
+            assertThat(registry.get("auth.password.cola").gauge().value()).isZero();
+        } finally {
+            liberar.countDown();
+            clientes.shutdownNow();
+            encoder.destroy();
+        }
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.zoealexa.service.comprobante;
+
+import com.zoealexa.config.JpaConfig;
+import com.zoealexa.entity.comprobantes.Comprobante;
+import com.zoealexa.entity.enums.MetodoPago;
+import com.zoealexa.entity.enums.Rol;
+import com.zoealexa.entity.enums.TipoComprobante;
+import com.zoealexa.entity.enums.TipoOperacion;
+import com.zoealexa.entity.enums.TipoPago;
+import com.zoealexa.entity.pagos.Pago;
+import com.zoealexa.entity.reservas.Reserva;
+import com.zoealexa.entity.secuencias.ContadorSecuencia;
+import com.zoealexa.entity.seguridad.Usuario;
+import com.zoealexa.entity.transporte.Embarcacion;
+import com.zoealexa.entity.transporte.Puerto;
+import com.zoealexa.entity.transporte.Ruta;
+import com.zoealexa.entity.transporte.Viaje;
+import com.zoealexa.repository.pago.ComprobanteRepository;
+import com.zoealexa.repository.pago.PagoRepository;
+import com.zoealexa.repository.reservas.ContadorSecuenciaRepository;
+import com.zoealexa.repository.reservas.ReservaRepository;
+import com.zoealexa.repository.seguridad.UsuarioRepository;
+import com.zoealexa.repository.transporte.EmbarcacionRepository;
+import com.zoealexa.repository.transporte.PuertoRepository;
+import com.zoealexa.repository.transporte.RutaRepository;
+import com.zoealexa.repository.transporte.ViajeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Numeración de comprobantes por serie: sin repetidos ni huecos con emisiones
+ * concurrentes, una serie no espera a la otra, el rollback devuelve el número
+ * y la reconciliación retrocede el contador e informa los huecos intermedios.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:numeracion;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JpaConfig.class, NumeracionComprobanteService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NumeracionComprobanteServiceTest {
+
+    private static final List<String> SERIES = List.of("B001", "F001");
+    private static final int HILOS = 8;
+    private static final int EMISIONES_POR_HILO = 25;
+    private static final int NUMEROS_POR_EMISION = 3;
+
+    @Autowired
+    private NumeracionComprobanteService numeracion;
+
+    @Autowired
+    private ContadorSecuenciaRepository contadorRepository;
+
+    @Autowired
+    private ComprobanteRepository comprobanteRepository;
+
+    @Autowired
+    private PagoRepository pagoRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PuertoRepository puertoRepository;
+
+    @Autowired
+    private RutaRepository rutaRepository;
+
+    @Autowired
+    private EmbarcacionRepository embarcacionRepository;
+
+    @Autowired
+    private ViajeRepository viajeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void preparar() {
+        tx = new TransactionTemplate(transactionManager);
+        comprobanteRepository.deleteAll();
+        // El contador se crea con INSERT ... ON CONFLICT (PostgreSQL): aquí ya existe
+        for (String serie : SERIES) {
+            contadorRepository.save(ContadorSecuencia.builder().clave("CP-" + serie).valor(0L).build());
+        }
+    }
+
+    @Test
+    void dosSeriesConcurrentesNoRepitenNiSaltanNumeros() throws Exception {
+        Map<String, Set<String>> numeros = Map.of(
+                "B001", ConcurrentHashMap.newKeySet(), "F001", ConcurrentHashMap.newKeySet());
+        CountDownLatch inicio = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < HILOS; h++) {
+                String serie = SERIES.get(h % 2);
+                tareas.add(pool.submit(() -> {
+                    inicio.await();
+                    for (int i = 0; i < EMISIONES_POR_HILO; i++) {
+                        numeros.get(serie).addAll(tx.execute(status ->
+                                numeracion.reservarNumeros(serie, NUMEROS_POR_EMISION)));
+                    }
+                    return null;
+                }));
+            }
+            inicio.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int porSerie = HILOS / 2 * EMISIONES_POR_HILO * NUMEROS_POR_EMISION;
+        for (String serie : SERIES) {
+            assertThat(numeros.get(serie)).hasSize(porSerie)
+                    .contains(String.format("%08d", 1), String.format("%08d", porSerie));
+            assertThat(contadorRepository.obtenerValor("CP-" + serie)).contains((long) porSerie);
+        }
+    }
+
+    @Test
+    void unaSerieBloqueadaNoDetieneALaOtra() throws Exception {
+        CountDownLatch boletaTomada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            // La transacción de la boleta mantiene bloqueada la fila de B001
+            Future<List<String>> boleta = pool.submit(() -> tx.execute(status -> {
+                List<String> asignados = numeracion.reservarNumeros("B001", 1);
+                boletaTomada.countDown();
+                await(liberar);
+                return asignados;
+            }));
+            assertThat(boletaTomada.await(10, TimeUnit.SECONDS)).isTrue();
+
+            List<String> factura = tx.execute(status -> numeracion.reservarNumeros("F001", 1));
+
+            liberar.countDown();
+            assertThat(factura).containsExactly("00000001");
+            assertThat(boleta.get(10, TimeUnit.SECONDS)).containsExactly("00000001");
+        } finally {
+            liberar.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void rollbackDevuelveLosNumerosYLaRecuperacionRetrocedeElContador() {
+        Pago pago = crearPago();
+
+        List<String> revertidos = tx.execute(status -> {
+            List<String> asignados = numeracion.reservarNumeros("B001", 2);
+            status.setRollbackOnly();
+            return asignados;
+        });
+        // Emisión confirmada, pero el comprobante 3 y los finales nunca se guardaron
+        List<String> asignados = tx.execute(status -> numeracion.reservarNumeros("B001", 6));
+        for (String numero : List.of("00000001", "00000002", "00000004")) {
+            emitir(pago, "B001", numero);
+        }
+
+        assertThat(revertidos).containsExactly("00000001", "00000002");
+        assertThat(asignados).first().isEqualTo("00000001");
+        assertThat(numeracion.detectarHuecos("B001")).containsExactly(3L, 5L, 6L);
+
+        assertThat(numeracion.recuperarNumerosFinales("B001")).isEqualTo(2);
+
+        assertThat(contadorRepository.obtenerValor("CP-B001")).contains(4L);
+        assertThat(numeracion.detectarHuecos("B001")).containsExactly(3L);
+        String siguiente = tx.execute(status -> numeracion.siguienteNumero("B001"));
+        assertThat(siguiente).isEqualTo("00000005");
+        assertThat(numeracion.recuperarNumerosFinales("F001")).isZero();
+    }
+
+    private void emitir(Pago pago, String serie, String numero) {
+        comprobanteRepository.save(Comprobante.builder()
+                .pago(pago)
+                .reserva(pago.getReserva())
+                .tipo(TipoComprobante.BOLETA)
+                .serie(serie)
+                .numero(numero)
+                .subtotal(new BigDecimal("67.80"))
+                .build());
+    }
+
+    private Pago crearPago() {
+        Usuario asesor = usuarioRepository.save(Usuario.builder()
+                .nombresUsuario("Asesor").rol(Rol.ASESOR_VENTAS).email("caja@zoealexa.pe")
+                .password("x").telefono("987654321").build());
+        Puerto origen = puertoRepository.save(Puerto.builder()
+                .ciudad("Iquitos").nombrePuerto("Puerto Henry").tipoOperacion(TipoOperacion.AMBOS).build());
+        Puerto destino = puertoRepository.save(Puerto.builder()
+                .ciudad("Yurimaguas").nombrePuerto("Puerto La Boca").tipoOperacion(TipoOperacion.AMBOS).build());
+        Ruta ruta = rutaRepository.save(Ruta.builder()
+                .puertoOrigen(origen).puertoDestino(destino).diasOperacion("LUN,MIE,VIE").build());
+        Embarcacion embarcacion = embarcacionRepository.save(Embarcacion.builder()
+                .nombreEmbarcacion("Eduardo").capacidad(300).build());
+        Viaje viaje = viajeRepository.save(Viaje.builder()
+                .ruta(ruta).embarcacion(embarcacion)
+                .fechaViaje(LocalDate.now().plusDays(5)).horaEmbarque(LocalTime.of(18, 0))
+                .cuposDisponibles(300).build());
+        Reserva reserva = reservaRepository.save(Reserva.builder()
+                .codigoReserva("RV-2030-000001").viaje(viaje).usuario(asesor)
+                .origen("Iquitos").destino("Yurimaguas")
+                .total(new BigDecimal("80.00")).saldoPendiente(BigDecimal.ZERO).build());
+
+        return pagoRepository.save(Pago.builder()
+                .reserva(reserva).tipoPago(TipoPago.COMPLETO).metodoPago(MetodoPago.EFECTIVO)
+                .monto(new BigDecimal("80.00")).build());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.zoealexa.service.reserva;
+
+import com.zoealexa.entity.reservas.Reserva;
+import com.zoealexa.entity.seguridad.Agencia;
+import com.zoealexa.exception.ConflictException;
+import com.zoealexa.security.ContextoSeguridad;
+import com.zoealexa.security.TokenVerificado;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Permisos sobre una reserva ya cargada: el usuario sale de los claims del
+ * token verificado, sin repositorios (cualquier consulta fallaría).
+ */
+class AutorizacionServiceTest {
+
+    private final ContextoSeguridad contextoSeguridad = new ContextoSeguridad(null);
+    private final AutorizacionService autorizacionService = new AutorizacionService(contextoSeguridad, null);
+
+    @AfterEach
+    void limpiar() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void agenciaSoloAccedeASusReservas() {
+        autenticar("agencia@zoealexa.pe", "AGENCIA", 3);
+
+        assertThat(autorizacionService.obtenerIdAgenciaActual()).isEqualTo(3);
+        autorizacionService.validarAccesoReserva(reserva("RES-1", 3));
+        assertThatThrownBy(() -> autorizacionService.validarAccesoReserva(reserva("RES-2", 4)))
+                .isInstanceOf(ConflictException.class);
+        assertThat(autorizacionService.puedeVerReserva(reserva("RES-3", null))).isFalse();
+        autorizacionService.validarCreacionReserva(3);
+
+        // Resuelto una sola vez por request
+        assertThat(contextoSeguridad.usuarioActual()).isSameAs(contextoSeguridad.usuarioActual());
+    }
+
+    @Test
+    void asesorAccedeATodas() {
+        autenticar("asesor@zoealexa.pe", "ASESOR_VENTAS", null);
+
+        assertThat(autorizacionService.obtenerIdAgenciaActual()).isNull();
+        autorizacionService.validarAccesoReserva(reserva("RES-4", 4));
+        autorizacionService.validarAccesoReserva(reserva("RES-5", null));
+    }
+
+    private static void autenticar(String email, String rol, Integer idAgencia) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(TokenVerificado.ATRIBUTO, new TokenVerificado(
+                email, 7, rol, idAgencia, Instant.now(), Instant.now().plusSeconds(3600)));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                email, null, AuthorityUtils.createAuthorityList("ROLE_" + rol)));
+    }
+
+    private static Reserva reserva(String codigo, Integer idAgencia) {
+        return Reserva.builder()
+                .codigoReserva(codigo)
+                .agencia(idAgencia != null ? Agencia.builder().idAgencia(idAgencia).build() : null)
+                .build();
+    }
+}
@@ -0,0 +1,136 @@
+package com.zoealexa.service.reserva;
+
+import com.zoealexa.config.JpaConfig;
+import com.zoealexa.dto.reserva.BloquearCuposRequest;
+import com.zoealexa.entity.enums.EstadoBloqueo;
+import com.zoealexa.entity.enums.Rol;
+import com.zoealexa.entity.enums.TipoOperacion;
+import com.zoealexa.entity.reservas.BloqueoCupo;
+import com.zoealexa.entity.seguridad.Usuario;
+import com.zoealexa.entity.transporte.Embarcacion;
+import com.zoealexa.entity.transporte.Puerto;
+import com.zoealexa.entity.transporte.Ruta;
+import com.zoealexa.entity.transporte.Viaje;
+import com.zoealexa.exception.OperacionNoPermitidaException;
+import com.zoealexa.repository.reservas.BloqueoCupoRepository;
+import com.zoealexa.repository.seguridad.UsuarioRepository;
+import com.zoealexa.repository.transporte.EmbarcacionRepository;
+import com.zoealexa.repository.transporte.PuertoRepository;
+import com.zoealexa.repository.transporte.RutaRepository;
+import com.zoealexa.repository.transporte.ViajeRepository;
+import com.zoealexa.service.transporte.IndiceViajesService;
+import com.zoealexa.service.transporte.VersionCatalogoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Los bloqueos vencidos se expiran desde la base de datos aunque el nodo que
+ * los creó no los tenga programados, y solo su dueño puede usarlos.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bloqueos;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JpaConfig.class, BloqueoCupoService.class, InventarioCuposService.class, IndiceViajesService.class, VersionCatalogoService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BloqueoCupoServiceTest {
+
+    @Autowired
+    private BloqueoCupoService bloqueoCupoService;
+
+    @Autowired
+    private BloqueoCupoRepository bloqueoCupoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ViajeRepository viajeRepository;
+
+    @Autowired
+    private RutaRepository rutaRepository;
+
+    @Autowired
+    private PuertoRepository puertoRepository;
+
+    @Autowired
+    private EmbarcacionRepository embarcacionRepository;
+
+    @Test
+    void barridoExpiraBloqueosVencidosYDevuelveCupos() {
+        Integer idUsuario = crearUsuario("asesor1@zoealexa.pe").getIdUsuario();
+        Integer idViaje = crearViaje().getIdViaje();
+
+        String codigo = bloqueoCupoService.bloquear(
+                BloquearCuposRequest.builder().idViaje(idViaje).cantidad(3).build(), idUsuario).getCodigoBloqueo();
+        assertThat(viajeRepository.findById(idViaje).orElseThrow().getCuposOcupados()).isEqualTo(3);
+
+        // Vencido en la base de datos antes de que la cola de este nodo lo atienda
+        BloqueoCupo bloqueo = bloqueoCupoRepository.findByCodigo(codigo).orElseThrow();
+        bloqueo.setFechaExpiracion(LocalDateTime.now().minusMinutes(1));
+        bloqueoCupoRepository.save(bloqueo);
+
+        bloqueoCupoService.expirarVencidos();
+        bloqueoCupoService.expirarVencidos();
+
+        assertThat(bloqueoCupoRepository.findByCodigo(codigo).orElseThrow().getEstado())
+                .isEqualTo(EstadoBloqueo.EXPIRADO);
+        assertThat(viajeRepository.findById(idViaje).orElseThrow().getCuposOcupados()).isZero();
+    }
+
+    @Test
+    void bloqueoAjenoNoSePuedeLiberar() {
+        Integer idDueno = crearUsuario("asesor2@zoealexa.pe").getIdUsuario();
+        Integer idOtro = crearUsuario("asesor3@zoealexa.pe").getIdUsuario();
+        Integer idViaje = crearViaje().getIdViaje();
+
+        String codigo = bloqueoCupoService.bloquear(
+                BloquearCuposRequest.builder().idViaje(idViaje).cantidad(2).build(), idDueno).getCodigoBloqueo();
+
+        assertThatThrownBy(() -> bloqueoCupoService.liberar(codigo, idOtro))
+                .isInstanceOf(OperacionNoPermitidaException.class);
+        assertThat(bloqueoCupoRepository.findByCodigo(codigo).orElseThrow().getEstado())
+                .isEqualTo(EstadoBloqueo.ACTIVO);
+    }
+
+    private Usuario crearUsuario(String email) {
+        return usuarioRepository.save(Usuario.builder()
+                .nombresUsuario("Asesor").rol(Rol.ASESOR_VENTAS).email(email)
+                .password("x").telefono("987654321").build());
+    }
+
+    private Viaje crearViaje() {
+        Puerto origen = puertoRepository.save(Puerto.builder()
+                .ciudad("Iquitos").nombrePuerto("Puerto Henry").tipoOperacion(TipoOperacion.AMBOS).build());
+        Puerto destino = puertoRepository.save(Puerto.builder()
+                .ciudad("Yurimaguas").nombrePuerto("Puerto La Boca").tipoOperacion(TipoOperacion.AMBOS).build());
+        Ruta ruta = rutaRepository.save(Ruta.builder()
+                .puertoOrigen(origen).puertoDestino(destino).diasOperacion("LUN,MAR,MIE,JUE,VIE,SAB,DOM").build());
+        Embarcacion embarcacion = embarcacionRepository.save(Embarcacion.builder()
+                .nombreEmbarcacion("Eduardo " + System.nanoTime()).capacidad(20).build());
+
+        return viajeRepository.save(Viaje.builder()
+                .ruta(ruta)
+                .embarcacion(embarcacion)
+                .fechaViaje(LocalDate.now().plusDays(5))
+                .horaEmbarque(LocalTime.of(18, 0))
+                .cuposDisponibles(20)
+                .build());
+    }
+}
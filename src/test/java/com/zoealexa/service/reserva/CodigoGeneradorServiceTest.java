@@ -0,0 +1,115 @@
+package com.zoealexa.service.reserva;
+
+import com.zoealexa.entity.secuencias.ContadorSecuencia;
+import com.zoealexa.repository.reservas.ContadorSecuenciaRepository;
+import com.zoealexa.service.comprobante.NumeracionComprobanteService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Códigos de reserva generados por dos instancias (dos nodos) a la vez:
+ * nunca se repiten, tampoco al cambiar de año. Con más reservas en curso que
+ * conexiones en el pool, renovar el bloque no espera una segunda conexión.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:codigos;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "spring.datasource.hikari.connection-timeout=5000",
+        "app.reservas.codigo.tamano-bloque=5"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CodigoGeneradorService.class, NumeracionComprobanteService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CodigoGeneradorServiceTest {
+
+    private static final int HILOS_POR_INSTANCIA = 8;
+    private static final int CODIGOS_POR_HILO = 200;
+
+    @Autowired
+    private CodigoGeneradorService generador;
+
+    @Autowired
+    private ContadorSecuenciaRepository contadorRepository;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void dosInstanciasConcurrentesNoRepitenCodigos() throws Exception {
+        CodigoGeneradorService otroNodo = beanFactory.createBean(CodigoGeneradorService.class);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Set<String> codigos = ConcurrentHashMap.newKeySet();
+        CountDownLatch inicio = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS_POR_INSTANCIA * 2);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < HILOS_POR_INSTANCIA * 2; h++) {
+                CodigoGeneradorService instancia = h % 2 == 0 ? generador : otroNodo;
+                tareas.add(pool.submit(() -> {
+                    inicio.await();
+                    for (int i = 0; i < CODIGOS_POR_HILO; i++) {
+                        // Como en crearReserva: el código se genera con la transacción abierta
+                        String codigo = tx.execute(status -> instancia.generarCodigoReserva(2030));
+                        assertThat(codigos.add(codigo)).isTrue();
+                    }
+                    return null;
+                }));
+            }
+            inicio.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(codigos).hasSize(HILOS_POR_INSTANCIA * 2 * CODIGOS_POR_HILO);
+        assertThat(codigos).allMatch(c -> c.startsWith("RV-2030-"));
+    }
+
+    @Test
+    void cambioDeAnioReiniciaLaNumeracionSinRepetir() {
+        CodigoGeneradorService otroNodo = beanFactory.createBean(CodigoGeneradorService.class);
+        // Contador anual previo a las secuencias: la numeración continúa tras él
+        contadorRepository.save(ContadorSecuencia.builder().clave("RV-2032").valor(120L).build());
+
+        assertThat(generador.generarCodigoReserva(2031)).isEqualTo("RV-2031-000001");
+        assertThat(otroNodo.generarCodigoReserva(2031)).isEqualTo("RV-2031-000006");
+
+        // Un nodo ya pasó al año nuevo mientras el otro sigue en el anterior
+        assertThat(generador.generarCodigoReserva(2032)).isEqualTo("RV-2032-000121");
+        assertThat(otroNodo.generarCodigoReserva(2031)).isEqualTo("RV-2031-000007");
+        assertThat(otroNodo.generarCodigoReserva(2032)).isEqualTo("RV-2032-000126");
+
+        // Volver al año anterior toma un bloque nuevo, no reutiliza el abandonado
+        assertThat(generador.generarCodigoReserva(2031)).isEqualTo("RV-2031-000011");
+    }
+}
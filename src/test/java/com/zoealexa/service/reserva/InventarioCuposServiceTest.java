@@ -0,0 +1,147 @@
+package com.zoealexa.service.reserva;
+
+import com.zoealexa.entity.enums.TipoOperacion;
+import com.zoealexa.entity.transporte.Embarcacion;
+import com.zoealexa.entity.transporte.Puerto;
+import com.zoealexa.entity.transporte.Ruta;
+import com.zoealexa.entity.transporte.Viaje;
+import com.zoealexa.exception.ConflictException;
+import com.zoealexa.repository.transporte.EmbarcacionRepository;
+import com.zoealexa.repository.transporte.PuertoRepository;
+import com.zoealexa.repository.transporte.RutaRepository;
+import com.zoealexa.repository.transporte.ViajeRepository;
+import com.zoealexa.service.transporte.IndiceViajesService;
+import com.zoealexa.service.transporte.VersionCatalogoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de estrés: muchas reservas concurrentes sobre el mismo viaje
+ * nunca deben sobrevender cupos.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cupos;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({InventarioCuposService.class, IndiceViajesService.class, VersionCatalogoService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventarioCuposServiceTest {
+
+    private static final int CAPACIDAD = 300;
+    private static final int HILOS = 64;
+    private static final int INTENTOS_POR_HILO = 20;
+
+    @Autowired
+    private InventarioCuposService inventarioCuposService;
+
+    @Autowired
+    private ViajeRepository viajeRepository;
+
+    @Autowired
+    private RutaRepository rutaRepository;
+
+    @Autowired
+    private PuertoRepository puertoRepository;
+
+    @Autowired
+    private EmbarcacionRepository embarcacionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void reservasConcurrentesNoSobrevenden() throws Exception {
+        Integer idViaje = crearViaje(CAPACIDAD).getIdViaje();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        AtomicInteger cuposVendidos = new AtomicInteger();
+        AtomicInteger rechazos = new AtomicInteger();
+        CountDownLatch inicio = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+
+        for (int h = 0; h < HILOS; h++) {
+            int cantidad = (h % 3) + 1;
+            pool.submit(() -> {
+                inicio.await();
+                for (int i = 0; i < INTENTOS_POR_HILO; i++) {
+                    try {
+                        tx.executeWithoutResult(status -> inventarioCuposService.reservar(
+                                viajeRepository.findById(idViaje).orElseThrow(), cantidad));
+                        cuposVendidos.addAndGet(cantidad);
+                    } catch (ConflictException e) {
+                        rechazos.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        inicio.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+
+        Viaje viaje = viajeRepository.findById(idViaje).orElseThrow();
+        assertThat(rechazos.get()).isPositive();
+        assertThat(viaje.getCuposDisponibles()).isGreaterThanOrEqualTo(0);
+        assertThat(viaje.getCuposOcupados()).isEqualTo(cuposVendidos.get());
+        assertThat(viaje.getCuposOcupados() + viaje.getCuposDisponibles()).isEqualTo(CAPACIDAD);
+        assertThat(cuposVendidos.get()).isLessThanOrEqualTo(CAPACIDAD);
+    }
+
+    @Test
+    void liberarDevuelveCuposSinQuedarNegativo() {
+        Integer idViaje = crearViaje(10).getIdViaje();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        tx.executeWithoutResult(status -> inventarioCuposService.reservar(
+                viajeRepository.findById(idViaje).orElseThrow(), 4));
+        tx.executeWithoutResult(status -> inventarioCuposService.liberar(
+                viajeRepository.findById(idViaje).orElseThrow(), 4));
+        tx.executeWithoutResult(status -> inventarioCuposService.liberar(
+                viajeRepository.findById(idViaje).orElseThrow(), 4));
+
+        Viaje viaje = viajeRepository.findById(idViaje).orElseThrow();
+        assertThat(viaje.getCuposOcupados()).isZero();
+        assertThat(viaje.getCuposDisponibles()).isEqualTo(10);
+    }
+
+    private Viaje crearViaje(int capacidad) {
+        Puerto origen = puertoRepository.save(Puerto.builder()
+                .ciudad("Iquitos").nombrePuerto("Puerto Henry").tipoOperacion(TipoOperacion.AMBOS).build());
+        Puerto destino = puertoRepository.save(Puerto.builder()
+                .ciudad("Yurimaguas").nombrePuerto("Puerto La Boca").tipoOperacion(TipoOperacion.AMBOS).build());
+        Ruta ruta = rutaRepository.save(Ruta.builder()
+                .puertoOrigen(origen).puertoDestino(destino).diasOperacion("LUN,MAR,MIE,JUE,VIE,SAB,DOM").build());
+        Embarcacion embarcacion = embarcacionRepository.save(Embarcacion.builder()
+                .nombreEmbarcacion("Eduardo " + System.nanoTime()).capacidad(capacidad).build());
+
+        return viajeRepository.save(Viaje.builder()
+                .ruta(ruta)
+                .embarcacion(embarcacion)
+                .fechaViaje(LocalDate.now().plusDays(5))
+                .horaEmbarque(LocalTime.of(18, 0))
+                .cuposDisponibles(capacidad)
+                .build());
+    }
+}
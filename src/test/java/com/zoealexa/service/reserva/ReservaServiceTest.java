@@ -0,0 +1,223 @@
+package com.zoealexa.service.reserva;
+
+import com.zoealexa.config.JpaConfig;
+import com.zoealexa.dto.reserva.CancelarReservaRequest;
+import com.zoealexa.dto.reserva.CrearReservaRequest;
+import com.zoealexa.dto.reserva.PasajeroReservaRequest;
+import com.zoealexa.dto.reserva.response.ReservaResponse;
+import com.zoealexa.entity.enums.Rol;
+import com.zoealexa.entity.enums.TipoDocumento;
+import com.zoealexa.entity.enums.TipoOperacion;
+import com.zoealexa.entity.seguridad.Usuario;
+import com.zoealexa.entity.tarifas.TarifaRuta;
+import com.zoealexa.entity.transporte.Embarcacion;
+import com.zoealexa.entity.transporte.Puerto;
+import com.zoealexa.entity.transporte.Ruta;
+import com.zoealexa.entity.transporte.Viaje;
+import com.zoealexa.mapper.reserva.ReservaMapper;
+import com.zoealexa.repository.seguridad.UsuarioRepository;
+import com.zoealexa.repository.tarifas.TarifaRutaRepository;
+import com.zoealexa.repository.transporte.EmbarcacionRepository;
+import com.zoealexa.repository.transporte.PuertoRepository;
+import com.zoealexa.repository.transporte.RutaRepository;
+import com.zoealexa.repository.transporte.ViajeRepository;
+import com.zoealexa.security.ContextoSeguridad;
+import com.zoealexa.security.TokenVerificado;
+import com.zoealexa.service.comprobante.NumeracionComprobanteService;
+import com.zoealexa.service.tarifas.IndiceTarifasService;
+import com.zoealexa.service.tarifas.MotorPenalidadesService;
+import com.zoealexa.service.tarifas.TablaDescuentosService;
+import com.zoealexa.service.transporte.IndiceViajesService;
+import com.zoealexa.service.transporte.VersionCatalogoService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reserva de un grupo de 50 pasajeros nuevos por el flujo real de creación:
+ * con IDs por secuencia pooled, pasajeros y detalles se insertan en lotes
+ * JDBC y no con una sentencia por pasajero. La consulta y la cancelación por
+ * el servicio (con autorización y bloqueo) ejecutan un número fijo de sentencias.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reserva-grupo;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JpaConfig.class, ReservaService.class, ReservaMapper.class, CalculoService.class,
+        TablaDescuentosService.class, MotorPenalidadesService.class, CodigoGeneradorService.class,
+        NumeracionComprobanteService.class, AutorizacionService.class,
+        ContextoSeguridad.class, InventarioCuposService.class, BloqueoCupoService.class,
+        IndiceTarifasService.class, IndiceViajesService.class, VersionCatalogoService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReservaServiceTest {
+
+    private static final int PASAJEROS = 50;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PuertoRepository puertoRepository;
+
+    @Autowired
+    private RutaRepository rutaRepository;
+
+    @Autowired
+    private EmbarcacionRepository embarcacionRepository;
+
+    @Autowired
+    private ViajeRepository viajeRepository;
+
+    @Autowired
+    private TarifaRutaRepository tarifaRutaRepository;
+
+    @Autowired
+    private IndiceTarifasService indiceTarifasService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void limpiar() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void grupoDePasajerosSeInsertaEnLotes() {
+        Usuario asesor = autenticarAsesor("asesor@zoealexa.pe");
+        Viaje viaje = crearViaje("Eduardo");
+        CrearReservaRequest request = solicitud(viaje, PASAJEROS, 0);
+
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        ReservaResponse reserva = reservaService.crearReserva(request, asesor.getIdUsuario());
+
+        // 50 pasajeros + 50 detalles + la reserva, en lotes: las sentencias no crecen con el grupo
+        assertThat(reserva.getCodigoReserva()).isNotBlank();
+        assertThat(estadisticas.getEntityInsertCount()).isEqualTo(2 * PASAJEROS + 1);
+        assertThat(estadisticas.getPrepareStatementCount()).isLessThan(PASAJEROS / 2);
+        assertThat(viajeRepository.findById(viaje.getIdViaje()).orElseThrow().getCuposOcupados())
+                .isEqualTo(PASAJEROS);
+    }
+
+    @Test
+    void consultaYCancelacionConConsultasFijas() {
+        Usuario asesor = autenticarAsesor("caja@zoealexa.pe");
+        String codigo = reservaService.crearReserva(solicitud(crearViaje("Gilmer"), 3, PASAJEROS),
+                asesor.getIdUsuario()).getCodigoReserva();
+
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        // Detalle: reserva con pasajeros, pagos y comprobantes de los pagos
+        ReservaResponse detalle = reservaService.buscarPorCodigo(codigo);
+
+        assertThat(detalle.getPasajeros()).hasSize(3);
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(3);
+
+        estadisticas.clear();
+
+        // Cancelación: la consulta que bloquea la reserva es la misma que la carga;
+        // luego el cambio de estado, el registro de cancelación, los cupos del viaje
+        // (UPDATE y refresh) y el usuario que figura en la respuesta
+        reservaService.cancelarReserva(CancelarReservaRequest.builder()
+                .codigoReserva(codigo).motivo("Cambio de planes").build(), asesor.getIdUsuario());
+
+        assertThat(Arrays.stream(estadisticas.getQueries()).filter(q -> q.startsWith("SELECT r FROM Reserva r")))
+                .singleElement().asString().contains("JOIN FETCH");
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(6);
+    }
+
+    /**
+     * Asesor autenticado con el token ya verificado en el request, como lo deja
+     * el filtro JWT: el usuario actual sale de los claims, sin consultarlo
+     */
+    private Usuario autenticarAsesor(String email) {
+        Usuario asesor = usuarioRepository.save(Usuario.builder()
+                .nombresUsuario("Asesor").rol(Rol.ASESOR_VENTAS).email(email)
+                .password("x").telefono("987654321").build());
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                email, null, AuthorityUtils.createAuthorityList("ROLE_ASESOR_VENTAS")));
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(TokenVerificado.ATRIBUTO, new TokenVerificado(email, asesor.getIdUsuario(),
+                Rol.ASESOR_VENTAS.name(), null, Instant.now(), Instant.now().plusSeconds(3600)));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return asesor;
+    }
+
+    private static CrearReservaRequest solicitud(Viaje viaje, int cantidad, int primerDocumento) {
+        List<PasajeroReservaRequest> pasajeros = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            pasajeros.add(PasajeroReservaRequest.builder()
+                    .nombres("Pasajero " + i)
+                    .apellidos("Grupo")
+                    .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                    .tipoDocumento(TipoDocumento.DNI)
+                    .numeroDocumento(String.format("%08d", primerDocumento + i))
+                    .build());
+        }
+        return CrearReservaRequest.builder()
+                .idViaje(viaje.getIdViaje())
+                .pasajeros(pasajeros)
+                .build();
+    }
+
+    private Viaje crearViaje(String nombreEmbarcacion) {
+        Puerto origen = puertoRepository.save(Puerto.builder()
+                .ciudad("Iquitos").nombrePuerto("Puerto Henry").tipoOperacion(TipoOperacion.AMBOS).build());
+        Puerto destino = puertoRepository.save(Puerto.builder()
+                .ciudad("Yurimaguas").nombrePuerto("Puerto La Boca").tipoOperacion(TipoOperacion.AMBOS).build());
+        Ruta ruta = rutaRepository.save(Ruta.builder()
+                .puertoOrigen(origen).puertoDestino(destino).diasOperacion("LUN,MAR,MIE,JUE,VIE,SAB,DOM").build());
+        tarifaRutaRepository.save(TarifaRuta.builder()
+                .ruta(ruta).precioBase(new BigDecimal("80.00"))
+                .fechaInicio(LocalDateTime.now().minusDays(1)).build());
+        indiceTarifasService.recargar();
+        Embarcacion embarcacion = embarcacionRepository.save(Embarcacion.builder()
+                .nombreEmbarcacion(nombreEmbarcacion).capacidad(300).build());
+
+        return viajeRepository.save(Viaje.builder()
+                .ruta(ruta)
+                .embarcacion(embarcacion)
+                .fechaViaje(LocalDate.now().plusDays(5))
+                .horaEmbarque(LocalTime.of(18, 0))
+                .cuposDisponibles(300)
+                .build());
+    }
+}
@@ -0,0 +1,59 @@
+package com.zoealexa.service.transporte;
+
+import com.zoealexa.service.transporte.AgendaEmbarcacion.Ocupacion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * La agenda de una embarcación detecta los mismos cruces que una comparación
+ * contra todos los viajes, incluso con solapamientos ya existentes.
+ */
+class AgendaEmbarcacionTest {
+
+    private final Random random = new Random(7);
+
+    @Test
+    void buscarCruceCoincideConComparacionCompleta() {
+        List<Ocupacion> ocupaciones = new ArrayList<>();
+        for (int i = 1; i <= 500; i++) {
+            long salida = random.nextInt(1_000_000);
+            ocupaciones.add(new Ocupacion(i, salida, salida + 1 + random.nextInt(40_000)));
+        }
+        AgendaEmbarcacion agenda = AgendaEmbarcacion.de(ocupaciones);
+
+        for (int i = 0; i < 5_000; i++) {
+            long desde = random.nextInt(1_050_000);
+            long hasta = desde + 1 + random.nextInt(20_000);
+            Integer excluido = random.nextBoolean() ? 1 + random.nextInt(500) : null;
+
+            boolean esperado = ocupaciones.stream().anyMatch(o -> o.seCruzaCon(desde, hasta)
+                    && (excluido == null || o.idViaje() != excluido));
+
+            assertThat(agenda.buscarCruce(desde, hasta, excluido).isPresent()).isEqualTo(esperado);
+        }
+    }
+
+    @Test
+    void crucesListaCadaParUnaVez() {
+        AgendaEmbarcacion agenda = AgendaEmbarcacion.de(List.of(
+                new Ocupacion(1, 0, 100),
+                new Ocupacion(2, 50, 60),
+                new Ocupacion(3, 90, 200),
+                new Ocupacion(4, 200, 300)));
+
+        assertThat(agenda.cruces(0))
+                .extracting(par -> par[0].idViaje() + "-" + par[1].idViaje())
+                .containsExactlyInAnyOrder("1-2", "1-3");
+        // Desde 100 solo sigue vigente el cruce que termina después
+        assertThat(agenda.cruces(100)).isEmpty();
+        assertThat(agenda.sin(1).cruces(0)).isEmpty();
+        assertThat(agenda.con(new Ocupacion(2, 250, 260)).cruces(0))
+                .extracting(par -> par[0].idViaje() + "-" + par[1].idViaje())
+                .containsExactlyInAnyOrder("1-3", "4-2");
+    }
+}
@@ -0,0 +1,95 @@
+package com.zoealexa.service.transporte;
+
+import com.zoealexa.entity.enums.TipoOperacion;
+import com.zoealexa.entity.transporte.Embarcacion;
+import com.zoealexa.entity.transporte.Puerto;
+import com.zoealexa.entity.transporte.Ruta;
+import com.zoealexa.entity.transporte.Viaje;
+import com.zoealexa.exception.ConflictException;
+import com.zoealexa.repository.transporte.EmbarcacionRepository;
+import com.zoealexa.repository.transporte.PuertoRepository;
+import com.zoealexa.repository.transporte.RutaRepository;
+import com.zoealexa.repository.transporte.ViajeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * La agenda en memoria puede no incluir un viaje recién creado en otra
+ * transacción o nodo: la verificación se repite en la base de datos.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:agenda;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AgendaEmbarcacionesService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AgendaEmbarcacionesServiceTest {
+
+    @Autowired
+    private AgendaEmbarcacionesService agendaEmbarcacionesService;
+
+    @Autowired
+    private ViajeRepository viajeRepository;
+
+    @Autowired
+    private RutaRepository rutaRepository;
+
+    @Autowired
+    private PuertoRepository puertoRepository;
+
+    @Autowired
+    private EmbarcacionRepository embarcacionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void agendaDesactualizadaNoPermiteCruces() {
+        Puerto origen = puertoRepository.save(Puerto.builder()
+                .ciudad("Iquitos").nombrePuerto("Puerto Henry").tipoOperacion(TipoOperacion.AMBOS).build());
+        Puerto destino = puertoRepository.save(Puerto.builder()
+                .ciudad("Yurimaguas").nombrePuerto("Puerto La Boca").tipoOperacion(TipoOperacion.AMBOS).build());
+        Ruta ruta = rutaRepository.save(Ruta.builder()
+                .puertoOrigen(origen).puertoDestino(destino).duracionMinutos(600)
+                .diasOperacion("LUN,MAR,MIE,JUE,VIE,SAB,DOM").build());
+        Embarcacion embarcacion = embarcacionRepository.save(Embarcacion.builder()
+                .nombreEmbarcacion("Eduardo").capacidad(100).build());
+        LocalDate fecha = LocalDate.now().plusDays(5);
+
+        // La agenda se carga vacía y el viaje se crea sin invalidarla (como desde otro nodo)
+        agendaEmbarcacionesService.recargar();
+        viajeRepository.save(Viaje.builder()
+                .ruta(ruta).embarcacion(embarcacion).fechaViaje(fecha)
+                .horaEmbarque(LocalTime.of(18, 0)).cuposDisponibles(100).build());
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Integer idEmbarcacion = embarcacion.getIdEmbarcacion();
+
+        // Sale a las 22:00, cuando el viaje de las 18:00 (10 h) sigue en curso
+        assertThatThrownBy(() -> tx.executeWithoutResult(status -> agendaEmbarcacionesService.verificarDisponible(
+                idEmbarcacion, fecha, LocalTime.of(22, 0), 600, null)))
+                .isInstanceOf(ConflictException.class);
+
+        // Al día siguiente, después de la llegada, está libre
+        assertThatCode(() -> tx.executeWithoutResult(status -> agendaEmbarcacionesService.verificarDisponible(
+                idEmbarcacion, fecha.plusDays(1), LocalTime.of(18, 0), 600, null)))
+                .doesNotThrowAnyException();
+    }
+}
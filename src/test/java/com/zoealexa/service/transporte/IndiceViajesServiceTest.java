@@ -0,0 +1,238 @@
+package com.zoealexa.service.transporte;
+
+import com.zoealexa.dto.transporte.ItinerarioDTO;
+import com.zoealexa.dto.transporte.ViajeBusquedaDTO;
+import com.zoealexa.entity.enums.TipoOperacion;
+import com.zoealexa.entity.transporte.Embarcacion;
+import com.zoealexa.entity.transporte.Puerto;
+import com.zoealexa.entity.transporte.Ruta;
+import com.zoealexa.entity.transporte.Viaje;
+import com.zoealexa.mapper.transporte.ViajeMapper;
+import com.zoealexa.repository.transporte.EmbarcacionRepository;
+import com.zoealexa.repository.transporte.PuertoRepository;
+import com.zoealexa.repository.transporte.RutaRepository;
+import com.zoealexa.repository.transporte.ViajeRepository;
+import com.zoealexa.service.reserva.InventarioCuposService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * El índice de viajes responde igual que las consultas a la base de datos,
+ * sin acceder a ella, y sigue los cambios de cupos y la reconciliación.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:indiceviajes;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({IndiceViajesService.class, VersionCatalogoService.class, InventarioCuposService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IndiceViajesServiceTest {
+
+    private static final int DIAS = 10;
+    private static final int CAPACIDAD = 4;
+
+    // Mismas búsquedas resueltas en la base de datos, como referencia del índice
+    private static final String CONSULTA_PROXIMOS = "SELECT v FROM Viaje v " +
+            "WHERE v.fechaViaje BETWEEN :inicio AND :fin AND v.estado = 'PROGRAMADO' " +
+            "ORDER BY v.fechaViaje ASC, v.horaEmbarque ASC, v.idViaje ASC";
+    private static final String CONSULTA_DISPONIBLES = "SELECT v FROM Viaje v " +
+            "WHERE v.ruta.idRuta = :idRuta AND v.fechaViaje BETWEEN :inicio AND :fin " +
+            "AND v.cuposDisponibles > 0 AND v.estado = 'PROGRAMADO' " +
+            "ORDER BY v.fechaViaje ASC, v.horaEmbarque ASC, v.idViaje ASC";
+
+    @Autowired
+    private IndiceViajesService indiceViajesService;
+
+    @Autowired
+    private InventarioCuposService inventarioCuposService;
+
+    @Autowired
+    private ViajeRepository viajeRepository;
+
+    @Autowired
+    private RutaRepository rutaRepository;
+
+    @Autowired
+    private PuertoRepository puertoRepository;
+
+    @Autowired
+    private EmbarcacionRepository embarcacionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void busquedasCoincidenConLaBaseDeDatosSinConsultarla() {
+        Ruta ruta = crearRutaConViajes("Iquitos", "Yurimaguas");
+        indiceViajesService.reconciliar();
+
+        LocalDate hoy = LocalDate.now();
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        var disponibles = indiceViajesService.buscarDisponibles(ruta.getIdRuta(), hoy.plusDays(2), hoy.plusDays(6));
+        var proximos = indiceViajesService.buscarProximos(hoy, hoy.plusDays(7));
+
+        assertThat(estadisticas.getPrepareStatementCount()).isZero();
+        assertThat(disponibles).hasSize(5)
+                .containsExactlyElementsOf(consultar(CONSULTA_DISPONIBLES, hoy.plusDays(2), hoy.plusDays(6), ruta.getIdRuta()));
+        assertThat(proximos).containsExactlyElementsOf(consultar(CONSULTA_PROXIMOS, hoy, hoy.plusDays(7), null));
+    }
+
+    @Test
+    void reservasActualizanCuposYReconciliacionCorrigeCambiosExternos() {
+        Ruta ruta = crearRutaConViajes("Pucallpa", "Contamana");
+        indiceViajesService.reconciliar();
+
+        LocalDate fecha = LocalDate.now().plusDays(3);
+        Integer idViaje = viajeRepository.findByRutaIdRutaAndFechaViaje(ruta.getIdRuta(), fecha)
+                .get(0).getIdViaje();
+
+        // Viaje agotado: deja de aparecer como disponible tras el commit
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                inventarioCuposService.reservar(viajeRepository.findById(idViaje).orElseThrow(), CAPACIDAD));
+
+        assertThat(indiceViajesService.buscarDisponibles(ruta.getIdRuta(), fecha, fecha)).isEmpty();
+        assertThat(indiceViajesService.reconciliar()).isZero();
+
+        // Cambio hecho sin pasar por la aplicación (p. ej. desde otro nodo)
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                viajeRepository.liberarCupos(idViaje, 1));
+
+        assertThat(indiceViajesService.reconciliar()).isEqualTo(1);
+        assertThat(indiceViajesService.buscarDisponibles(ruta.getIdRuta(), fecha, fecha))
+                .extracting(ViajeBusquedaDTO::getCuposDisponibles)
+                .containsExactly(1);
+    }
+
+    @Test
+    void itinerariosCombinanRutasRespetandoEscalaYCupos() {
+        Puerto iquitos = crearPuerto("Iquitos");
+        Puerto nauta = crearPuerto("Nauta");
+        Puerto requena = crearPuerto("Requena");
+        Embarcacion embarcacion = embarcacionRepository.save(Embarcacion.builder()
+                .nombreEmbarcacion("Embarcación Itinerarios").capacidad(CAPACIDAD).build());
+
+        LocalDate dia = LocalDate.now().plusDays(2);
+        Ruta iquitosNauta = crearRuta(iquitos, nauta, 120);
+        Ruta nautaRequena = crearRuta(nauta, requena, 300);
+        Ruta directa = crearRuta(iquitos, requena, 24 * 60);
+
+        // Llega a Nauta 10:00: la salida de 10:30 no respeta la escala mínima, la de 11:00 sí
+        crearViaje(iquitosNauta, embarcacion, dia, LocalTime.of(8, 0));
+        Integer sinEscala = crearViaje(nautaRequena, embarcacion, dia, LocalTime.of(10, 30));
+        Integer conEscala = crearViaje(nautaRequena, embarcacion, dia, LocalTime.of(11, 0));
+        crearViaje(directa, embarcacion, dia, LocalTime.of(9, 0));
+        indiceViajesService.reconciliar();
+
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        var itinerarios = indiceViajesService.buscarItinerarios(iquitos.getIdPuerto(), requena.getIdPuerto(),
+                dia, dia, 1, 60, 5);
+
+        assertThat(estadisticas.getPrepareStatementCount()).isZero();
+        assertThat(itinerarios).hasSize(2);
+        // El directo sale después pero llega al día siguiente: ambos son opciones válidas
+        assertThat(itinerarios.get(0).getEscalas()).isEqualTo(1);
+        assertThat(itinerarios.get(0).getTramos()).extracting(ViajeBusquedaDTO::getIdViaje)
+                .last().isEqualTo(conEscala).isNotEqualTo(sinEscala);
+        assertThat(itinerarios.get(0).getFechaHoraLlegada()).isEqualTo(dia.atTime(16, 0));
+        assertThat(itinerarios.get(1).getEscalas()).isZero();
+
+        // Sin cupos suficientes en el segundo tramo solo queda el directo
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                inventarioCuposService.reservar(viajeRepository.findById(conEscala).orElseThrow(), CAPACIDAD));
+
+        assertThat(indiceViajesService.buscarItinerarios(iquitos.getIdPuerto(), requena.getIdPuerto(),
+                dia, dia, 1, 60, 5)).extracting(ItinerarioDTO::getEscalas).containsExactly(0);
+
+        // Una ruta sin duración sale de la red al recargarla
+        directa.setDuracionMinutos(null);
+        rutaRepository.save(directa);
+        indiceViajesService.refrescarRuta(directa.getIdRuta());
+
+        assertThat(indiceViajesService.buscarItinerarios(iquitos.getIdPuerto(), requena.getIdPuerto(),
+                dia, dia, 1, 60, 5)).isEmpty();
+    }
+
+    private Puerto crearPuerto(String ciudad) {
+        return puertoRepository.save(Puerto.builder()
+                .ciudad(ciudad).nombrePuerto("Puerto " + ciudad).tipoOperacion(TipoOperacion.AMBOS).build());
+    }
+
+    private Ruta crearRuta(Puerto origen, Puerto destino, Integer duracionMinutos) {
+        return rutaRepository.save(Ruta.builder()
+                .puertoOrigen(origen).puertoDestino(destino).diasOperacion("LUN,MAR,MIE,JUE,VIE,SAB,DOM")
+                .duracionMinutos(duracionMinutos).build());
+    }
+
+    private Integer crearViaje(Ruta ruta, Embarcacion embarcacion, LocalDate fecha, LocalTime hora) {
+        return viajeRepository.save(Viaje.builder()
+                .ruta(ruta).embarcacion(embarcacion).fechaViaje(fecha).horaEmbarque(hora)
+                .cuposDisponibles(CAPACIDAD).build()).getIdViaje();
+    }
+
+    private List<ViajeBusquedaDTO> consultar(String jpql, LocalDate inicio, LocalDate fin, Integer idRuta) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            TypedQuery<Viaje> consulta = entityManager.createQuery(jpql, Viaje.class)
+                    .setParameter("inicio", inicio)
+                    .setParameter("fin", fin);
+            if (idRuta != null) {
+                consulta.setParameter("idRuta", idRuta);
+            }
+            return consulta.getResultList().stream().map(ViajeMapper::toBusquedaDTO).toList();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private Ruta crearRutaConViajes(String ciudadOrigen, String ciudadDestino) {
+        Puerto origen = puertoRepository.save(Puerto.builder()
+                .ciudad(ciudadOrigen).nombrePuerto("Puerto " + ciudadOrigen).tipoOperacion(TipoOperacion.AMBOS).build());
+        Puerto destino = puertoRepository.save(Puerto.builder()
+                .ciudad(ciudadDestino).nombrePuerto("Puerto " + ciudadDestino).tipoOperacion(TipoOperacion.AMBOS).build());
+        Ruta ruta = rutaRepository.save(Ruta.builder()
+                .puertoOrigen(origen).puertoDestino(destino).diasOperacion("LUN,MAR,MIE,JUE,VIE,SAB,DOM").build());
+        Embarcacion embarcacion = embarcacionRepository.save(Embarcacion.builder()
+                .nombreEmbarcacion("Embarcación " + ciudadOrigen).capacidad(CAPACIDAD).build());
+
+        for (int d = 1; d <= DIAS; d++) {
+            viajeRepository.save(Viaje.builder()
+                    .ruta(ruta)
+                    .embarcacion(embarcacion)
+                    .fechaViaje(LocalDate.now().plusDays(d))
+                    .horaEmbarque(LocalTime.of(18, 0))
+                    .cuposDisponibles(CAPACIDAD)
+                    .build());
+        }
+        return ruta;
+    }
+}
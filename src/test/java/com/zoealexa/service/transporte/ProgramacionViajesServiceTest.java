@@ -0,0 +1,167 @@
+package com.zoealexa.service.transporte;
+
+import com.zoealexa.dto.transporte.ProgramacionViajesRequestDTO;
+import com.zoealexa.dto.transporte.ProgresoProgramacionDTO;
+import com.zoealexa.dto.transporte.ServicioProgramacionDTO;
+import com.zoealexa.entity.enums.TipoOperacion;
+import com.zoealexa.entity.transporte.Embarcacion;
+import com.zoealexa.entity.transporte.Puerto;
+import com.zoealexa.entity.transporte.Ruta;
+import com.zoealexa.repository.transporte.EmbarcacionRepository;
+import com.zoealexa.repository.transporte.PuertoRepository;
+import com.zoealexa.repository.transporte.RutaRepository;
+import com.zoealexa.repository.transporte.ViajeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Generación de una temporada (13 semanas): respeta los días de operación,
+ * no cruza horarios de una embarcación, inserta en lotes y es repetible.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:programacion;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.viajes.programacion.tamano-lote=20"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProgramacionViajesService.class, IndiceViajesService.class, VersionCatalogoService.class,
+        AgendaEmbarcacionesService.class,
+        ProgramacionViajesServiceTest.EjecucionSincrona.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProgramacionViajesServiceTest {
+
+    private static final int SEMANAS = 13;
+
+    @TestConfiguration
+    static class EjecucionSincrona {
+        @Bean
+        TaskExecutor applicationTaskExecutor() {
+            return new SyncTaskExecutor();
+        }
+    }
+
+    @Autowired
+    private ProgramacionViajesService programacionViajesService;
+
+    @Autowired
+    private AgendaEmbarcacionesService agendaEmbarcacionesService;
+
+    @Autowired
+    private ViajeRepository viajeRepository;
+
+    @Autowired
+    private RutaRepository rutaRepository;
+
+    @Autowired
+    private PuertoRepository puertoRepository;
+
+    @Autowired
+    private EmbarcacionRepository embarcacionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void generaTemporadaEnLotesSinCruzarEmbarcaciones() {
+        Embarcacion embarcacion = embarcacionRepository.save(Embarcacion.builder()
+                .nombreEmbarcacion("Embarcación Temporada").capacidad(120).build());
+        // 08:00 a 18:00 lunes, miércoles y viernes
+        Ruta diaria = crearRuta("Iquitos", "Nauta", "LUN,MIE,VIE", 600);
+        Ruta alterna = crearRuta("Nauta", "Iquitos", "MAR,JUE", 600);
+        // Los lunes a las 12:00 la embarcación sigue en la ruta anterior
+        Ruta cruzada = crearRuta("Iquitos", "Requena", "LUN", 300);
+
+        LocalDate inicio = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        ProgramacionViajesRequestDTO request = ProgramacionViajesRequestDTO.builder()
+                .fechaInicio(inicio)
+                .fechaFin(inicio.plusWeeks(SEMANAS).minusDays(1))
+                .servicios(List.of(
+                        servicio(diaria, embarcacion, LocalTime.of(8, 0)),
+                        servicio(alterna, embarcacion, LocalTime.of(8, 0)),
+                        servicio(cruzada, embarcacion, LocalTime.of(12, 0))))
+                .build();
+
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        ProgresoProgramacionDTO progreso = programacionViajesService.iniciar(request);
+
+        int esperados = SEMANAS * 5;
+        assertThat(progreso.getEstado()).isEqualTo("COMPLETADO");
+        assertThat(progreso.getTotalSalidas()).isEqualTo(SEMANAS * 6);
+        assertThat(progreso.getPorcentaje()).isEqualTo(100);
+        assertThat(progreso.getCreados()).isEqualTo(esperados);
+        assertThat(progreso.getOmitidosConflicto()).isEqualTo(SEMANAS);
+        assertThat(estadisticas.getEntityInsertCount()).isEqualTo(esperados);
+        // Lotes de 20: mucho menos que una sentencia por viaje
+        assertThat(estadisticas.getPrepareStatementCount()).isLessThan(esperados / 3);
+        assertThat(viajeRepository.count()).isEqualTo(esperados);
+        assertThat(agendaEmbarcacionesService.reporteConflictos(inicio)).isEmpty();
+
+        // Repetir la misma programación no duplica viajes
+        ProgresoProgramacionDTO repetida = programacionViajesService.iniciar(request);
+
+        assertThat(repetida.getCreados()).isZero();
+        assertThat(repetida.getOmitidosExistentes()).isEqualTo(esperados);
+        assertThat(programacionViajesService.obtenerProgreso(repetida.getIdTrabajo()).getEstado())
+                .isEqualTo("COMPLETADO");
+        assertThat(viajeRepository.count()).isEqualTo(esperados);
+
+        // La misma salida con otra embarcación tampoco se duplica
+        Embarcacion otra = embarcacionRepository.save(Embarcacion.builder()
+                .nombreEmbarcacion("Embarcación Reemplazo").capacidad(80).build());
+        ProgresoProgramacionDTO otraEmbarcacion = programacionViajesService.iniciar(ProgramacionViajesRequestDTO.builder()
+                .fechaInicio(request.getFechaInicio())
+                .fechaFin(request.getFechaFin())
+                .servicios(List.of(servicio(diaria, otra, LocalTime.of(8, 0))))
+                .build());
+
+        assertThat(otraEmbarcacion.getCreados()).isZero();
+        assertThat(otraEmbarcacion.getOmitidosExistentes()).isEqualTo(SEMANAS * 3);
+        assertThat(viajeRepository.count()).isEqualTo(esperados);
+    }
+
+    private Ruta crearRuta(String ciudadOrigen, String ciudadDestino, String dias, int duracionMinutos) {
+        Puerto origen = puertoRepository.save(Puerto.builder()
+                .ciudad(ciudadOrigen).nombrePuerto("Puerto " + ciudadOrigen + " " + dias)
+                .tipoOperacion(TipoOperacion.AMBOS).build());
+        Puerto destino = puertoRepository.save(Puerto.builder()
+                .ciudad(ciudadDestino).nombrePuerto("Puerto " + ciudadDestino + " " + dias)
+                .tipoOperacion(TipoOperacion.AMBOS).build());
+        return rutaRepository.save(Ruta.builder()
+                .puertoOrigen(origen).puertoDestino(destino)
+                .diasOperacion(dias).duracionMinutos(duracionMinutos).build());
+    }
+
+    private static ServicioProgramacionDTO servicio(Ruta ruta, Embarcacion embarcacion, LocalTime hora) {
+        return ServicioProgramacionDTO.builder()
+                .idRuta(ruta.getIdRuta())
+                .idEmbarcacion(embarcacion.getIdEmbarcacion())
+                .horaEmbarque(hora)
+                .build();
+    }
+}
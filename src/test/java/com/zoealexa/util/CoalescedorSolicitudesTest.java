@@ -0,0 +1,134 @@
+package com.zoealexa.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Solicitudes idénticas concurrentes ejecutan el cálculo una sola vez;
+ * un cálculo fallido no queda en caché y la espera por otro cálculo está acotada.
+ */
+class CoalescedorSolicitudesTest {
+
+    private static final int HILOS = 32;
+
+    @Test
+    void solicitudesConcurrentesCompartenUnCalculo() throws Exception {
+        CoalescedorSolicitudes<String, Integer> coalescedor = new CoalescedorSolicitudes<>(Duration.ofMinutes(1), Duration.ofSeconds(5), 100);
+        AtomicInteger ejecuciones = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<Integer>> resultados = new ArrayList<>();
+            for (int i = 0; i < HILOS; i++) {
+                resultados.add(executor.submit(() -> coalescedor.obtener("ruta-1", () -> {
+                    ejecuciones.incrementAndGet();
+                    esperar(liberar);
+                    return 42;
+                })));
+            }
+
+            // Se deja que el resto de hilos se sume al cálculo en curso
+            while (coalescedor.getCoalescidas() + coalescedor.getCalculos() < HILOS) {
+                Thread.onSpinWait();
+            }
+            liberar.countDown();
+
+            for (Future<Integer> resultado : resultados) {
+                assertThat(resultado.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ejecuciones).hasValue(1);
+        assertThat(coalescedor.getCalculos()).isEqualTo(1);
+        assertThat(coalescedor.getCoalescidas()).isEqualTo(HILOS - 1);
+
+        assertThat(coalescedor.obtener("ruta-1", () -> 0)).isEqualTo(42);
+        assertThat(coalescedor.getAciertos()).isEqualTo(1);
+    }
+
+    @Test
+    void calculoFallidoNoQuedaEnCache() {
+        CoalescedorSolicitudes<String, Integer> coalescedor = new CoalescedorSolicitudes<>(Duration.ofMinutes(1), Duration.ofSeconds(5), 100);
+
+        assertThatThrownBy(() -> coalescedor.obtener("ruta-1", () -> {
+            throw new IllegalStateException("falla");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(coalescedor.obtener("ruta-1", () -> 7)).isEqualTo(7);
+        assertThat(coalescedor.getCalculos()).isEqualTo(2);
+    }
+
+    @Test
+    void errorEnElCalculoNoDejaLaClaveBloqueada() {
+        CoalescedorSolicitudes<String, Integer> coalescedor = new CoalescedorSolicitudes<>(Duration.ofMinutes(1), Duration.ofSeconds(5), 100);
+
+        assertThatThrownBy(() -> coalescedor.obtener("ruta-1", () -> {
+            throw new StackOverflowError();
+        })).isInstanceOf(StackOverflowError.class);
+
+        assertThat(coalescedor.obtener("ruta-1", () -> 7)).isEqualTo(7);
+    }
+
+    @Test
+    void esperaVencidaCalculaPorSuCuenta() throws Exception {
+        CoalescedorSolicitudes<String, Integer> coalescedor = new CoalescedorSolicitudes<>(Duration.ofMinutes(1), Duration.ofMillis(50), 100);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> lento = executor.submit(() -> coalescedor.obtener("ruta-1", () -> {
+                esperar(liberar);
+                return 1;
+            }));
+            while (coalescedor.getCalculos() == 0) {
+                Thread.onSpinWait();
+            }
+
+            assertThat(coalescedor.obtener("ruta-1", () -> 2)).isEqualTo(2);
+            assertThat(coalescedor.getEsperasVencidas()).isEqualTo(1);
+
+            liberar.countDown();
+            assertThat(lento.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // La solicitud que se unió sigue contada como coalescida: los contadores no retroceden
+        assertThat(coalescedor.getCoalescidas()).isEqualTo(1);
+        assertThat(coalescedor.getCalculos()).isEqualTo(1);
+    }
+
+    @Test
+    void resultadoVencidoSeRecalcula() throws InterruptedException {
+        CoalescedorSolicitudes<String, Integer> coalescedor = new CoalescedorSolicitudes<>(Duration.ofMillis(10), Duration.ofSeconds(5), 100);
+
+        coalescedor.obtener("ruta-1", () -> 1);
+        Thread.sleep(20);
+
+        assertThat(coalescedor.obtener("ruta-1", () -> 2)).isEqualTo(2);
+        assertThat(coalescedor.getAciertos()).isZero();
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
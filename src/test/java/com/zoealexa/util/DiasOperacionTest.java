@@ -0,0 +1,34 @@
+package com.zoealexa.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los días de operación se aceptan con cualquier separador y los códigos
+ * se comparan completos.
+ */
+class DiasOperacionTest {
+
+    @Test
+    void aceptaCualquierSeparador() {
+        int esperada = DiasOperacion.mascara("LUN,MIE,VIE");
+
+        assertThat(DiasOperacion.mascara("LUN MIE VIE")).isEqualTo(esperada);
+        assertThat(DiasOperacion.mascara("LUN-MIE-VIE")).isEqualTo(esperada);
+        assertThat(DiasOperacion.mascara(" lun, mie ; vie ")).isEqualTo(esperada);
+
+        assertThat(DiasOperacion.opera(esperada, DayOfWeek.MONDAY)).isTrue();
+        assertThat(DiasOperacion.opera(esperada, DayOfWeek.WEDNESDAY)).isTrue();
+        assertThat(DiasOperacion.opera(esperada, DayOfWeek.TUESDAY)).isFalse();
+    }
+
+    @Test
+    void codigosIncompletosOPegadosNoCuentan() {
+        assertThat(DiasOperacion.mascara("LUNMIE")).isEqualTo(DiasOperacion.NINGUNO);
+        assertThat(DiasOperacion.mascara("LU,MI")).isEqualTo(DiasOperacion.NINGUNO);
+        assertThat(DiasOperacion.mascara(null)).isEqualTo(DiasOperacion.NINGUNO);
+    }
+}
@@ -0,0 +1,64 @@
+package com.zoealexa.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * La aritmética de punto fijo debe dar los mismos resultados que
+ * los cálculos con BigDecimal que reemplaza.
+ */
+class MontoTest {
+
+    private static final BigDecimal CIEN = new BigDecimal("100");
+
+    private final Random random = new Random(42);
+
+    @Test
+    void porcentajeCoincideConBigDecimal() {
+        for (int i = 0; i < 10_000; i++) {
+            BigDecimal precio = montoAleatorio(100_000_00);
+            BigDecimal porcentaje = montoAleatorio(100_00);
+
+            BigDecimal esperado = precio.multiply(porcentaje).divide(CIEN, 2, RoundingMode.HALF_UP);
+
+            assertThat(Monto.de(precio).porcentaje(Monto.de(porcentaje)).aBigDecimal()).isEqualTo(esperado);
+        }
+    }
+
+    @Test
+    void porcentajeSobreCoincideConBigDecimal() {
+        for (int i = 0; i < 10_000; i++) {
+            BigDecimal monto = montoAleatorio(1_000_00);
+            BigDecimal total = montoAleatorio(100_000_00).add(new BigDecimal("0.01"));
+
+            BigDecimal esperado = monto.multiply(CIEN).divide(total, 2, RoundingMode.HALF_UP);
+
+            assertThat(Monto.de(monto).porcentajeSobre(Monto.de(total)).aBigDecimal()).isEqualTo(esperado);
+        }
+    }
+
+    @Test
+    void redondeoHalfUpYLimites() {
+        assertThat(Monto.de(new BigDecimal("10.50")).aBigDecimal()).isEqualTo(new BigDecimal("10.50"));
+        assertThat(Monto.de(new BigDecimal("10.5000")).aBigDecimal()).isEqualTo(new BigDecimal("10.50"));
+        assertThatThrownBy(() -> Monto.de(new BigDecimal("10.005")))
+                .isInstanceOf(ArithmeticException.class);
+        assertThat(Monto.deCentimos(1001).porcentaje(Monto.deCentimos(50_00)).aBigDecimal())
+                .isEqualTo(new BigDecimal("5.01"));
+        assertThat(Monto.deCentimos(-500).noNegativo()).isEqualTo(Monto.CERO);
+        assertThatThrownBy(() -> Monto.deCentimos(1).porcentajeSobre(Monto.CERO))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Monto.deCentimos(Long.MAX_VALUE).sumar(Monto.deCentimos(1)))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    private BigDecimal montoAleatorio(int maxCentimos) {
+        return BigDecimal.valueOf(random.nextInt(maxCentimos), 2);
+    }
+}
@@ -0,0 +1,111 @@
+package com.zoealexa.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Conteo por clave en ventana deslizante: los eventos vencen solos, la
+ * espera indica cuándo se libera un cupo y las claves están acotadas.
+ */
+class VentanaDeslizanteTest {
+
+    private static final int HILOS = 16;
+    private static final int EVENTOS_POR_HILO = 10_000;
+
+    @Test
+    void cuentaSoloLosEventosDeLaVentana() {
+        VentanaDeslizante ventana = new VentanaDeslizante(Duration.ofSeconds(60), 5, 4, 100);
+
+        assertThat(ventana.registrar("ip-1", 0)).isEqualTo(1);
+        assertThat(ventana.registrar("ip-1", 10_000)).isEqualTo(2);
+        assertThat(ventana.registrar("ip-1", 20_000)).isEqualTo(3);
+        assertThat(ventana.contar("ip-2", 20_000)).isZero();
+
+        // Con límite 3 hay que esperar a que venza el primero (a los 60 s)
+        assertThat(ventana.esperaMs("ip-1", 3, 30_000)).isEqualTo(30_000);
+        assertThat(ventana.contar("ip-1", 60_000)).isEqualTo(2);
+        assertThat(ventana.esperaMs("ip-1", 2, 65_000)).isEqualTo(5_000);
+        assertThat(ventana.esperaMs("ip-1", 3, 65_000)).isZero();
+
+        // Solo se recuerdan los últimos 5
+        for (int i = 0; i < 10; i++) {
+            ventana.registrar("email", 1_000);
+        }
+        assertThat(ventana.contar("email", 1_000)).isEqualTo(5);
+        ventana.limpiar("email");
+        assertThat(ventana.contar("email", 1_000)).isZero();
+
+        ventana.purgar(200_000);
+        assertThat(ventana.tamano()).isZero();
+    }
+
+    @Test
+    void clavesAcotadas() {
+        VentanaDeslizante ventana = new VentanaDeslizante(Duration.ofSeconds(60), 5, 1, 10);
+        for (int i = 0; i < 50; i++) {
+            ventana.registrar("clave-" + i, 0);
+        }
+        assertThat(ventana.tamano()).isEqualTo(10);
+
+        // Vencidas las anteriores, se vuelven a aceptar claves nuevas
+        ventana.registrar("nueva", 61_000);
+        assertThat(ventana.tamano()).isEqualTo(1);
+    }
+
+    @Test
+    void tablaLlenaNoDesactivaElConteo() {
+        VentanaDeslizante ventana = new VentanaDeslizante(Duration.ofSeconds(60), 5, 1, 10);
+        ventana.registrar("victima", 0);
+
+        // Con la tabla llena de claves vigentes, las nuevas desplazan a las usadas hace más tiempo
+        for (int i = 0; i < 50; i++) {
+            assertThat(ventana.registrar("relleno-" + i, 1_000)).isEqualTo(1);
+            if (i % 5 == 0) {
+                ventana.registrar("victima", 1_000);
+            }
+        }
+        assertThat(ventana.tamano()).isEqualTo(10);
+
+        // Una clave que sigue recibiendo intentos conserva su cuenta
+        assertThat(ventana.registrar("victima", 2_000)).isEqualTo(5);
+        assertThat(ventana.registrar("nueva", 2_000)).isEqualTo(1);
+        assertThat(ventana.registrar("nueva", 2_000)).isEqualTo(2);
+    }
+
+    @Test
+    void hilosConcurrentesEnFranjasDistintas() throws Exception {
+        VentanaDeslizante ventana = new VentanaDeslizante(Duration.ofSeconds(60), EVENTOS_POR_HILO, 64, 1_000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < HILOS; h++) {
+                String clave = "ip-" + h;
+                tareas.add(executor.submit(() -> {
+                    for (int i = 0; i < EVENTOS_POR_HILO; i++) {
+                        ventana.registrar(clave, 1_000);
+                        ventana.registrar("compartida", 1_000);
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        for (int h = 0; h < HILOS; h++) {
+            assertThat(ventana.contar("ip-" + h, 1_000)).isEqualTo(EVENTOS_POR_HILO);
+        }
+        assertThat(ventana.contar("compartida", 1_000)).isEqualTo(EVENTOS_POR_HILO);
+    }
+}